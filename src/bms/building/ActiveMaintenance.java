@@ -0,0 +1,99 @@
+package bms.building;
+
+import bms.floor.MaintenanceSchedule;
+import bms.room.Room;
+
+/**
+ * A room currently under maintenance somewhere on a campus, as tracked by a
+ * {@link MaintenanceRegistry}.
+ * <p>
+ * The room is updated in place as the schedule moves on, so an active
+ * maintenance stands for a schedule rather than for a single room.
+ */
+public class ActiveMaintenance {
+
+    /** Schedule maintaining the room */
+    private final MaintenanceSchedule schedule;
+
+    /** Index of the building the schedule is in */
+    private final int buildingIndex;
+
+    /** Room currently being maintained */
+    private Room room;
+
+    /** Position in the registry's list for the building */
+    private int position;
+
+    /**
+     * Creates a new active maintenance.
+     *
+     * @param schedule schedule maintaining the room
+     * @param buildingIndex index of the building the schedule is in
+     * @param room room currently being maintained
+     */
+    ActiveMaintenance(MaintenanceSchedule schedule, int buildingIndex,
+                      Room room) {
+        this.schedule = schedule;
+        this.buildingIndex = buildingIndex;
+        this.room = room;
+    }
+
+    /**
+     * Returns the schedule maintaining the room.
+     *
+     * @return maintenance schedule
+     */
+    public MaintenanceSchedule getSchedule() {
+        return schedule;
+    }
+
+    /**
+     * Returns the index of the building on the campus in which the room is
+     * being maintained.
+     *
+     * @return building index
+     */
+    public int getBuildingIndex() {
+        return buildingIndex;
+    }
+
+    /**
+     * Returns the room currently being maintained.
+     *
+     * @return room in maintenance
+     */
+    public Room getRoom() {
+        return room;
+    }
+
+    /**
+     * Returns the number of minutes the room has been maintained for, see
+     * {@link MaintenanceSchedule#getTimeElapsedCurrentRoom()}.
+     *
+     * @return minutes spent maintaining the room
+     */
+    public int getTimeElapsed() {
+        return schedule.getTimeElapsedCurrentRoom();
+    }
+
+    /**
+     * Sets the room currently being maintained.
+     */
+    void setRoom(Room room) {
+        this.room = room;
+    }
+
+    /**
+     * Returns the position in the registry's list for the building.
+     */
+    int getPosition() {
+        return position;
+    }
+
+    /**
+     * Sets the position in the registry's list for the building.
+     */
+    void setPosition(int position) {
+        this.position = position;
+    }
+}
@@ -5,12 +5,24 @@ import bms.exceptions.FireDrillException;
 import bms.exceptions.FloorTooSmallException;
 import bms.exceptions.NoFloorBelowException;
 import bms.floor.Floor;
+import bms.floor.FloorListener;
+import bms.floor.FloorSnapshot;
+import bms.floor.MaintenanceListener;
+import bms.floor.MaintenanceSchedule;
+import bms.room.Room;
+import bms.room.RoomChange;
+import bms.room.RoomState;
 import bms.room.RoomType;
+import bms.util.ComfortIndex;
 import bms.util.Encodable;
 import bms.util.FireDrill;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 /**
  * Represents a building of floors, which in turn, contain rooms.
@@ -31,9 +43,96 @@ public class Building implements FireDrill, Encodable {
 
     /**
      * List of floors tracked by the building.
+     * <p>
+     * Floors can only be added on top of the floor below, so floor numbers
+     * are always contiguous from 1 and the floor with number n is at index
+     * n - 1. This list therefore also serves as the index from floor number
+     * to floor.
      */
     private List<Floor> floors;
 
+    /**
+     * Read-only view of the list of floors.
+     */
+    private List<Floor> floorsView;
+
+    /**
+     * Index of all rooms on the floors of the building, by room type.
+     */
+    private RoomIndex roomIndex;
+
+    /**
+     * Listener registered with each floor in the building.
+     */
+    private final FloorListener floorListener = this::floorChanged;
+
+    /**
+     * Listeners notified when a floor is added to the building, or a floor
+     * or room in the building changes.
+     * <p>
+     * Listeners may be added by readers, eg. when the comfort index is
+     * first needed, while the tick notifies the existing listeners.
+     */
+    private final List<FloorListener> listeners =
+            new CopyOnWriteArrayList<>();
+
+    /**
+     * Maintenance listener registered with each floor in the building.
+     */
+    private final MaintenanceListener maintenanceListener =
+            this::maintenanceMoved;
+
+    /**
+     * Listeners notified when the maintenance schedule of a floor in the
+     * building moves to a new room.
+     */
+    private final List<MaintenanceListener> maintenanceListeners =
+            new CopyOnWriteArrayList<>();
+
+    /**
+     * Guard which runs each change reported by a floor of the building, or
+     * null to run changes directly. Set by {@link ConcurrentBuilding} so
+     * that changes made by the tick are exclusive with its writers and
+     * readers.
+     */
+    private Consumer<Runnable> changeGuard;
+
+    /**
+     * Index of the comfort of the study rooms in the building, or null if
+     * it has not been needed yet.
+     */
+    private volatile ComfortIndex comfortIndex;
+
+    /**
+     * Number of structural changes made to this building, starting from 1.
+     */
+    private volatile int structureVersion = 1;
+
+    /**
+     * Cached hash code of this building in the high 32 bits, and the structure
+     * version it was calculated at in the low 32 bits. Only valid while that
+     * version is the current structure version, so a hash code calculated
+     * by a reader racing with a structural change is never used.
+     */
+    private volatile long hashCache;
+
+    /**
+     * Snapshot of the building as it is now, or null if the building has
+     * changed since the last snapshot was taken.
+     */
+    private BuildingSnapshot snapshot;
+
+    /**
+     * Version of the last snapshot taken of the building.
+     */
+    private long snapshotVersion;
+
+    /**
+     * Version of the building, incremented whenever a floor or room in the
+     * building changes, including sensor readings and room states.
+     */
+    private final AtomicLong version = new AtomicLong();
+
     /**
      * Creates a new empty building with no rooms.
      *
@@ -43,6 +142,8 @@ public class Building implements FireDrill, Encodable {
     public Building(String name) {
         this.name = name;
         this.floors = new ArrayList<>();
+        this.floorsView = Collections.unmodifiableList(this.floors);
+        this.roomIndex = new RoomIndex();
     }
 
     /**
@@ -68,6 +169,30 @@ public class Building implements FireDrill, Encodable {
         return new ArrayList<>(this.floors);
     }
 
+    /**
+     * Returns a read-only view of the floors in this building.
+     * <p>
+     * Unlike {@link #getFloors()}, no new list is created. The view reflects
+     * floors added to the building later, and cannot be modified.
+     *
+     * @return unmodifiable view of all floors in the building
+     */
+    public List<Floor> getFloorsView() {
+        return this.floorsView;
+    }
+
+    /**
+     * Performs the given action for each floor in this building, in
+     * ascending order of floor number.
+     *
+     * @param action action to perform on each floor
+     */
+    public void forEachFloor(Consumer<Floor> action) {
+        for (int i = 0; i < this.floors.size(); ++i) {
+            action.accept(this.floors.get(i));
+        }
+    }
+
     /**
      * Searches for the floor with the specified floor number.
      * <p>
@@ -79,12 +204,10 @@ public class Building implements FireDrill, Encodable {
      * @ass1
      */
     public Floor getFloorByNumber(int floorNumber) {
-        for (Floor floor : this.floors) {
-            if (floor.getFloorNumber() == floorNumber) {
-                return floor;
-            }
+        if (floorNumber < 1 || floorNumber > this.floors.size()) {
+            return null;
         }
-        return null;
+        return this.floors.get(floorNumber - 1);
     }
 
     /**
@@ -140,6 +263,164 @@ public class Building implements FireDrill, Encodable {
 
         // No problems, so add floor to the list of floors
         floors.add(newFloor);
+        newFloor.forEachRoom(roomIndex::add);
+        newFloor.setFloorListener(floorListener);
+        ++structureVersion;
+        snapshot = null;
+        try {
+            for (FloorListener listener : listeners) {
+                listener.floorChanged(newFloor, null, RoomChange.ADDED);
+            }
+        } finally {
+            version.incrementAndGet();
+        }
+        newFloor.setMaintenanceListener(maintenanceListener);
+    }
+
+    /**
+     * Adds a listener to be notified when a floor or room in the building
+     * changes, as reported by the floor, see
+     * {@link Floor#setFloorListener(FloorListener)}.
+     * <p>
+     * The listener is also notified when a floor is added to the building,
+     * with a null room and a change of {@link RoomChange#ADDED}.
+     *
+     * @param listener listener to notify of changes
+     */
+    public void addFloorListener(FloorListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Adds a listener to be notified when the maintenance schedule of a
+     * floor in the building moves to a new room, starts or stops, see
+     * {@link Floor#setMaintenanceListener(MaintenanceListener)}.
+     * <p>
+     * The listener is told of schedules on floors added to the building
+     * later, but not of schedules already running.
+     *
+     * @param listener listener to notify of maintenance
+     */
+    public void addMaintenanceListener(MaintenanceListener listener) {
+        maintenanceListeners.add(listener);
+    }
+
+    /**
+     * Sets the guard which runs each change reported by a floor of this
+     * building, in place of running it directly.
+     * <p>
+     * The guard is given the change to run, and must run it exactly once
+     * before returning. Changes are reported both by the tick and by
+     * writers changing the structure of the building, so the guard is
+     * entered from both.
+     *
+     * @param guard guard to run changes; null to run them directly
+     */
+    void setChangeGuard(Consumer<Runnable> guard) {
+        this.changeGuard = guard;
+    }
+
+    /**
+     * Called when the maintenance schedule of a floor in this building
+     * moves to a new room.
+     */
+    private void maintenanceMoved(MaintenanceSchedule schedule,
+                                  Room previous, Room current) {
+        Consumer<Runnable> guard = changeGuard;
+        if (guard == null) {
+            notifyMaintenanceListeners(schedule, previous, current);
+        } else {
+            guard.accept(() ->
+                    notifyMaintenanceListeners(schedule, previous, current));
+        }
+    }
+
+    /**
+     * Notifies the maintenance listeners of the building that a
+     * maintenance schedule moved to a new room.
+     */
+    private void notifyMaintenanceListeners(MaintenanceSchedule schedule,
+                                            Room previous, Room current) {
+        for (MaintenanceListener listener : maintenanceListeners) {
+            listener.maintenanceMoved(schedule, previous, current);
+        }
+    }
+
+    /**
+     * Returns the index of the comfort levels of the study rooms in this
+     * building, creating it the first time it is needed.
+     *
+     * @return comfort index of the building
+     */
+    public ComfortIndex getComfortIndex() {
+        ComfortIndex index = comfortIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = comfortIndex;
+                if (index == null) {
+                    index = new ComfortIndex(this);
+                    comfortIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Returns the current version of the building.
+     * <p>
+     * The version changes whenever a floor or room is added, a sensor is
+     * added or changes reading, or a fire drill, maintenance or fire alarm
+     * starts or stops in a room. Results computed from the building may
+     * therefore be reused for as long as the version stays the same.
+     * <p>
+     * The version changes only after every listener of the building has
+     * been told of the change, so a result computed by a listener before
+     * the comfort index has caught up is recorded against the old version
+     * and is not reused.
+     *
+     * @return version of the building
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Called when a floor in this building, or a room on it, changes.
+     */
+    private void floorChanged(Floor floor, Room room, RoomChange change) {
+        Consumer<Runnable> guard = changeGuard;
+        if (guard == null) {
+            applyFloorChange(floor, room, change);
+        } else {
+            guard.accept(() -> applyFloorChange(floor, room, change));
+        }
+    }
+
+    /**
+     * Updates the state derived from the floors of this building after a
+     * floor or room changed, and notifies the building's listeners.
+     */
+    private void applyFloorChange(Floor floor, Room room, RoomChange change) {
+        if (change.isStructural()) {
+            ++structureVersion;
+        }
+        snapshot = null;
+        switch (change) {
+            case ADDED -> roomIndex.add(room);
+            case FIRE_DRILL, MAINTENANCE, FIRE_ALARM ->
+                    roomIndex.stateChanged(room);
+            default -> { }
+        }
+        try {
+            for (FloorListener listener : listeners) {
+                listener.floorChanged(floor, room, change);
+            }
+        } finally {
+            // Only once every listener, including the comfort index, has
+            // caught up; see getVersion()
+            version.incrementAndGet();
+        }
     }
 
     /**
@@ -165,20 +446,12 @@ public class Building implements FireDrill, Encodable {
             throw new FireDrillException("Cannot conduct fire drill because "
                     + "there are no floors in the building yet!");
         }
-        boolean hasRooms = false;
-        for (Floor floor : this.floors) {
-            if (!floor.getRooms().isEmpty()) {
-                hasRooms = true;
-            }
-        }
-        if (!hasRooms) {
+        if (roomIndex.size() == 0) {
             throw new FireDrillException("Cannot conduct fire drill because "
                     + "there are no rooms in the building yet!");
-        } else {
-            for (Floor floor : this.floors) {
-                floor.fireDrill(roomType);
-            }
         }
+        // Only visits rooms of the given type
+        roomIndex.forEachRoom(roomType, room -> room.setFireDrill(true));
     }
 
     /**
@@ -189,8 +462,90 @@ public class Building implements FireDrill, Encodable {
      * @ass1
      */
     public void cancelFireDrill() {
+        // Only visits rooms with a fire drill in progress
+        roomIndex.forEachFireDrill(room -> room.setFireDrill(false));
+    }
+
+    /**
+     * Returns an immutable snapshot of this building, its floors and their
+     * rooms.
+     * <p>
+     * Snapshots are copied on write: the snapshot is cached until the
+     * building next changes, and when a room changes only the snapshots on
+     * the path from that room to the building are taken again. Snapshots of
+     * unchanged floors and rooms are shared with the previous snapshot.
+     * Taking a snapshot of an unchanged building returns the cached
+     * snapshot, so the cost of snapshots is proportional to the changes
+     * made since the last one.
+     * <p>
+     * Snapshots must be taken on the thread which runs the tick, eg. after
+     * each call to {@link bms.util.TimedItemManager#elapseOneMinute()}, as
+     * the tick changes sensor readings and room states. Once the building
+     * is shared through a {@link ConcurrentBuilding}, take snapshots with
+     * {@link ConcurrentBuilding#snapshot()} instead, which also excludes its
+     * writers. The snapshot itself may then be handed to any thread.
+     *
+     * @return snapshot of the building as it is now
+     */
+    public BuildingSnapshot snapshot() {
+        if (snapshot == null) {
+            List<FloorSnapshot> floorSnapshots =
+                    new ArrayList<>(floors.size());
+            for (Floor floor : floors) {
+                floorSnapshots.add(floor.snapshot());
+            }
+            snapshot = new BuildingSnapshot(name, ++snapshotVersion,
+                    floorSnapshots);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Returns the number of rooms in the building which are in the given
+     * state, as evaluated by {@link Room#evaluateRoomState()}.
+     * <p>
+     * Room states are tracked as fire drills, maintenance and fire alarms
+     * start and stop, so no room is evaluated.
+     *
+     * @param state room state to count
+     * @return number of rooms in the given state
+     */
+    public int countRoomsInState(RoomState state) {
+        return roomIndex.count(state);
+    }
+
+    /**
+     * Performs the given action for each room in the building which is in
+     * the given state, as evaluated by {@link Room#evaluateRoomState()}.
+     * <p>
+     * Only rooms in the given state are visited. The action may change the
+     * state of the room it is given.
+     *
+     * @param state room state to select
+     * @param action action to perform on each room
+     */
+    public void forEachRoomInState(RoomState state, Consumer<Room> action) {
+        roomIndex.forEachRoom(state, action);
+    }
+
+    /**
+     * Starts keeping a history of the hazard level of every room in the
+     * building, see {@link Room#enableHazardHistory(int, int)}.
+     * <p>
+     * Only rooms in the building when this method is called are affected.
+     * Memory used is bounded by the given capacity for each room.
+     *
+     * @param capacity maximum number of minutes of history to keep per room
+     * @param window number of minutes covered by each history's window
+     *               minimum and maximum
+     * @throws IllegalArgumentException if capacity &lt; 1, or if window is
+     * &lt; 1 or &gt; capacity
+     */
+    public void enableHazardHistory(int capacity, int window)
+            throws IllegalArgumentException {
         for (Floor floor : this.floors) {
-            floor.cancelFireDrill();
+            floor.forEachRoom(room ->
+                    room.enableHazardHistory(capacity, window));
         }
     }
 
@@ -269,15 +624,20 @@ public class Building implements FireDrill, Encodable {
 
         Building castObj = (Building) obj;
 
-        for(Floor floor : this.getFloors()) {
-            int floorNumber = floor.getFloorNumber();
-            Floor objFloor = castObj.getFloorByNumber(floorNumber);
-            if (!floor.equals(objFloor))
+        // Buildings with different hash codes can never be equal
+        if (this.hashCode() != castObj.hashCode())
+            return false;
+
+        if (this.floors.size() != castObj.floors.size() ||
+                !this.getName().equals(castObj.getName()))
+            return false;
+
+        // Floor numbers match list positions, so compare floors pairwise
+        for (int i = 0; i < this.floors.size(); ++i) {
+            if (!this.floors.get(i).equals(castObj.floors.get(i)))
                 return false;
         }
-
-        return this.getName().equals(castObj.getName()) &&
-                this.getFloors().size() == castObj.getFloors().size();
+        return true;
     }
 
     /**
@@ -285,19 +645,39 @@ public class Building implements FireDrill, Encodable {
      * Two buildings that are equal according to equals(Object)
      * should have the same hash code.
      *
+     * <p>
+     * The hash code is cached, and only recalculated after the structure of
+     * the building, one of its floors or one of their rooms has changed.
+     *
      * @return  hash code of this building
      */
     @Override
     public int hashCode() {
+        int current = structureVersion;
+        long cache = hashCache;
+        if ((int) cache == current) {
+            return (int) (cache >>> 32);
+        }
+        int hash = calculateHashCode();
+        hashCache = ((long) hash << 32) | (current & 0xFFFFFFFFL);
+        return hash;
+    }
+
+    /**
+     * Calculates the hash code of this building from its current structure.
+     *
+     * @return  hash code of this building
+     */
+    private int calculateHashCode() {
         final int prime = 11;
         int floorsHashCode = 0;
 
-        for(Floor floor : this.getFloors()) {
+        for(Floor floor : this.floors) {
             floorsHashCode += floor.hashCode();
         }
 
         int result = 1;
-        result = result * prime + getFloors().size();
+        result = result * prime + this.floors.size();
         result = result * prime + getName().hashCode();
         result = result * prime + floorsHashCode;
 
@@ -351,7 +731,7 @@ public class Building implements FireDrill, Encodable {
     @Override
     public String encode() {
 
-        List<Floor> floors = this.getFloors();
+        List<Floor> floors = this.getFloorsView();
 
         String buildingEncode = String.join(System.lineSeparator(),
                 this.getName(),
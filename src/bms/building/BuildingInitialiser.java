@@ -2,8 +2,8 @@ package bms.building;
 
 import bms.exceptions.*;
 import bms.floor.Floor;
-import bms.hazardevaluation.RuleBasedHazardEvaluator;
-import bms.hazardevaluation.WeightingBasedHazardEvaluator;
+import bms.hazardevaluation.HazardEvaluatorFactory;
+import bms.hazardevaluation.HazardEvaluatorRegistry;
 import bms.room.Room;
 import bms.room.RoomType;
 import bms.sensors.*;
@@ -63,7 +63,8 @@ public class BuildingInitialiser {
      * A room's type is not one of the types listed in RoomType. Room types
      * are case-sensitive.
      * A room's area is less than the minimum area for a room.
-     * A room's hazard evaluator type is invalid.
+     * A room's hazard evaluator type is invalid, i.e. not registered with
+     * the HazardEvaluatorRegistry.
      * A room's weighting-based hazard evaluator weightings are invalid
      * according to WeightingBasedHazardEvaluator(Map).
      * A room has two sensors of the same type (a duplicate sensor).
@@ -264,8 +265,7 @@ public class BuildingInitialiser {
         int roomNumber, numSensors;
         RoomType roomType;
         double roomArea;
-        boolean hasRuleEvaluator = false;
-        boolean hasWeightEvaluator = false;
+        HazardEvaluatorFactory evaluatorFactory = null;
 
         try {
             roomNumber = Integer.parseInt(roomParts[0]);
@@ -279,16 +279,14 @@ public class BuildingInitialiser {
         if (roomNumber < 0 || numSensors < 0 || roomArea < Room.getMinArea())
             throw new FileFormatException();
 
-        if (roomParts.length == 5 &&
-                roomParts[4].equals("RuleBased"))
-            hasRuleEvaluator = true;
-
-        if (roomParts.length == 5 &&
-                roomParts[4].equals("WeightingBased"))
-            hasWeightEvaluator = true;
+        if (roomParts.length == 5) {
+            evaluatorFactory = HazardEvaluatorRegistry.getFactory(roomParts[4]);
+            if (evaluatorFactory == null)
+                throw new FileFormatException();
+        }
 
-        if (roomParts.length == 5 && !hasRuleEvaluator && !hasWeightEvaluator)
-            throw new FileFormatException();
+        boolean hasWeightEvaluator = evaluatorFactory != null &&
+                evaluatorFactory.usesWeightings();
 
         Room room = new Room(roomNumber, roomType, roomArea);
         Map<HazardSensor, Integer> weightSensors = new HashMap<>();
@@ -322,23 +320,17 @@ public class BuildingInitialiser {
             }
         }
 
-        if (hasRuleEvaluator) {
-            List<HazardSensor> hazardSensors = new ArrayList<>();
+        if (evaluatorFactory != null) {
+            Map<HazardSensor, Integer> hazardSensors = new LinkedHashMap<>();
             for (Sensor sensor : room.getSensors()) {
                 if (sensor instanceof HazardSensor) {
-                    hazardSensors.add((HazardSensor) sensor);
+                    hazardSensors.put((HazardSensor) sensor,
+                            weightSensors.get(sensor));
                 }
             }
 
-            RuleBasedHazardEvaluator evaluator =
-                    new RuleBasedHazardEvaluator(hazardSensors);
-            room.setHazardEvaluator(evaluator);
-        }
-
-        if (hasWeightEvaluator) {
             try {
-                room.setHazardEvaluator(
-                        new WeightingBasedHazardEvaluator(weightSensors));
+                room.setHazardEvaluator(evaluatorFactory.create(hazardSensors));
             } catch (IllegalArgumentException e) {
                 throw new FileFormatException();
             }
@@ -0,0 +1,83 @@
+package bms.building;
+
+import bms.floor.FloorSnapshot;
+
+import java.util.List;
+
+/**
+ * Immutable snapshot of a building, taken by {@link Building#snapshot()}.
+ * <p>
+ * Holds the snapshots of the floors in the building. Snapshots of floors
+ * and rooms which have not changed are shared with earlier snapshots of the
+ * building. Snapshots are never modified, so they may be handed to other
+ * threads, eg. to save or analyse the building while the simulation
+ * continues.
+ */
+public final class BuildingSnapshot {
+
+    /** Name of the building */
+    private final String name;
+
+    /** Version of the building this is a snapshot of */
+    private final long version;
+
+    /** Snapshots of the floors, in order of floor number */
+    private final List<FloorSnapshot> floors;
+
+    /**
+     * Creates a snapshot of a building.
+     *
+     * @param name name of the building
+     * @param version version of the building this is a snapshot of
+     * @param floors snapshots of the floors in the building
+     */
+    BuildingSnapshot(String name, long version, List<FloorSnapshot> floors) {
+        this.name = name;
+        this.version = version;
+        this.floors = List.copyOf(floors);
+    }
+
+    /**
+     * Returns the name of the building.
+     *
+     * @return name of the building
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the version of the building this is a snapshot of.
+     * <p>
+     * Each snapshot of a building which differs from the one before it has
+     * a higher version.
+     *
+     * @return snapshot version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the snapshots of the floors in the building.
+     *
+     * @return unmodifiable list of floor snapshots, in order of floor number
+     */
+    public List<FloorSnapshot> getFloors() {
+        return floors;
+    }
+
+    /**
+     * Returns the snapshot of the floor with the given number, or null if
+     * there was no such floor in the building.
+     *
+     * @param floorNumber number of the floor
+     * @return snapshot of the floor; null if not found
+     */
+    public FloorSnapshot getFloorByNumber(int floorNumber) {
+        if (floorNumber < 1 || floorNumber > floors.size()) {
+            return null;
+        }
+        return floors.get(floorNumber - 1);
+    }
+}
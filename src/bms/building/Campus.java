@@ -0,0 +1,306 @@
+package bms.building;
+
+import bms.floor.Floor;
+import bms.room.Room;
+import bms.room.RoomChange;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A campus of buildings.
+ * <p>
+ * Buildings are kept in the order they were added, and indexed by name, so
+ * a building can be found by its index or its name in constant time.
+ * Buildings added one at a time must have unique names. A campus created
+ * from a list of buildings, eg. loaded from a save file, may contain
+ * buildings with the same name, in which case the name refers to the first
+ * of them, and the others can only be found by their index.
+ * <p>
+ * Each room on the campus has a compact global id, which identifies the
+ * room by the index of its building, its floor number and its room number.
+ * Ids are given out in order starting from 0 as rooms join the campus:
+ * when their building is added, or later when their floor is added to the
+ * building or they are added to the floor. Resolving an address to an id,
+ * and an id back to its room and address, both take constant time, so
+ * alerts, ingestion and the GUI can refer to rooms by a single int.
+ * <p>
+ * A campus is not thread safe. Ids are given out on the thread that adds
+ * the building, floor or room, which for a {@link ConcurrentBuilding} is a
+ * writer holding its write lock. Looking up ids and rooms never changes the
+ * campus, so any number of threads may do so while no building, floor or
+ * room is being added.
+ */
+public class Campus {
+
+    /** Initial capacity of the arrays of room addresses */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** Largest floor number that fits in a packed room address */
+    private static final int MAX_FLOOR = 0xFFFF;
+
+    /** Buildings on the campus, in the order they were added */
+    private final List<Building> buildings;
+
+    /** Read-only view of the list of buildings */
+    private final List<Building> buildingsView;
+
+    /** Index of each building in the list of buildings, keyed by name */
+    private final Map<String, Integer> buildingIndices;
+
+    /** Ids of the rooms on the campus, keyed by packed address */
+    private final Map<Long, Integer> roomIds;
+
+    /** Rooms on the campus, indexed by id */
+    private Room[] rooms;
+
+    /** Building index of each room, indexed by id */
+    private int[] roomBuildings;
+
+    /** Floor number of each room, indexed by id */
+    private int[] roomFloors;
+
+    /** Number of rooms given an id */
+    private int roomCount;
+
+    /**
+     * Registry of the rooms under maintenance on the campus, or null if it
+     * has not been needed yet.
+     */
+    private MaintenanceRegistry maintenanceRegistry;
+
+    /**
+     * Creates a new campus with no buildings.
+     */
+    public Campus() {
+        this.buildings = new ArrayList<>();
+        this.buildingsView = Collections.unmodifiableList(this.buildings);
+        this.buildingIndices = new HashMap<>();
+        this.roomIds = new HashMap<>();
+        this.rooms = new Room[INITIAL_CAPACITY];
+        this.roomBuildings = new int[INITIAL_CAPACITY];
+        this.roomFloors = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Creates a new campus of the given buildings, in order.
+     * <p>
+     * Buildings with the same name as an earlier building are kept, but
+     * {@link #getBuilding(String)} returns the earliest building with a
+     * name.
+     *
+     * @param buildings buildings on the campus
+     */
+    public Campus(List<Building> buildings) {
+        this();
+        for (Building building : buildings) {
+            buildingIndices.putIfAbsent(building.getName(),
+                    this.buildings.size());
+            this.buildings.add(building);
+            addRoomIds(this.buildings.size() - 1, building);
+        }
+    }
+
+    /**
+     * Adds a building to the campus.
+     *
+     * @param building building to add
+     * @throws IllegalArgumentException if a building with the same name is
+     * already on the campus
+     */
+    public void addBuilding(Building building)
+            throws IllegalArgumentException {
+        if (buildingIndices.containsKey(building.getName())) {
+            throw new IllegalArgumentException("A building named \""
+                    + building.getName() + "\" is already on the campus.");
+        }
+        buildingIndices.put(building.getName(), buildings.size());
+        buildings.add(building);
+        addRoomIds(buildings.size() - 1, building);
+        if (maintenanceRegistry != null) {
+            maintenanceRegistry.buildingAdded(buildings.size() - 1, building);
+        }
+    }
+
+    /**
+     * Returns a read-only view of the buildings on the campus, in the order
+     * they were added.
+     *
+     * @return unmodifiable view of all buildings on the campus
+     */
+    public List<Building> getBuildings() {
+        return buildingsView;
+    }
+
+    /**
+     * Returns the building with the given name, or null if there is no such
+     * building on the campus.
+     *
+     * @param name name of the building
+     * @return building with the given name; null if not found
+     */
+    public Building getBuilding(String name) {
+        Integer index = buildingIndices.get(name);
+        return index == null ? null : buildings.get(index);
+    }
+
+    /**
+     * Returns the index of the building with the given name, or -1 if there
+     * is no such building on the campus.
+     *
+     * @param name name of the building
+     * @return index of the building with the given name; -1 if not found
+     */
+    public int getBuildingIndex(String name) {
+        Integer index = buildingIndices.get(name);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Returns the registry of the rooms under maintenance on this campus,
+     * creating it the first time it is needed.
+     *
+     * @return maintenance registry of the campus
+     */
+    public MaintenanceRegistry getMaintenanceRegistry() {
+        if (maintenanceRegistry == null) {
+            maintenanceRegistry = new MaintenanceRegistry(this);
+        }
+        return maintenanceRegistry;
+    }
+
+    /**
+     * Gives ids to the rooms of a building added to the campus, in floor
+     * and room order, and listens to the building to give ids to rooms
+     * added to it later.
+     */
+    private void addRoomIds(int buildingIndex, Building building) {
+        for (Floor floor : building.getFloorsView()) {
+            floor.forEachRoom(room -> addRoomId(buildingIndex, floor, room));
+        }
+        building.addFloorListener((floor, room, change) -> {
+            if (change != RoomChange.ADDED) {
+                return;
+            }
+            if (room == null) {
+                floor.forEachRoom(r -> addRoomId(buildingIndex, floor, r));
+            } else {
+                addRoomId(buildingIndex, floor, room);
+            }
+        });
+    }
+
+    /**
+     * Gives the next id to the given room, unless it already has one or its
+     * floor number does not fit in a packed address.
+     */
+    private void addRoomId(int buildingIndex, Floor floor, Room room) {
+        int floorNumber = floor.getFloorNumber();
+        if (floorNumber > MAX_FLOOR) {
+            return;
+        }
+        if (roomIds.putIfAbsent(address(buildingIndex, floorNumber,
+                room.getRoomNumber()), roomCount) != null) {
+            return;
+        }
+        if (roomCount == rooms.length) {
+            rooms = Arrays.copyOf(rooms, 2 * roomCount);
+            roomBuildings = Arrays.copyOf(roomBuildings, 2 * roomCount);
+            roomFloors = Arrays.copyOf(roomFloors, 2 * roomCount);
+        }
+        rooms[roomCount] = room;
+        roomBuildings[roomCount] = buildingIndex;
+        roomFloors[roomCount] = floorNumber;
+        ++roomCount;
+    }
+
+    /**
+     * Returns the global id of the room with the given address, or -1 if
+     * there is no such room on the campus.
+     *
+     * @param buildingIndex index of the room's building
+     * @param floorNumber floor number of the room's floor
+     * @param roomNumber room number of the room
+     * @return global id of the room; -1 if not found
+     */
+    public int getRoomId(int buildingIndex, int floorNumber, int roomNumber) {
+        if (buildingIndex < 0 || buildingIndex >= buildings.size()
+                || floorNumber < 1 || floorNumber > MAX_FLOOR) {
+            return -1;
+        }
+        Integer id = roomIds.get(address(buildingIndex, floorNumber,
+                roomNumber));
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Returns the room with the given global id.
+     *
+     * @param roomId global id of the room
+     * @return room with the given id
+     * @throws IllegalArgumentException if no room has the id
+     */
+    public Room getRoom(int roomId) throws IllegalArgumentException {
+        checkRoomId(roomId);
+        return rooms[roomId];
+    }
+
+    /**
+     * Returns the index of the building of the room with the given global
+     * id.
+     *
+     * @param roomId global id of the room
+     * @return index of the room's building
+     * @throws IllegalArgumentException if no room has the id
+     */
+    public int getRoomBuildingIndex(int roomId)
+            throws IllegalArgumentException {
+        checkRoomId(roomId);
+        return roomBuildings[roomId];
+    }
+
+    /**
+     * Returns the floor number of the room with the given global id.
+     *
+     * @param roomId global id of the room
+     * @return floor number of the room's floor
+     * @throws IllegalArgumentException if no room has the id
+     */
+    public int getRoomFloorNumber(int roomId) throws IllegalArgumentException {
+        checkRoomId(roomId);
+        return roomFloors[roomId];
+    }
+
+    /**
+     * Returns the number of rooms given a global id, ie. the number of rooms
+     * on the campus. Ids run from 0 to one less than this.
+     *
+     * @return number of room ids
+     */
+    public int getRoomIdCount() {
+        return roomCount;
+    }
+
+    /**
+     * Throws an exception if no room has the given id.
+     */
+    private void checkRoomId(int roomId) throws IllegalArgumentException {
+        if (roomId < 0 || roomId >= roomCount) {
+            throw new IllegalArgumentException("Unknown room id: " + roomId);
+        }
+    }
+
+    /**
+     * Packs a room address into a single long.
+     */
+    private static long address(int buildingIndex, int floorNumber,
+                                int roomNumber) {
+        return ((long) buildingIndex << 48)
+                | ((long) floorNumber << 32)
+                | (roomNumber & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,306 @@
+package bms.building;
+
+import bms.exceptions.DuplicateFloorException;
+import bms.exceptions.DuplicateRoomException;
+import bms.exceptions.DuplicateSensorException;
+import bms.exceptions.FloorTooSmallException;
+import bms.exceptions.InsufficientSpaceException;
+import bms.exceptions.NoFloorBelowException;
+import bms.floor.Floor;
+import bms.room.Room;
+import bms.sensors.Sensor;
+import bms.util.StudyRoomRecommender;
+
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+
+/**
+ * Thread-safe access to the structure of a building.
+ * <p>
+ * Changes to the structure of the building (adding floors, rooms and
+ * sensors, and renovating floors) are made through this class, and each
+ * takes the write lock of a {@link StampedLock} owned by the building.
+ * <p>
+ * Reads are made through {@link #read(Function)}, which first runs the
+ * reader without locking and then validates that no write happened in the
+ * meantime. Only if a write did happen is the reader run again holding the
+ * read lock. Readers therefore never block each other, and only wait for
+ * a writer when they actually raced with it.
+ * <p>
+ * The tick changes sensor readings and room states without the lock, but
+ * every such change is reported up to the building, which updates its
+ * version, cached hash code and snapshot, its comfort index and its
+ * listeners. This class installs a guard on the building, see
+ * {@link Building#setChangeGuard(java.util.function.Consumer)}, so each
+ * of these building-level updates made by the tick takes the write lock:
+ * the tick waits for writers and for readers holding the read lock, and
+ * optimistic readers which raced with it are run again. Updates reported
+ * while a writer of this class holds the lock run directly under it.
+ * <p>
+ * Once a building is shared, its structure must only be changed through
+ * this class, and snapshots of it must only be taken through
+ * {@link #snapshot()}. Study rooms must only be recommended through
+ * {@link #recommendStudyRoom()}, as recommending fills the building's
+ * comfort index and so is not a side-effect free reader.
+ */
+public class ConcurrentBuilding {
+
+    /** Building whose structure is guarded */
+    private final Building building;
+
+    /** Lock guarding the structure of the building */
+    private final StampedLock lock = new StampedLock();
+
+    /** Thread holding the write lock, or null if it is not held */
+    private volatile Thread writer;
+
+    /**
+     * Creates thread-safe access to the given building.
+     *
+     * @param building building to guard
+     */
+    public ConcurrentBuilding(Building building) {
+        this.building = building;
+        long stamp = writeLock();
+        try {
+            // Create the comfort index, which registers itself as a listener
+            // of the building, before any reader can ask for it
+            building.getComfortIndex();
+            building.setChangeGuard(this::guardChange);
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Runs a change reported by a floor of the building holding the write
+     * lock, taking it unless the current thread already holds it.
+     *
+     * @param change change to run
+     */
+    private void guardChange(Runnable change) {
+        if (writer == Thread.currentThread()) {
+            change.run();
+            return;
+        }
+        long stamp = writeLock();
+        try {
+            change.run();
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Takes the write lock, recording the current thread as its holder.
+     *
+     * @return stamp to release the lock with
+     */
+    private long writeLock() {
+        long stamp = lock.writeLock();
+        writer = Thread.currentThread();
+        return stamp;
+    }
+
+    /**
+     * Releases the write lock taken by {@link #writeLock()}.
+     *
+     * @param stamp stamp returned when the lock was taken
+     */
+    private void unlockWrite(long stamp) {
+        writer = null;
+        lock.unlockWrite(stamp);
+    }
+
+    /**
+     * Returns the result of applying the given reader to the building.
+     * <p>
+     * The reader is first run optimistically without locking. If a write
+     * happened while it ran, its result is discarded, along with any
+     * exception it threw, and it is run again holding the read lock. The
+     * reader must therefore have no side effects, and must not retain
+     * references to the building's lists beyond its own call.
+     *
+     * @param reader function which reads from the building
+     * @param <T> type of the value read
+     * @return value returned by the reader from a consistent building
+     */
+    public <T> T read(Function<Building, T> reader) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            T result;
+            try {
+                result = reader.apply(building);
+            } catch (RuntimeException e) {
+                // A concurrent write may have left the reader with a
+                // partially updated list; only report the exception if not
+                if (lock.validate(stamp)) {
+                    throw e;
+                }
+                result = null;
+            }
+            if (lock.validate(stamp)) {
+                return result;
+            }
+        }
+
+        stamp = lock.readLock();
+        try {
+            return reader.apply(building);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns the most suitable study room in the building, see
+     * {@link StudyRoomRecommender#recommendStudyRoom(Building)}.
+     * <p>
+     * Recommending a room fills the caches of the building's comfort index
+     * and memoises the result, so unlike {@link #read(Function)} it is never
+     * run optimistically: it holds the read lock, which excludes writers and
+     * the tick's updates. Concurrent recommendations are serialised by the
+     * comfort index itself.
+     *
+     * @return the most suitable study room in the building; null if there
+     * are none
+     */
+    public Room recommendStudyRoom() {
+        long stamp = lock.readLock();
+        try {
+            return StudyRoomRecommender.recommendStudyRoom(building);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Adds a floor to the building, see {@link Building#addFloor(Floor)}.
+     *
+     * @param newFloor object representing the new floor
+     * @throws IllegalArgumentException if floor number is &lt;= 0,
+     * width &lt; Floor.getMinWidth(), or length &lt; Floor.getMinLength()
+     * @throws DuplicateFloorException if a floor at this level already exists
+     * in the building
+     * @throws NoFloorBelowException if this is at level 2 or above and there
+     * is no floor below to support this new floor
+     * @throws FloorTooSmallException if this is at level 2 or above and
+     * the floor below is not big enough to support this new floor
+     */
+    public void addFloor(Floor newFloor) throws
+            IllegalArgumentException, DuplicateFloorException,
+            NoFloorBelowException, FloorTooSmallException {
+        long stamp = writeLock();
+        try {
+            building.addFloor(newFloor);
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Adds a room to the given floor of the building, see
+     * {@link Floor#addRoom(Room)}.
+     *
+     * @param floorNumber number of the floor to add the room to
+     * @param newRoom object representing the new room
+     * @throws IllegalArgumentException if the floor does not exist, or the
+     * area of the room is less than Room.getMinArea()
+     * @throws DuplicateRoomException if the room number on this floor is
+     * already taken
+     * @throws InsufficientSpaceException if there is insufficient space
+     * available on the floor to be able to add the room
+     */
+    public void addRoom(int floorNumber, Room newRoom)
+            throws IllegalArgumentException, DuplicateRoomException,
+            InsufficientSpaceException {
+        long stamp = writeLock();
+        try {
+            getFloor(floorNumber).addRoom(newRoom);
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Adds a sensor to the given room of the building, see
+     * {@link Room#addSensor(Sensor)}.
+     *
+     * @param floorNumber number of the floor the room is on
+     * @param roomNumber number of the room to add the sensor to
+     * @param sensor the sensor to add to the room
+     * @throws IllegalArgumentException if the floor or room does not exist
+     * @throws DuplicateSensorException if the sensor to add is of the
+     * same type as a sensor already in the room
+     */
+    public void addSensor(int floorNumber, int roomNumber, Sensor sensor)
+            throws IllegalArgumentException, DuplicateSensorException {
+        long stamp = writeLock();
+        try {
+            Room room = getFloor(floorNumber).getRoomByNumber(roomNumber);
+            if (room == null) {
+                throw new IllegalArgumentException(
+                        "The given room does not exist.");
+            }
+            room.addSensor(sensor);
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Renovates the given floor of the building, see
+     * {@link Building#renovateFloor(int, double, double)}.
+     *
+     * @param floorNumber  the floor which is to be renovated
+     * @param newWidth  the new width dimension for the floor
+     * @param newLength  the new length dimension for the floor
+     * @throws IllegalArgumentException if the given floor does not exist, or
+     *          if newWidth &lt; Floor.getMinWidth(),
+     *          or newLength &lt; Floor.getMinLength()
+     * @throws FloorTooSmallException if the floors above or below, or the
+     *          rooms on the floor, cannot support the new dimensions
+     */
+    public void renovateFloor(int floorNumber, double newWidth,
+                              double newLength)
+            throws IllegalArgumentException, FloorTooSmallException {
+        long stamp = writeLock();
+        try {
+            building.renovateFloor(floorNumber, newWidth, newLength);
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns a snapshot of the building, see {@link Building#snapshot()}.
+     * <p>
+     * Taking a snapshot fills the cached snapshots of the building and its
+     * floors and rooms, so it holds the write lock. As with
+     * {@link Building#snapshot()}, it must be called on the thread which
+     * runs the tick.
+     *
+     * @return snapshot of the building as it is now
+     */
+    public BuildingSnapshot snapshot() {
+        long stamp = writeLock();
+        try {
+            return building.snapshot();
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns the floor with the given number, throwing an exception if it
+     * does not exist. Must be called holding the lock.
+     */
+    private Floor getFloor(int floorNumber) throws IllegalArgumentException {
+        Floor floor = building.getFloorByNumber(floorNumber);
+        if (floor == null) {
+            throw new IllegalArgumentException(
+                    "The given floor does not exist.");
+        }
+        return floor;
+    }
+}
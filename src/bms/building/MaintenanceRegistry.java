@@ -0,0 +1,168 @@
+package bms.building;
+
+import bms.floor.Floor;
+import bms.floor.MaintenanceSchedule;
+import bms.room.Room;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registry of the rooms currently under maintenance across a campus.
+ * <p>
+ * The registry listens to every building on the campus, see
+ * {@link Building#addMaintenanceListener(bms.floor.MaintenanceListener)},
+ * and is updated as floors' maintenance schedules and crew schedules, see
+ * {@link Floor#getCrewSchedules()}, move from room to room, start and
+ * stop. It keeps one {@link ActiveMaintenance} per running
+ * schedule, in a list per building, so the number of rooms in maintenance
+ * on the campus or in a building is known in constant time, and the rooms
+ * in maintenance in a building can be listed without looking at any floor.
+ * <p>
+ * Like the schedules themselves, the registry is updated on the thread
+ * which runs the tick. Use {@link Campus#getMaintenanceRegistry()} rather
+ * than creating a second registry for the same campus.
+ */
+public class MaintenanceRegistry {
+
+    /** Active maintenance of each running schedule */
+    private final Map<MaintenanceSchedule, ActiveMaintenance> active;
+
+    /** Active maintenance in each building, by building index */
+    private final List<List<ActiveMaintenance>> byBuilding;
+
+    /** Read-only views of the lists of active maintenance */
+    private final List<List<ActiveMaintenance>> byBuildingViews;
+
+    /**
+     * Creates a registry of the rooms under maintenance on the given campus,
+     * registering it as a maintenance listener of every building.
+     *
+     * @param campus campus whose maintenance to track
+     */
+    public MaintenanceRegistry(Campus campus) {
+        this.active = new IdentityHashMap<>();
+        this.byBuilding = new ArrayList<>();
+        this.byBuildingViews = new ArrayList<>();
+        List<Building> buildings = campus.getBuildings();
+        for (int i = 0; i < buildings.size(); ++i) {
+            buildingAdded(i, buildings.get(i));
+        }
+    }
+
+    /**
+     * Starts tracking the maintenance of a building added to the campus,
+     * including the schedules already running on its floors.
+     *
+     * @param buildingIndex index of the building on the campus
+     * @param building building added
+     */
+    void buildingAdded(int buildingIndex, Building building) {
+        List<ActiveMaintenance> list = new ArrayList<>();
+        byBuilding.add(list);
+        byBuildingViews.add(Collections.unmodifiableList(list));
+        for (Floor floor : building.getFloorsView()) {
+            MaintenanceSchedule schedule = floor.getMaintenanceSchedule();
+            if (schedule != null) {
+                maintenanceMoved(buildingIndex, schedule, null,
+                        schedule.getCurrentRoom());
+            }
+            for (MaintenanceSchedule crewSchedule : floor.getCrewSchedules()) {
+                maintenanceMoved(buildingIndex, crewSchedule, null,
+                        crewSchedule.getCurrentRoom());
+            }
+        }
+        building.addMaintenanceListener((schedule, previous, current) ->
+                maintenanceMoved(buildingIndex, schedule, previous, current));
+    }
+
+    /**
+     * Called when a schedule in the given building moves to a new room.
+     */
+    private void maintenanceMoved(int buildingIndex,
+                                  MaintenanceSchedule schedule,
+                                  Room previous, Room current) {
+        ActiveMaintenance maintenance = active.get(schedule);
+        if (current == null) {
+            if (maintenance != null) {
+                active.remove(schedule);
+                remove(maintenance);
+            }
+        } else if (maintenance != null) {
+            maintenance.setRoom(current);
+        } else {
+            maintenance = new ActiveMaintenance(schedule, buildingIndex,
+                    current);
+            List<ActiveMaintenance> list = byBuilding.get(buildingIndex);
+            maintenance.setPosition(list.size());
+            list.add(maintenance);
+            active.put(schedule, maintenance);
+        }
+    }
+
+    /**
+     * Removes the given active maintenance from its building's list, by
+     * moving the last in the list into its place.
+     */
+    private void remove(ActiveMaintenance maintenance) {
+        List<ActiveMaintenance> list =
+                byBuilding.get(maintenance.getBuildingIndex());
+        ActiveMaintenance last = list.remove(list.size() - 1);
+        if (last != maintenance) {
+            list.set(maintenance.getPosition(), last);
+            last.setPosition(maintenance.getPosition());
+        }
+    }
+
+    /**
+     * Returns the number of rooms under maintenance on the campus, ie. the
+     * number of running schedules.
+     *
+     * @return number of rooms in maintenance
+     */
+    public int getActiveCount() {
+        return active.size();
+    }
+
+    /**
+     * Returns the number of rooms under maintenance in the building with
+     * the given index.
+     *
+     * @param buildingIndex index of the building on the campus
+     * @return number of rooms in maintenance in the building
+     * @throws IndexOutOfBoundsException if there is no building with the
+     * given index
+     */
+    public int getActiveCount(int buildingIndex)
+            throws IndexOutOfBoundsException {
+        return byBuilding.get(buildingIndex).size();
+    }
+
+    /**
+     * Returns a read-only view of the rooms under maintenance in the
+     * building with the given index, in no particular order.
+     *
+     * @param buildingIndex index of the building on the campus
+     * @return unmodifiable view of the active maintenance in the building
+     * @throws IndexOutOfBoundsException if there is no building with the
+     * given index
+     */
+    public List<ActiveMaintenance> getActive(int buildingIndex)
+            throws IndexOutOfBoundsException {
+        return byBuildingViews.get(buildingIndex);
+    }
+
+    /**
+     * Returns the active maintenance of the given schedule, or null if the
+     * schedule is not running on the campus.
+     *
+     * @param schedule maintenance schedule to look up
+     * @return active maintenance of the schedule; null if not found
+     */
+    public ActiveMaintenance getActive(MaintenanceSchedule schedule) {
+        return active.get(schedule);
+    }
+}
@@ -0,0 +1,272 @@
+package bms.building;
+
+import bms.room.Room;
+import bms.room.RoomState;
+import bms.room.RoomType;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Index of all rooms in a building.
+ * <p>
+ * Each room is given an id, in the order the rooms were indexed. Rooms are
+ * also kept in a separate array for each room type, so rooms of one type
+ * can be visited without looking at any other room.
+ * <p>
+ * The flags which decide a room's state (fire drill, maintenance and fire
+ * detected by the temperature sensor) are kept in one bitset over room ids
+ * per flag. Counting the rooms in a state is then a population count over
+ * a few words, and visiting them is a scan of the set bits.
+ * <p>
+ * The index is kept up to date by its building, which forwards the changes
+ * reported by its floors. Room states may change on the tick thread while
+ * rooms are added on another, so all access to the index is synchronized.
+ * <p>
+ * Visiting rooms first copies the selected rooms holding the index's lock,
+ * then performs the action on the copy without it. An action which
+ * changes a room reports the change back to the building, which may take
+ * the lock of a {@link ConcurrentBuilding} whose writers in turn add rooms
+ * to this index; holding the index's lock while waiting for it would
+ * deadlock.
+ */
+class RoomIndex {
+
+    /** Initial capacity of each array of rooms */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** All indexed rooms, indexed by room id */
+    private Room[] rooms = new Room[INITIAL_CAPACITY];
+
+    /** Number of indexed rooms */
+    private int size;
+
+    /** Ids of the indexed rooms */
+    private final Map<Room, Integer> ids = new IdentityHashMap<>();
+
+    /** Indexed rooms of each type, indexed by the ordinal of the type */
+    private final Room[][] roomsByType =
+            new Room[RoomType.values().length][INITIAL_CAPACITY];
+
+    /** Number of indexed rooms of each type */
+    private final int[] typeCounts = new int[RoomType.values().length];
+
+    /** Bitset of the ids of rooms with a fire drill in progress */
+    private long[] fireDrills = new long[1];
+
+    /** Bitset of the ids of rooms with maintenance in progress */
+    private long[] maintenance = new long[1];
+
+    /** Bitset of the ids of rooms whose temperature sensor detects a fire */
+    private long[] fires = new long[1];
+
+    /**
+     * Adds the given room to the index, if it is not indexed already.
+     *
+     * @param room room to add
+     */
+    synchronized void add(Room room) {
+        if (ids.containsKey(room)) {
+            return;
+        }
+        int id = size;
+        if (id == rooms.length) {
+            rooms = Arrays.copyOf(rooms, 2 * rooms.length);
+        }
+        rooms[id] = room;
+        ids.put(room, id);
+        size++;
+
+        int type = room.getType().ordinal();
+        if (typeCounts[type] == roomsByType[type].length) {
+            roomsByType[type] = Arrays.copyOf(roomsByType[type],
+                    2 * roomsByType[type].length);
+        }
+        roomsByType[type][typeCounts[type]++] = room;
+
+        if ((id >> 6) >= fireDrills.length) {
+            fireDrills = Arrays.copyOf(fireDrills, 2 * fireDrills.length);
+            maintenance = Arrays.copyOf(maintenance, fireDrills.length);
+            fires = Arrays.copyOf(fires, fireDrills.length);
+        }
+        stateChanged(room);
+    }
+
+    /**
+     * Returns the number of indexed rooms.
+     *
+     * @return number of rooms
+     */
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of indexed rooms of the given type.
+     *
+     * @param roomType type of room to count
+     * @return number of rooms of the given type
+     */
+    synchronized int count(RoomType roomType) {
+        return typeCounts[roomType.ordinal()];
+    }
+
+    /**
+     * Performs the given action for each indexed room of the given type, or
+     * for every indexed room if the type is null.
+     * <p>
+     * The rooms are selected before the action is performed on any of
+     * them, so rooms indexed meanwhile are not visited.
+     *
+     * @param roomType type of room to visit; null for all rooms
+     * @param action action to perform on each room
+     */
+    void forEachRoom(RoomType roomType, Consumer<Room> action) {
+        for (Room room : select(roomType)) {
+            action.accept(room);
+        }
+    }
+
+    /**
+     * Returns a copy of the indexed rooms of the given type, or of every
+     * indexed room if the type is null.
+     */
+    private synchronized Room[] select(RoomType roomType) {
+        Room[] selected = roomType == null
+                ? rooms : roomsByType[roomType.ordinal()];
+        int count = roomType == null ? size : typeCounts[roomType.ordinal()];
+        return Arrays.copyOf(selected, count);
+    }
+
+    /**
+     * Updates the state bitsets after the fire drill, maintenance or fire
+     * detected status of the given room has changed.
+     *
+     * @param room room whose status changed
+     */
+    synchronized void stateChanged(Room room) {
+        Integer id = ids.get(room);
+        if (id == null) {
+            return;
+        }
+        set(fireDrills, id, room.fireDrillOngoing());
+        set(maintenance, id, room.maintenanceOngoing());
+        set(fires, id, room.fireDetected());
+    }
+
+    /**
+     * Performs the given action for each indexed room with a fire drill in
+     * progress, in order of room id.
+     * <p>
+     * The rooms are selected before the action is performed on any of
+     * them, so the action may cancel the fire drill in the room it is
+     * given.
+     *
+     * @param action action to perform on each room
+     */
+    void forEachFireDrill(Consumer<Room> action) {
+        for (Room room : select(word -> fireDrills[word])) {
+            action.accept(room);
+        }
+    }
+
+    /**
+     * Returns the number of indexed rooms in the given state, as evaluated
+     * by {@link Room#evaluateRoomState()}.
+     *
+     * @param state room state to count
+     * @return number of rooms in the given state
+     */
+    synchronized int count(RoomState state) {
+        int count = 0;
+        for (int word = 0; word < fireDrills.length; ++word) {
+            count += Long.bitCount(stateWord(state, word));
+        }
+        return count;
+    }
+
+    /**
+     * Performs the given action for each indexed room in the given state, as
+     * evaluated by {@link Room#evaluateRoomState()}, in order of room id.
+     * <p>
+     * The rooms are selected before the action is performed on any of
+     * them, so the action may change the state of the room it is given.
+     *
+     * @param state room state to select
+     * @param action action to perform on each room
+     */
+    void forEachRoom(RoomState state, Consumer<Room> action) {
+        for (Room room : select(word -> stateWord(state, word))) {
+            action.accept(room);
+        }
+    }
+
+    /**
+     * Returns the rooms whose bits are set in the words returned by the
+     * given function, in order of room id.
+     *
+     * @param bits function returning the given word of a bitset over room
+     *             ids
+     */
+    private synchronized Room[] select(IntToLongFunction bits) {
+        int count = 0;
+        for (int word = 0; word < fireDrills.length; ++word) {
+            count += Long.bitCount(bits.applyAsLong(word));
+        }
+        Room[] selected = new Room[count];
+        int next = 0;
+        for (int word = 0; word < fireDrills.length; ++word) {
+            long set = bits.applyAsLong(word);
+            while (set != 0) {
+                int id = (word << 6) + Long.numberOfTrailingZeros(set);
+                set &= set - 1;
+                selected[next++] = rooms[id];
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Returns the bits of the given word of the bitsets which are set for
+     * rooms in the given state.
+     * <p>
+     * A room is evacuated if a fire is detected or a fire drill is in
+     * progress; otherwise it is under maintenance if maintenance is in
+     * progress; otherwise it is open.
+     */
+    private long stateWord(RoomState state, int word) {
+        long evacuate = fireDrills[word] | fires[word];
+        return switch (state) {
+            case EVACUATE -> evacuate;
+            case MAINTENANCE -> maintenance[word] & ~evacuate;
+            case OPEN -> used(word) & ~(evacuate | maintenance[word]);
+            default -> 0;
+        };
+    }
+
+    /**
+     * Returns the bits of the given word which correspond to an indexed
+     * room.
+     */
+    private long used(int word) {
+        int bits = size - (word << 6);
+        if (bits >= 64) {
+            return -1L;
+        }
+        return bits <= 0 ? 0 : (1L << bits) - 1;
+    }
+
+    /**
+     * Sets or clears the bit for the given room id in a bitset.
+     */
+    private static void set(long[] bits, int id, boolean value) {
+        if (value) {
+            bits[id >> 6] |= 1L << id;
+        } else {
+            bits[id >> 6] &= ~(1L << id);
+        }
+    }
+}
@@ -3,17 +3,25 @@ package bms.display;
 import bms.building.Building;
 import bms.floor.Floor;
 import bms.room.Room;
+import bms.room.RoomChange;
 import bms.sensors.OccupancySensor;
 import bms.sensors.Sensor;
 import javafx.geometry.VPos;
+import javafx.scene.SnapshotParameters;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
 import javafx.scene.input.MouseButton;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.StringJoiner;
 
 /**
@@ -21,26 +29,6 @@ import java.util.StringJoiner;
  */
 public class BuildingCanvas extends Canvas {
 
-    private static class ClickableRegion {
-
-        private final double x;
-        private final double y;
-        private final double width;
-        private final double height;
-        public ClickableRegion(double x, double y, double width, double height) {
-            this.x = x;
-            this.y = y;
-            this.width = width;
-            this.height = height;
-        }
-
-        public boolean wasClicked(double clickX, double clickY) {
-            return clickX > this.x && clickX < this.x + this.width &&
-                    clickY > this.y && clickY < this.y + this.height;
-        }
-
-    }
-
     // Height of a floor in the building
     private static final int FLOOR_HEIGHT = 110;
 
@@ -50,11 +38,6 @@ public class BuildingCanvas extends Canvas {
     // View model
     private ViewModel viewModel;
 
-    // Mapping of clickable regions to floors
-    private Map<ClickableRegion, Floor> drawnFloors;
-    // Mapping of clickable regions to rooms
-    private Map<ClickableRegion, Room> drawnRooms;
-
     // Last pressed X and Y coordinates
     private double pressedX;
     private double pressedY;
@@ -63,14 +46,76 @@ public class BuildingCanvas extends Canvas {
     private double xOffset;
     private double yOffset;
 
+    // Padding around the building on the canvas
+    private static final double PADDING = 20;
+
+    // Padding around each room inside its floor
+    private static final double ROOM_PADDING = 5;
+
+    // Draw width of the smallest room, must be large enough to fit text
+    // inside room
+    private static final double MIN_ROOM_DRAW_WIDTH = 110;
+
+    // Smallest number of pre-rendered room images kept
+    private static final int MIN_CACHED_IMAGES = 256;
+
+    // Layout of the building, before panning. All floors start at PADDING
+    // and are FLOOR_HEIGHT high; floor i has rooms firstRoom[i] up to
+    // firstRoom[i + 1], each as high as the floor less ROOM_PADDING above
+    // and below
+    private Floor[] layoutFloors;
+    private double[] floorY;
+    private double[] floorWidth;
+    private int[] firstRoom;
+    private Room[] layoutRooms;
+    private double[] roomX;
+    private double[] roomY;
+    private double[] roomWidth;
+
+    // Index of each floor and room in the layout
+    private final Map<Floor, Integer> floorIndices;
+    private final Map<Room, Integer> roomIndices;
+
+    // Size of the canvas the layout was computed for
+    private double layoutWidth;
+    private double layoutHeight;
+
+    // Whether floors or rooms were added or changed size since laid out
+    private boolean structureChanged;
+
+    // Rooms whose reading, state or hazard evaluator changed since drawn
+    private final Set<Room> dirtyRooms;
+
+    // Selection as last drawn
+    private Floor drawnSelectedFloor;
+    private Room drawnSelectedRoom;
+
+    // Pre-rendered images of rooms, keyed by everything which affects how
+    // the room looks, least recently used first
+    private final Map<String, Image> roomImages;
+
+    // Off-screen canvas on which room images are rendered
+    private final Canvas roomLayer;
+
     /**
      * @ass2_given
      */
     public BuildingCanvas(ViewModel viewModel, Building building) {
-        this.drawnFloors = new HashMap<>();
-        this.drawnRooms = new HashMap<>();
         this.viewModel = viewModel;
         this.building = building;
+        this.floorIndices = new IdentityHashMap<>();
+        this.roomIndices = new IdentityHashMap<>();
+        this.dirtyRooms = Collections.newSetFromMap(new IdentityHashMap<>());
+        this.structureChanged = true;
+        this.roomImages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Image> e) {
+                return size() > Math.max(MIN_CACHED_IMAGES,
+                        2 * roomIndices.size());
+            }
+        };
+        this.roomLayer = new Canvas();
+        building.addFloorListener(this::floorChanged);
 
         widthProperty().addListener(e -> draw());
         heightProperty().addListener(e -> draw());
@@ -95,18 +140,23 @@ public class BuildingCanvas extends Canvas {
             if (event.getButton() != MouseButton.PRIMARY) {
                 return;
             }
-            double x = event.getX();
-            double y = event.getY();
+            // Undo panning to find the click in the layout
+            double x = event.getX() - this.xOffset;
+            double y = event.getY() - this.yOffset;
             Floor clickedFloor = null;
             Room clickedRoom = null;
-            for (Map.Entry<ClickableRegion, Room> entry : drawnRooms.entrySet()) {
-                if (entry.getKey().wasClicked(x, y)) {
-                    clickedRoom = entry.getValue();
+            for (int i = 0; layoutFloors != null && i < layoutFloors.length; ++i) {
+                if (x <= PADDING || x >= PADDING + floorWidth[i]
+                        || y <= floorY[i] || y >= floorY[i] + FLOOR_HEIGHT) {
+                    continue;
                 }
-            }
-            for (Map.Entry<ClickableRegion, Floor> entry : drawnFloors.entrySet()) {
-                if (entry.getKey().wasClicked(x, y)) {
-                    clickedFloor = entry.getValue();
+                clickedFloor = layoutFloors[i];
+                for (int j = firstRoom[i]; j < firstRoom[i + 1]; ++j) {
+                    if (x > roomX[j] && x < roomX[j] + roomWidth[j]
+                            && y > roomY[j]
+                            && y < roomY[j] + FLOOR_HEIGHT - 2 * ROOM_PADDING) {
+                        clickedRoom = layoutRooms[j];
+                    }
                 }
             }
             viewModel.setSelected(clickedFloor, clickedRoom);
@@ -114,31 +164,97 @@ public class BuildingCanvas extends Canvas {
     }
 
     /**
+     * Redraws the whole building, as needed after panning, resizing or a
+     * change to the building's structure.
+     *
      * @ass2_given
      */
     public void draw() {
-        // Clear the mapping of clickable regions to floors and rooms
-        this.drawnFloors.clear();
-        this.drawnRooms.clear();
+        if (isLayoutStale()) {
+            layOut();
+        }
+        this.dirtyRooms.clear();
+        this.drawnSelectedFloor = viewModel.getSelectedFloor();
+        this.drawnSelectedRoom = viewModel.getSelectedRoom();
 
         GraphicsContext gc = getGraphicsContext2D();
 
         // Clear the canvas
         gc.clearRect(0, 0, this.getWidth(), this.getHeight());
 
-        // Draw width of the smallest room, must be large enough to fit text
-        // inside room
-        final double minRoomDrawWidth = 110;
-        final double padding = 20;
-        double startX = padding;
-        double startY = this.getHeight() - padding;
-        final double roomPadding = 5;
-        double x, y;
+        for (int i = 0; i < layoutFloors.length; ++i) {
+            drawFloor(gc, i);
+        }
+    }
 
-        int numFloors = building.getFloors().size();
-        if (numFloors == 0) {
+    /**
+     * Repaints only what has changed since the building was last drawn: the
+     * rooms whose readings, state or hazard evaluator changed, and the
+     * floors and rooms whose selection changed. Falls back to a full
+     * redraw if the building's structure or the canvas size changed.
+     */
+    public void drawChanges() {
+        if (isLayoutStale()) {
+            draw();
             return;
         }
+        GraphicsContext gc = getGraphicsContext2D();
+
+        Floor selectedFloor = viewModel.getSelectedFloor();
+        if (selectedFloor != drawnSelectedFloor) {
+            // Repainting a floor repaints all of its rooms
+            for (Floor floor : new Floor[]{drawnSelectedFloor, selectedFloor}) {
+                Integer index = floor == null ? null : floorIndices.get(floor);
+                if (index != null) {
+                    drawFloor(gc, index);
+                    dirtyRooms.removeAll(floor.getRoomsView());
+                }
+            }
+            drawnSelectedFloor = selectedFloor;
+        }
+        Room selectedRoom = viewModel.getSelectedRoom();
+        if (selectedRoom != drawnSelectedRoom) {
+            if (drawnSelectedRoom != null) {
+                dirtyRooms.add(drawnSelectedRoom);
+            }
+            if (selectedRoom != null) {
+                dirtyRooms.add(selectedRoom);
+            }
+            drawnSelectedRoom = selectedRoom;
+        }
+
+        for (Room room : dirtyRooms) {
+            Integer index = roomIndices.get(room);
+            if (index != null) {
+                drawRoom(gc, index);
+            }
+        }
+        dirtyRooms.clear();
+    }
+
+    /**
+     * Returns whether the building's structure or the canvas size changed
+     * since the building was last laid out.
+     */
+    private boolean isLayoutStale() {
+        return structureChanged || layoutFloors == null
+                || layoutWidth != getWidth() || layoutHeight != getHeight();
+    }
+
+    /**
+     * Works out where each floor and room of the building is drawn, before
+     * panning, for the current size of the canvas.
+     */
+    private void layOut() {
+        structureChanged = false;
+        layoutWidth = getWidth();
+        layoutHeight = getHeight();
+        floorIndices.clear();
+        roomIndices.clear();
+
+        List<Floor> floors = building.getFloorsView();
+        int numFloors = floors.size();
+        int numRooms = 0;
 
         // Area of the smallest room in the building
         double minRoomArea = Double.MAX_VALUE;
@@ -147,127 +263,200 @@ public class BuildingCanvas extends Canvas {
         // If there are no rooms in the building at all, this value will remain
         // at 0 but is unused
         double minFloorArea = 0;
-        boolean buildingHasRooms = false;
-        // TODO extract calculation?
-        for (Floor floor : building.getFloors()) {
-            for (Room room : floor.getRooms()) {
-                buildingHasRooms = true;
+        for (Floor floor : floors) {
+            for (Room room : floor.getRoomsView()) {
+                ++numRooms;
                 if (room.getArea() < minRoomArea) {
                     minRoomArea = room.getArea();
                     minFloorArea = floor.calculateArea();
                 }
             }
         }
-        final double minFloorDrawWidth = minRoomDrawWidth * minFloorArea / minRoomArea;
+        boolean buildingHasRooms = numRooms > 0;
+        final double minFloorDrawWidth =
+                MIN_ROOM_DRAW_WIDTH * minFloorArea / minRoomArea;
+
+        layoutFloors = new Floor[numFloors];
+        floorY = new double[numFloors];
+        floorWidth = new double[numFloors];
+        firstRoom = new int[numFloors + 1];
+        layoutRooms = new Room[numRooms];
+        roomX = new double[numRooms];
+        roomY = new double[numRooms];
+        roomWidth = new double[numRooms];
+        if (numFloors == 0) {
+            return;
+        }
 
+        double startY = layoutHeight - PADDING;
         double firstFloorArea = building.getFloorByNumber(1).calculateArea();
-        // Draw each floor
+        int r = 0;
         for (int i = 0; i < numFloors; ++i) {
-            Floor floor = building.getFloors().get(i);
+            Floor floor = floors.get(i);
             double floorArea = floor.calculateArea();
             double relativeFloorArea = floorArea / firstFloorArea;
-            double floorOriginX = startX;
-            double floorOriginY = startY - (i + 1) * FLOOR_HEIGHT;
-            double floorDrawWidth;
+            double floorDrawWidth =
+                    (layoutWidth - 2 * PADDING) * relativeFloorArea;
             if (buildingHasRooms) {
-                floorDrawWidth = Math.max((floorArea / minFloorArea) * minFloorDrawWidth,
-                        (this.getWidth() - 2 * padding) * relativeFloorArea);
-            } else {
-                floorDrawWidth = (this.getWidth() - 2 * padding) * relativeFloorArea;
+                floorDrawWidth = Math.max(
+                        (floorArea / minFloorArea) * minFloorDrawWidth,
+                        floorDrawWidth);
+            }
+            layoutFloors[i] = floor;
+            floorY[i] = startY - (i + 1) * FLOOR_HEIGHT;
+            floorWidth[i] = floorDrawWidth;
+            firstRoom[i] = r;
+            floorIndices.put(floor, i);
+
+            double roomOriginX = PADDING;
+            for (Room room : floor.getRoomsView()) {
+                double roomDrawWidth =
+                        room.getArea() / floorArea * floorDrawWidth;
+                layoutRooms[r] = room;
+                roomX[r] = roomOriginX + ROOM_PADDING;
+                roomY[r] = floorY[i] + ROOM_PADDING;
+                roomWidth[r] = roomDrawWidth - 2 * ROOM_PADDING;
+                roomIndices.put(room, r);
+                ++r;
+                roomOriginX += roomDrawWidth;
             }
+        }
+        firstRoom[numFloors] = r;
+    }
+
+    /**
+     * Called when a floor in the building, or a room on it, changes.
+     */
+    private void floorChanged(Floor floor, Room room, RoomChange change) {
+        if (room == null || change.isStructural()) {
+            structureChanged = true;
+        } else {
+            dirtyRooms.add(room);
+        }
+    }
+
+    /**
+     * Draws the floor at the given index in the layout and all of its rooms,
+     * offset by the current panning.
+     */
+    private void drawFloor(GraphicsContext gc, int index) {
+        double x = this.xOffset + PADDING;
+        double y = this.yOffset + floorY[index];
+        gc.setStroke(Color.BLACK);
+        gc.strokeRect(x, y, floorWidth[index], FLOOR_HEIGHT);
+        if (layoutFloors[index].equals(viewModel.getSelectedFloor())) {
+            gc.setFill(Color.LIGHTPINK);
+        } else {
+            gc.setFill(Color.LIGHTGRAY);
+        }
+        gc.fillRect(x, y, floorWidth[index], FLOOR_HEIGHT);
+
+        for (int j = firstRoom[index]; j < firstRoom[index + 1]; ++j) {
+            drawRoom(gc, j);
+        }
+    }
+
+    /**
+     * Draws the room at the given index in the layout, offset by the current
+     * panning, from a pre-rendered image of the room if it looks the same
+     * as when last rendered.
+     */
+    private void drawRoom(GraphicsContext gc, int index) {
+        Room room = layoutRooms[index];
+        double width = roomWidth[index];
+        double height = FLOOR_HEIGHT - 2 * ROOM_PADDING;
+        boolean selected = room.equals(viewModel.getSelectedRoom());
+        int hazardLevel = room.getHazardEvaluator() == null
+                ? -1 : room.getHazardEvaluator().evaluateHazardLevel();
+        String description = describeRoom(room);
+        String key = width + "x" + height + "|" + selected
+                + "|" + hazardLevel + "|" + description;
+
+        Image image = roomImages.get(key);
+        if (image == null) {
+            image = renderRoom(width, height, selected, hazardLevel,
+                    description);
+            roomImages.put(key, image);
+        }
+        // Images have a one pixel margin for the room's border
+        gc.drawImage(image, Math.round(this.xOffset + roomX[index]) - 1,
+                Math.round(this.yOffset + roomY[index]) - 1);
+    }
 
+    /**
+     * Renders a room of the given size and appearance to a new image, with
+     * a one pixel margin around the room.
+     */
+    private Image renderRoom(double width, double height, boolean selected,
+                             int hazardLevel, String description) {
+        roomLayer.setWidth(Math.ceil(width) + 2);
+        roomLayer.setHeight(Math.ceil(height) + 2);
+        GraphicsContext gc = roomLayer.getGraphicsContext2D();
+        gc.clearRect(0, 0, roomLayer.getWidth(), roomLayer.getHeight());
+        double x = 1;
+        double y = 1;
+
+        gc.setStroke(Color.BLUE);
+        gc.strokeRect(x, y, width, height);
+        if (selected) {
+            gc.setFill(Color.LIGHTYELLOW);
+        } else {
+            gc.setFill(Color.WHITE);
+        }
+        gc.fillRect(x, y, width, height);
+
+        // Draw a coloured rectangle to represent the hazard level
+        if (hazardLevel >= 0) {
+            double hazardPct = hazardLevel / 100.0;
+            double hazardHeight = hazardPct * height;
+            gc.setFill(Color.ORANGE);
+            gc.fillRect(x, y + height - hazardHeight, 5, hazardHeight);
             gc.setStroke(Color.BLACK);
-            x = this.xOffset + floorOriginX;
-            y = this.yOffset + floorOriginY;
-            gc.strokeRect(x, y, floorDrawWidth, FLOOR_HEIGHT);
-            if (floor.equals(viewModel.getSelectedFloor())) {
-                gc.setFill(Color.LIGHTPINK);
-            } else {
-                gc.setFill(Color.LIGHTGRAY);
-            }
-            gc.fillRect(x, y, floorDrawWidth, FLOOR_HEIGHT);
-
-            this.drawnFloors.put(new ClickableRegion(
-                    x, y, floorDrawWidth, FLOOR_HEIGHT), floor);
-
-            // Draw each room on the current floor
-            int numRooms = floor.getRooms().size();
-            double roomOriginX = floorOriginX;
-            for (int j = 0; j < numRooms; ++j) {
-                Room room = floor.getRooms().get(j);
-                double roomArea = room.getArea();
-                double roomDrawWidth = roomArea / floor.calculateArea() * floorDrawWidth;
-
-                gc.setStroke(Color.BLUE);
-                x = this.xOffset + roomOriginX + roomPadding;
-                y = this.yOffset + floorOriginY + roomPadding;
-                gc.strokeRect(x, y,
-                        roomDrawWidth - 2 * roomPadding,
-                        FLOOR_HEIGHT - 2 * roomPadding);
-                if (room.equals(viewModel.getSelectedRoom())) {
-                    gc.setFill(Color.LIGHTYELLOW);
-                } else {
-                    gc.setFill(Color.WHITE);
-                }
-                gc.fillRect(x, y,
-                        roomDrawWidth - 2 * roomPadding,
-                        FLOOR_HEIGHT - 2 * roomPadding);
-
-                this.drawnRooms.put(new ClickableRegion(x, y,
-                        roomDrawWidth - 2 * roomPadding,
-                        FLOOR_HEIGHT - 2 * roomPadding), room);
-
-                // Draw a coloured rectangle to represent the hazard level
-                if (room.getHazardEvaluator() != null) {
-                    double hazardPct = room.getHazardEvaluator()
-                            .evaluateHazardLevel() / 100.0;
-                    double fullHeight = FLOOR_HEIGHT - 2 * roomPadding;
-                    double height = hazardPct * fullHeight;
-                    gc.setFill(Color.ORANGE);
-                    gc.fillRect(x, y + fullHeight - height, 5, height);
-                    gc.setStroke(Color.BLACK);
-
-                    gc.strokeLine(x + 5.5, y, x + 5.5, y + FLOOR_HEIGHT - 2 * roomPadding);
-                }
 
-                StringJoiner joiner = new StringJoiner(System.lineSeparator());
-                joiner.add("Room #" + room.getRoomNumber());
-                joiner.add(room.getType().toString());
-                joiner.add(room.evaluateRoomState().toString());
-                Sensor tempSensor = room.getSensor("TemperatureSensor");
-                if (tempSensor != null) {
-                    joiner.add(String.format("%d°C",
-                            tempSensor.getCurrentReading()));
-                }
-                Sensor noiseSensor = room.getSensor("NoiseSensor");
-                if (noiseSensor != null) {
-                    joiner.add(String.format("%ddB",
-                            noiseSensor.getCurrentReading()));
-                }
-                Sensor co2Sensor = room.getSensor("CarbonDioxideSensor");
-                if (co2Sensor != null) {
-                    joiner.add(String.format("%dppm",
-                            co2Sensor.getCurrentReading()));
-                }
-                OccupancySensor occupancySensor = (OccupancySensor) room.getSensor("OccupancySensor");
-                if (occupancySensor != null) {
-                    joiner.add(String.format("%d/%d",
-                            occupancySensor.getCurrentReading(),
-                            occupancySensor.getCapacity()));
-                }
-                String roomDescription = joiner.toString();
+            gc.strokeLine(x + 5.5, y, x + 5.5, y + height);
+        }
 
-                gc.setFill(Color.BLACK);
-                gc.setTextBaseline(VPos.TOP);
-                x = this.xOffset + roomOriginX + roomPadding + 2
-                        + (room.getHazardEvaluator() == null ? 0 : 6);
-                y = this.yOffset + floorOriginY + roomPadding + 2;
-                gc.setFont(Font.font("monospace"));
-                gc.fillText(roomDescription, x, y);
+        gc.setFill(Color.BLACK);
+        gc.setTextBaseline(VPos.TOP);
+        gc.setFont(Font.font("monospace"));
+        gc.fillText(description, x + 2 + (hazardLevel >= 0 ? 6 : 0), y + 2);
 
-                roomOriginX += roomDrawWidth;
-            }
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setFill(Color.TRANSPARENT);
+        return roomLayer.snapshot(parameters, new WritableImage(
+                (int) roomLayer.getWidth(), (int) roomLayer.getHeight()));
+    }
+
+    /**
+     * Returns the text shown inside the given room.
+     */
+    private static String describeRoom(Room room) {
+        StringJoiner joiner = new StringJoiner(System.lineSeparator());
+        joiner.add("Room #" + room.getRoomNumber());
+        joiner.add(room.getType().toString());
+        joiner.add(room.evaluateRoomState().toString());
+        Sensor tempSensor = room.getTemperatureSensor();
+        if (tempSensor != null) {
+            joiner.add(String.format("%d°C",
+                    tempSensor.getCurrentReading()));
+        }
+        Sensor noiseSensor = room.getNoiseSensor();
+        if (noiseSensor != null) {
+            joiner.add(String.format("%ddB",
+                    noiseSensor.getCurrentReading()));
+        }
+        Sensor co2Sensor = room.getCarbonDioxideSensor();
+        if (co2Sensor != null) {
+            joiner.add(String.format("%dppm",
+                    co2Sensor.getCurrentReading()));
+        }
+        OccupancySensor occupancySensor = room.getOccupancySensor();
+        if (occupancySensor != null) {
+            joiner.add(String.format("%d/%d",
+                    occupancySensor.getCurrentReading(),
+                    occupancySensor.getCapacity()));
         }
+        return joiner.toString();
     }
 
     private void pan(double deltaX, double deltaY) {
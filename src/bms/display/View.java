@@ -519,22 +519,22 @@ public class View {
     }
 
     private void update() {
-        // Add a new tab for any newly created buildings
-        List<String> tabTitles = new ArrayList<>();
-        for (Tab tab : tabPane.getTabs()) {
-            tabTitles.add(tab.getText());
-        }
-        for (Building building : viewModel.getBuildings()) {
-            String buildingName = building.getName();
-            if (!tabTitles.contains(buildingName)) {
-                Tab tab = new Tab(buildingName, createBuildingCanvas(building));
-                tab.setClosable(false);
-                tabPane.getTabs().add(tab);
-                // Switch to the new building's tab
-                tabPane.getSelectionModel().select(tab);
-            }
+        // Add a new tab for any newly created buildings. Buildings are only
+        // ever added to the end of the campus, and there is one tab per
+        // building, so only buildings beyond the last tab are new
+        List<Building> buildings = viewModel.getBuildings();
+        for (int i = tabPane.getTabs().size(); i < buildings.size(); ++i) {
+            Building building = buildings.get(i);
+            Tab tab = new Tab(building.getName(),
+                    createBuildingCanvas(building));
+            tab.setClosable(false);
+            tabPane.getTabs().add(tab);
+            // Switch to the new building's tab
+            tabPane.getSelectionModel().select(tab);
         }
-        getCurrentCanvas().draw();
+        // Only rooms which changed are repainted; panning, resizing and
+        // switching tabs redraw the whole canvas
+        getCurrentCanvas().drawChanges();
         viewModel.updateInfoText();
     }
 }
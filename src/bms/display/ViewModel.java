@@ -1,6 +1,7 @@
 package bms.display;
 
 import bms.building.Building;
+import bms.building.Campus;
 import bms.exceptions.*;
 import bms.floor.Floor;
 import bms.hazardevaluation.RuleBasedHazardEvaluator;
@@ -24,7 +25,7 @@ import java.util.*;
  * @ass2_part_given
  */
 public class ViewModel {
-    private List<Building> buildings;
+    private Campus campus;
 
     private BooleanProperty paused = new SimpleBooleanProperty(true);
     private IntegerProperty ticks = new SimpleIntegerProperty(0);
@@ -50,7 +51,7 @@ public class ViewModel {
      * @ass2_given
      */
     public ViewModel(List<Building> buildings) {
-        this.buildings = buildings;
+        this.campus = new Campus(buildings);
     }
 
     /**
@@ -126,6 +127,7 @@ public class ViewModel {
     public void save(String filename) throws IOException {
         // TODO implement for assignment 2
         BufferedWriter writer = new BufferedWriter(new FileWriter(filename));
+        List<Building> buildings = campus.getBuildings();
         for (int i = 0; i < buildings.size(); ++i) {
             writer.write(buildings.get(i).encode());
             if (i != buildings.size() - 1) {
@@ -165,7 +167,16 @@ public class ViewModel {
      * @ass2_given
      */
     public List<Building> getBuildings() {
-        return buildings;
+        return campus.getBuildings();
+    }
+
+    /**
+     * Returns the campus of all buildings shown in the GUI.
+     *
+     * @return campus of buildings
+     */
+    public Campus getCampus() {
+        return campus;
     }
 
     /**
@@ -241,7 +252,7 @@ public class ViewModel {
      */
     public Building getSelectedBuilding() {
         int buildingIndex = currentBuildingIndex.get();
-        return this.buildings.get(buildingIndex);
+        return this.campus.getBuildings().get(buildingIndex);
     }
 
     /**
@@ -295,15 +306,16 @@ public class ViewModel {
             joiner.add("Fire Drill: " + this.selectedRoom.fireDrillOngoing());
             joiner.add("Maintenance: " + this.selectedRoom.maintenanceOngoing());
             joiner.add("State: " + this.selectedRoom.evaluateRoomState());
-            joiner.add("Sensors: " + this.selectedRoom.getSensors().size());
+            List<Sensor> sensors = this.selectedRoom.getSensorsView();
+            joiner.add("Sensors: " + sensors.size());
             if (this.selectedRoom.getHazardEvaluator() != null) {
                 joiner.add("Hazard Evaluator: "
                         + this.selectedRoom.getHazardEvaluator());
             }
 
-            if (!this.selectedRoom.getSensors().isEmpty()) {
+            if (!sensors.isEmpty()) {
                 joiner.add("\nSensors");
-                for (Sensor s : this.selectedRoom.getSensors()) {
+                for (Sensor s : sensors) {
                     joiner.add(s.getClass().getSimpleName());
                 }
             }
@@ -445,7 +457,13 @@ public class ViewModel {
                     "Building name must contain non-whitespace characters");
             return;
         }
-        this.buildings.add(new Building(buildingName));
+        if (this.campus.getBuilding(buildingName) != null) {
+            createErrorDialog("Could not create building",
+                    "A building named \"" + buildingName + "\" already "
+                            + "exists");
+            return;
+        }
+        this.campus.addBuilding(new Building(buildingName));
         this.registerChange();
     }
 
@@ -696,7 +714,7 @@ public class ViewModel {
 
     private void addHazardEvaluator(List<Optional<String>> args) {
         List<HazardSensor> hazardSensors = new ArrayList<>();
-        for (Sensor s : getSelectedRoom().getSensors()) {
+        for (Sensor s : getSelectedRoom().getSensorsView()) {
             if (s instanceof HazardSensor) {
                 hazardSensors.add((HazardSensor) s);
             }
@@ -712,8 +730,9 @@ public class ViewModel {
         }
 
         Map<HazardSensor, Integer> weightings = new HashMap<>();
-        for (int i = 0; i < getSelectedRoom().getSensors().size(); ++i) {
-            Sensor s = getSelectedRoom().getSensors().get(i);
+        List<Sensor> sensors = getSelectedRoom().getSensorsView();
+        for (int i = 0; i < sensors.size(); ++i) {
+            Sensor s = sensors.get(i);
             if (s instanceof HazardSensor) {
                 int weighting;
                 try {
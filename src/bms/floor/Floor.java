@@ -4,6 +4,9 @@ import bms.exceptions.DuplicateRoomException;
 import bms.exceptions.FloorTooSmallException;
 import bms.exceptions.InsufficientSpaceException;
 import bms.room.Room;
+import bms.room.RoomChange;
+import bms.room.RoomListener;
+import bms.room.RoomSnapshot;
 import bms.room.RoomType;
 import bms.util.Encodable;
 import bms.util.FireDrill;
@@ -11,7 +14,11 @@ import bms.util.FireDrill;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Represents a floor of a building.
@@ -35,6 +42,22 @@ public class Floor implements FireDrill, Encodable {
      */
     private List<Room> rooms;
 
+    /**
+     * Read-only view of the list of rooms.
+     */
+    private List<Room> roomsView;
+
+    /**
+     * Rooms on the floor level, keyed by room number.
+     */
+    private Map<Integer, Room> roomsByNumber;
+
+    /**
+     * Total area of all rooms on the floor, in square metres. Kept up to
+     * date as rooms are added.
+     */
+    private double occupiedArea;
+
     /**
      * Width of the floor in metres.
      */
@@ -45,6 +68,14 @@ public class Floor implements FireDrill, Encodable {
      */
     private double length;
 
+    /**
+     * Width and length of the floor in thousandths of a metre, rounded up.
+     * Used to compare dimensions within the ±0.001 delta allowed by
+     * equals(Object).
+     */
+    private long scaledWidth;
+    private long scaledLength;
+
     /**
      * Minimum width of all floors, in metres.
      */
@@ -58,6 +89,63 @@ public class Floor implements FireDrill, Encodable {
     /** The maintenance schedule of the current floor */
     private MaintenanceSchedule maintenanceSchedule;
 
+    /**
+     * Running crew schedules whose first room is on this floor, see
+     * {@link MaintenancePlan#createSchedules(List)}. They report to this
+     * floor's maintenance listener.
+     */
+    private final List<MaintenanceSchedule> crewSchedules = new ArrayList<>();
+
+    /**
+     * Crew schedules which maintain a room on this floor, and so must be
+     * stopped before this floor gets a schedule of its own. May include
+     * schedules which have already been stopped.
+     */
+    private final List<MaintenanceSchedule> visitingSchedules =
+            new ArrayList<>();
+
+    /**
+     * Listener notified when this floor or a room on it changes, or null if
+     * there is none.
+     */
+    private FloorListener listener;
+
+    /**
+     * Listener registered with each room on this floor.
+     */
+    private final RoomListener roomListener = this::roomChanged;
+
+    /**
+     * Listener notified when this floor's maintenance schedule moves to a
+     * new room, or null if there is none.
+     */
+    private MaintenanceListener maintenanceListener;
+
+    /**
+     * Listener registered with this floor's maintenance schedule.
+     */
+    private final MaintenanceListener scheduleListener =
+            this::maintenanceMoved;
+
+    /**
+     * Number of structural changes made to this floor, starting from 1.
+     */
+    private volatile int structureVersion = 1;
+
+    /**
+     * Cached hash code of this floor in the high 32 bits, and the structure
+     * version it was calculated at in the low 32 bits. Only valid while that
+     * version is the current structure version, so a hash code calculated
+     * by a reader racing with a structural change is never used.
+     */
+    private volatile long hashCache;
+
+    /**
+     * Snapshot of the floor as it is now, or null if the floor or one of its
+     * rooms has changed since the last snapshot was taken.
+     */
+    private FloorSnapshot snapshot;
+
     /**
      * Creates a new floor with the given floor number.
      *
@@ -71,8 +159,13 @@ public class Floor implements FireDrill, Encodable {
         this.floorNumber = floorNumber;
         this.width = width;
         this.length = length;
+        this.scaledWidth = scale(width);
+        this.scaledLength = scale(length);
 
         this.rooms = new ArrayList<>();
+        this.roomsView = Collections.unmodifiableList(this.rooms);
+        this.roomsByNumber = new HashMap<>();
+        this.occupiedArea = 0;
     }
 
     /**
@@ -118,6 +211,30 @@ public class Floor implements FireDrill, Encodable {
         return new ArrayList<>(this.rooms);
     }
 
+    /**
+     * Returns a read-only view of the rooms on this floor.
+     * <p>
+     * Unlike {@link #getRooms()}, no new list is created. The view reflects
+     * rooms added to the floor later, and cannot be modified.
+     *
+     * @return unmodifiable view of all rooms on the floor
+     */
+    public List<Room> getRoomsView() {
+        return this.roomsView;
+    }
+
+    /**
+     * Performs the given action for each room on this floor, in the order
+     * the rooms were added.
+     *
+     * @param action action to perform on each room
+     */
+    public void forEachRoom(Consumer<Room> action) {
+        for (int i = 0; i < this.rooms.size(); ++i) {
+            action.accept(this.rooms.get(i));
+        }
+    }
+
     /**
      * Returns width of the floor.
      *
@@ -147,6 +264,53 @@ public class Floor implements FireDrill, Encodable {
         return this.maintenanceSchedule;
     }
 
+    /**
+     * Returns the running crew schedules whose first room is on this floor,
+     * see {@link MaintenancePlan#createSchedules(List)}.
+     * <p>
+     * A crew schedule may also maintain rooms on other floors, but it is
+     * only reported to the maintenance listener of the floor of its first
+     * room.
+     *
+     * @return unmodifiable view of the crew schedules of this floor
+     */
+    public List<MaintenanceSchedule> getCrewSchedules() {
+        return Collections.unmodifiableList(this.crewSchedules);
+    }
+
+    /**
+     * Records a crew schedule which maintains a room on this floor. If the
+     * schedule's first room is on this floor, the schedule reports to this
+     * floor's maintenance listener from now on.
+     *
+     * @param schedule crew schedule visiting this floor
+     * @param first whether the schedule's first room is on this floor
+     */
+    void addCrewSchedule(MaintenanceSchedule schedule, boolean first) {
+        this.visitingSchedules.removeIf(MaintenanceSchedule::isStopped);
+        this.visitingSchedules.add(schedule);
+        if (first) {
+            this.crewSchedules.add(schedule);
+            schedule.setMaintenanceListener(scheduleListener);
+        }
+    }
+
+    /**
+     * Stops this floor's maintenance schedule, if any, and every crew
+     * schedule which maintains a room on this floor, so no schedule is left
+     * changing the maintenance status of this floor's rooms.
+     */
+    void stopMaintenance() {
+        if (this.maintenanceSchedule != null) {
+            this.maintenanceSchedule.stop();
+            this.maintenanceSchedule = null;
+        }
+        for (MaintenanceSchedule schedule : this.visitingSchedules) {
+            schedule.stop();
+        }
+        this.visitingSchedules.clear();
+    }
+
     /**
      * Search for the room with the specified room number.
      * <p>
@@ -158,12 +322,7 @@ public class Floor implements FireDrill, Encodable {
      * @ass1
      */
     public Room getRoomByNumber(int roomNumber) {
-        for (Room room : this.rooms) {
-            if (room.getRoomNumber() == roomNumber) {
-                return room;
-            }
-        }
-        return null;
+        return this.roomsByNumber.get(roomNumber);
     }
 
     /**
@@ -195,13 +354,16 @@ public class Floor implements FireDrill, Encodable {
                     "New length cannot be less than " + Floor.getMinLength());
         }
 
-        if (newWidth * newLength < this.occupiedArea()) {
+        if (newWidth * newLength < this.occupiedArea) {
             throw new FloorTooSmallException("The total size of the current " +
                     "rooms could not be supported by decreased dimensions.");
         }
 
         this.width = newWidth;
         this.length = newLength;
+        this.scaledWidth = scale(newWidth);
+        this.scaledLength = scale(newLength);
+        notifyListener(null, RoomChange.STRUCTURE);
     }
 
     /**
@@ -228,11 +390,7 @@ public class Floor implements FireDrill, Encodable {
      * @ass1
      */
     public float occupiedArea() {
-        float area = 0;
-        for (Room room : rooms) {
-            area += room.getArea();
-        }
-        return area;
+        return (float) this.occupiedArea;
     }
 
     /**
@@ -263,15 +421,116 @@ public class Floor implements FireDrill, Encodable {
                             + " is already taken on this floor.");
         }
 
-        if ((this.occupiedArea() + newRoom.getArea()) > this.calculateArea()) {
+        if ((this.occupiedArea + newRoom.getArea()) > this.calculateArea()) {
             throw new InsufficientSpaceException("Insufficient space to add "
                     + "room. Floor area:" + this.calculateArea()
-                    + "m^2, Occupied area: " + this.occupiedArea()
+                    + "m^2, Occupied area: " + this.occupiedArea
                     + "m^2, This room: " + newRoom.getArea() + "m^2");
         }
 
         // No problems, so add room to the list of rooms
         rooms.add(newRoom);
+        roomsByNumber.put(newRoom.getRoomNumber(), newRoom);
+        occupiedArea += newRoom.getArea();
+        newRoom.setRoomListener(roomListener);
+        notifyListener(newRoom, RoomChange.ADDED);
+    }
+
+    /**
+     * Sets the listener to be notified when this floor or a room on it
+     * changes, replacing any existing listener.
+     * <p>
+     * A building registers itself as the listener of each floor added to it.
+     *
+     * @param listener listener to notify of changes; null for none
+     */
+    public void setFloorListener(FloorListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Sets the listener to be notified when this floor's maintenance
+     * schedule moves to a new room, starts or stops, replacing any existing
+     * listener.
+     * <p>
+     * If the floor has a maintenance schedule, the new listener is told of
+     * its current room straight away, with a null previous room. A building
+     * registers itself as the maintenance listener of each floor added to
+     * it.
+     *
+     * @param listener listener to notify of maintenance; null for none
+     */
+    public void setMaintenanceListener(MaintenanceListener listener) {
+        this.maintenanceListener = listener;
+        if (listener != null && maintenanceSchedule != null) {
+            listener.maintenanceMoved(maintenanceSchedule, null,
+                    maintenanceSchedule.getCurrentRoom());
+        }
+        if (listener != null) {
+            for (MaintenanceSchedule schedule : crewSchedules) {
+                listener.maintenanceMoved(schedule, null,
+                        schedule.getCurrentRoom());
+            }
+        }
+    }
+
+    /**
+     * Called when this floor's maintenance schedule, or one of its crew
+     * schedules, moves to a new room.
+     */
+    private void maintenanceMoved(MaintenanceSchedule schedule,
+                                  Room previous, Room current) {
+        if (current == null) {
+            crewSchedules.remove(schedule);
+        }
+        if (maintenanceListener != null) {
+            maintenanceListener.maintenanceMoved(schedule, previous, current);
+        }
+    }
+
+    /**
+     * Called when a room on this floor changes.
+     */
+    private void roomChanged(Room room, RoomChange change) {
+        notifyListener(room, change);
+    }
+
+    /**
+     * Notifies this floor's listener, if any, that the floor or one of its
+     * rooms has changed.
+     *
+     * @param room room which changed; null if the floor itself changed
+     * @param change kind of change made
+     */
+    private void notifyListener(Room room, RoomChange change) {
+        if (change.isStructural()) {
+            ++structureVersion;
+        }
+        snapshot = null;
+        if (listener != null) {
+            listener.floorChanged(this, room, change);
+        }
+    }
+
+    /**
+     * Returns an immutable snapshot of this floor and the rooms on it.
+     * <p>
+     * The snapshot is cached until the floor or one of its rooms next
+     * changes. When a room changes, only that room's snapshot is taken
+     * again; the snapshots of the other rooms are shared with the previous
+     * snapshot of the floor.
+     *
+     * @return snapshot of the floor as it is now
+     */
+    public FloorSnapshot snapshot() {
+        if (snapshot == null) {
+            List<RoomSnapshot> roomSnapshots = new ArrayList<>(rooms.size());
+            for (Room room : rooms) {
+                roomSnapshots.add(room.snapshot());
+            }
+            snapshot = new FloorSnapshot(this, roomSnapshots);
+        }
+        return snapshot;
     }
 
     /**
@@ -325,7 +584,9 @@ public class Floor implements FireDrill, Encodable {
      * If this floor already has a maintenance schedule, it should be replaced
      * with the newly created schedule. The room currently being maintained
      * according to the old schedule should have its maintenance status set to
-     * false.
+     * false, and the old schedule is stopped, see MaintenanceSchedule.stop().
+     * Crew schedules which maintain a room on this floor are stopped too,
+     * see {@link MaintenancePlan#createSchedules(List)}.
      *
      * @param roomOrder - rooms on which to perform maintenance, in order
      *
@@ -364,11 +625,10 @@ public class Floor implements FireDrill, Encodable {
                         "A room appears twice or more consecutively.");
         }
 
-        if (getMaintenanceSchedule() != null) {
-            getMaintenanceSchedule().getCurrentRoom().setMaintenance(false);
-        }
+        stopMaintenance();
 
         this.maintenanceSchedule = new MaintenanceSchedule(roomOrder);
+        this.maintenanceSchedule.setMaintenanceListener(scheduleListener);
     }
 
     /**
@@ -396,26 +656,23 @@ public class Floor implements FireDrill, Encodable {
 
         Floor castObj = (Floor) obj;
 
-        BigDecimal thisWidth =
-                new BigDecimal(width).setScale(3, RoundingMode.UP);
-        BigDecimal objWidth =
-                new BigDecimal(castObj.width).setScale(3, RoundingMode.UP);
-        BigDecimal thisLength =
-                new BigDecimal(length).setScale(3, RoundingMode.UP);
-        BigDecimal objLength =
-                new BigDecimal(castObj.length).setScale(3, RoundingMode.UP);
+        // Floors with different hash codes can never be equal
+        if (this.hashCode() != castObj.hashCode())
+            return false;
+
+        if (this.getFloorNumber() != castObj.getFloorNumber() ||
+                this.scaledWidth != castObj.scaledWidth ||
+                this.scaledLength != castObj.scaledLength ||
+                this.rooms.size() != castObj.rooms.size())
+            return false;
 
-        for(Room room : this.getRooms()) {
+        for(Room room : this.rooms) {
             int roomNumber = room.getRoomNumber();
             Room objRoom = castObj.getRoomByNumber(roomNumber);
             if (!room.equals(objRoom))
                 return false;
         }
-
-        return this.getFloorNumber() == castObj.getFloorNumber() &&
-                thisWidth.equals(objWidth) &&
-                thisLength.equals(objLength) &&
-                this.getRooms().size() == castObj.getRooms().size();
+        return true;
     }
 
     /**
@@ -423,26 +680,54 @@ public class Floor implements FireDrill, Encodable {
      * Two floors that are equal according to equals(Object) should have
      * the same hash code.
      *
+     * <p>
+     * The hash code is cached, and only recalculated after the structure of
+     * the floor or one of its rooms has changed.
+     *
      * @return  hash code of this floor
      */
     @Override
     public int hashCode() {
+        int current = structureVersion;
+        long cache = hashCache;
+        if ((int) cache == current) {
+            return (int) (cache >>> 32);
+        }
+        int hash = calculateHashCode();
+        hashCache = ((long) hash << 32) | (current & 0xFFFFFFFFL);
+        return hash;
+    }
+
+    /**
+     * Calculates the hash code of this floor from its current structure.
+     *
+     * @return  hash code of this floor
+     */
+    private int calculateHashCode() {
         final int prime = 23;
         int roomsHashCode = 0;
-        for(Room room : this.getRooms()) {
+        for(Room room : this.rooms) {
             roomsHashCode += room.hashCode();
         }
 
         int result = 1;
         result = result * prime + floorNumber;
-        result = result * prime + getRooms().size();
-        result = result * prime + (int) (width * 1000);
-        result = result * prime + (int) (length * 1000);
+        result = result * prime + this.rooms.size();
+        result = result * prime + Long.hashCode(scaledWidth);
+        result = result * prime + Long.hashCode(scaledLength);
         result = result * prime + roomsHashCode;
 
         return result;
     }
 
+    /**
+     * Returns the given dimension in thousandths, rounded up.
+     */
+    private static long scale(double value) {
+        return new BigDecimal(value).setScale(3, RoundingMode.UP)
+                .unscaledValue().longValue();
+    }
+
     /**
      * Returns the human-readable string representation of this floor.
      * <p>
@@ -506,7 +791,7 @@ public class Floor implements FireDrill, Encodable {
      */
     @Override
     public String encode() {
-        List<Room> rooms = getRooms();
+        List<Room> rooms = getRoomsView();
 
         String floorEncode = String.join(":",
                 String.valueOf(getFloorNumber()),
@@ -0,0 +1,22 @@
+package bms.floor;
+
+import bms.room.Room;
+import bms.room.RoomChange;
+
+/**
+ * Listener notified when a floor, or a room on the floor, changes.
+ * <p>
+ * A floor has at most one listener, normally the building the floor is in.
+ */
+public interface FloorListener {
+
+    /**
+     * Called after the given floor, or a room on it, has changed.
+     *
+     * @param floor floor which changed
+     * @param room room on the floor which changed; null if the change was to
+     *             the floor itself
+     * @param change kind of change made
+     */
+    void floorChanged(Floor floor, Room room, RoomChange change);
+}
@@ -0,0 +1,107 @@
+package bms.floor;
+
+import bms.room.RoomSnapshot;
+
+import java.util.List;
+
+/**
+ * Immutable snapshot of a floor, taken by {@link Floor#snapshot()}.
+ * <p>
+ * Holds the snapshots of the rooms on the floor. Snapshots of rooms which
+ * have not changed are shared with earlier snapshots of the floor.
+ * Snapshots are never modified, so they may be shared freely between
+ * threads.
+ */
+public final class FloorSnapshot {
+
+    /** Floor number of the floor */
+    private final int floorNumber;
+
+    /** Width of the floor in metres */
+    private final double width;
+
+    /** Length of the floor in metres */
+    private final double length;
+
+    /** Total area occupied by rooms, in square metres */
+    private final double occupiedArea;
+
+    /** Snapshots of the rooms on the floor, in the order they were added */
+    private final List<RoomSnapshot> rooms;
+
+    /**
+     * Creates a snapshot of the given floor, holding the given snapshots of
+     * its rooms.
+     *
+     * @param floor floor to take a snapshot of
+     * @param rooms snapshots of the rooms on the floor
+     */
+    FloorSnapshot(Floor floor, List<RoomSnapshot> rooms) {
+        this.floorNumber = floor.getFloorNumber();
+        this.width = floor.getWidth();
+        this.length = floor.getLength();
+        this.occupiedArea = floor.occupiedArea();
+        this.rooms = List.copyOf(rooms);
+    }
+
+    /**
+     * Returns the floor number of the floor.
+     *
+     * @return floor number
+     */
+    public int getFloorNumber() {
+        return floorNumber;
+    }
+
+    /**
+     * Returns the width of the floor.
+     *
+     * @return floor width in metres
+     */
+    public double getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the length of the floor.
+     *
+     * @return floor length in metres
+     */
+    public double getLength() {
+        return length;
+    }
+
+    /**
+     * Returns the area of the floor occupied by rooms.
+     *
+     * @return occupied area in square metres
+     */
+    public double getOccupiedArea() {
+        return occupiedArea;
+    }
+
+    /**
+     * Returns the snapshots of the rooms on the floor.
+     *
+     * @return unmodifiable list of room snapshots
+     */
+    public List<RoomSnapshot> getRooms() {
+        return rooms;
+    }
+
+    /**
+     * Returns the snapshot of the room with the given number, or null if
+     * there was no such room on the floor.
+     *
+     * @param roomNumber number of the room
+     * @return snapshot of the room; null if not found
+     */
+    public RoomSnapshot getRoomByNumber(int roomNumber) {
+        for (RoomSnapshot room : rooms) {
+            if (room.getRoomNumber() == roomNumber) {
+                return room;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,24 @@
+package bms.floor;
+
+import bms.room.Room;
+
+/**
+ * Listener notified when a maintenance schedule moves from one room to
+ * another, starts or stops.
+ * <p>
+ * A schedule has at most one listener, normally the floor which owns it.
+ */
+public interface MaintenanceListener {
+
+    /**
+     * Called after the given schedule has moved on to a new current room.
+     *
+     * @param schedule schedule which moved
+     * @param previous room which was being maintained; null if the schedule
+     *                 has just started reporting to this listener
+     * @param current room now being maintained; null if the schedule has
+     *                stopped
+     */
+    void maintenanceMoved(MaintenanceSchedule schedule, Room previous,
+                          Room current);
+}
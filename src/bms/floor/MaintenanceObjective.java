@@ -0,0 +1,19 @@
+package bms.floor;
+
+/**
+ * Enum to represent what a {@link MaintenancePlanner} optimises for.
+ */
+public enum MaintenanceObjective {
+    /**
+     * Finish maintenance of all rooms as early as possible, ie. minimise
+     * the finish time of the busiest crew.
+     */
+    MAKESPAN,
+
+    /**
+     * Finish as early as {@link #MAKESPAN}, then order each crew's rooms
+     * so that as few people as possible are disturbed, according to the
+     * rooms' occupancy forecasts.
+     */
+    DISRUPTION
+}
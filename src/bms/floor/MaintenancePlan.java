@@ -0,0 +1,174 @@
+package bms.floor;
+
+import bms.room.Room;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Plan for maintaining a set of rooms with several crews, as computed by a
+ * {@link MaintenancePlanner}.
+ * <p>
+ * Each crew maintains its rooms one after the other, in order, starting
+ * now. A plan is read-only.
+ */
+public class MaintenancePlan {
+
+    /** Rooms maintained by each crew, in order */
+    private final List<List<Room>> crewOrders;
+
+    /** Minute at which each crew finishes its rooms */
+    private final int[] finishTimes;
+
+    /** Forecast number of people disturbed, summed over every minute */
+    private final long disruption;
+
+    /**
+     * Creates a new plan.
+     *
+     * @param crewOrders rooms maintained by each crew, in order
+     * @param finishTimes minute at which each crew finishes
+     * @param disruption forecast disruption of the plan
+     */
+    MaintenancePlan(List<List<Room>> crewOrders, int[] finishTimes,
+                    long disruption) {
+        List<List<Room>> orders = new ArrayList<>(crewOrders.size());
+        for (List<Room> order : crewOrders) {
+            orders.add(Collections.unmodifiableList(order));
+        }
+        this.crewOrders = Collections.unmodifiableList(orders);
+        this.finishTimes = finishTimes;
+        this.disruption = disruption;
+    }
+
+    /**
+     * Returns the number of crews in the plan.
+     *
+     * @return number of crews
+     */
+    public int getCrewCount() {
+        return crewOrders.size();
+    }
+
+    /**
+     * Returns the rooms maintained by the given crew, in order.
+     *
+     * @param crew index of the crew, from 0
+     * @return unmodifiable list of the crew's rooms; empty if the crew has
+     * no rooms
+     */
+    public List<Room> getCrewOrder(int crew) {
+        return crewOrders.get(crew);
+    }
+
+    /**
+     * Returns the number of minutes from now until the given crew has
+     * maintained all of its rooms.
+     *
+     * @param crew index of the crew, from 0
+     * @return finish time of the crew in minutes
+     */
+    public int getCrewFinishTime(int crew) {
+        return finishTimes[crew];
+    }
+
+    /**
+     * Returns the number of minutes from now until every room has been
+     * maintained, ie. the finish time of the busiest crew.
+     *
+     * @return makespan of the plan in minutes
+     */
+    public int getMakespan() {
+        int makespan = 0;
+        for (int finishTime : finishTimes) {
+            makespan = Math.max(makespan, finishTime);
+        }
+        return makespan;
+    }
+
+    /**
+     * Returns the forecast disruption of the plan: for every minute that a
+     * room is in maintenance, the forecast reading of its occupancy sensor,
+     * summed over all rooms. Rooms without an occupancy sensor are assumed
+     * to be empty.
+     *
+     * @return forecast disruption in person-minutes
+     */
+    public long getDisruption() {
+        return disruption;
+    }
+
+    /**
+     * Creates a maintenance schedule for each crew with at least one room,
+     * which starts maintaining the crew's first room.
+     * <p>
+     * Like any maintenance schedule, each schedule starts again from its
+     * first room once all of its rooms have been maintained. A crew's rooms
+     * may be on several of the given floors.
+     * <p>
+     * Every floor with a room in the plan first has its own maintenance
+     * schedule stopped, along with any crew schedules already maintaining
+     * its rooms, so no two schedules change the maintenance status of the
+     * same room. Each new schedule is then tied to the floors it visits: it
+     * is reported to the maintenance listener of the floor of its first
+     * room, see {@link Floor#getCrewSchedules()}, and is stopped if any
+     * floor it visits is later given a schedule of its own, see
+     * {@link Floor#createMaintenanceSchedule(List)}. Crew schedules are not
+     * saved with their floors, see {@link Floor#encode()}.
+     *
+     * @param floors floors on which the planned rooms are found, eg. the
+     *               floors of a building
+     * @return new maintenance schedules, one per crew with rooms
+     * @throws IllegalArgumentException if a room in the plan is not on any
+     * of the given floors; no schedule is stopped or created if so
+     */
+    public List<MaintenanceSchedule> createSchedules(List<Floor> floors)
+            throws IllegalArgumentException {
+        Map<Room, Floor> roomFloors = new IdentityHashMap<>();
+        for (Floor floor : floors) {
+            floor.forEachRoom(room -> roomFloors.put(room, floor));
+        }
+        List<Set<Floor>> crewFloors = new ArrayList<>(crewOrders.size());
+        Set<Floor> visited = Collections.newSetFromMap(
+                new IdentityHashMap<>());
+        for (List<Room> order : crewOrders) {
+            // Ordered so the floor of the crew's first room comes first
+            Set<Floor> floorsOfCrew = new LinkedHashSet<>();
+            for (Room room : order) {
+                Floor floor = roomFloors.get(room);
+                if (floor == null) {
+                    throw new IllegalArgumentException("A room in the plan "
+                            + "is not on any of the given floors.");
+                }
+                floorsOfCrew.add(floor);
+            }
+            crewFloors.add(floorsOfCrew);
+            visited.addAll(floorsOfCrew);
+        }
+
+        for (Floor floor : visited) {
+            floor.stopMaintenance();
+        }
+
+        List<MaintenanceSchedule> schedules = new ArrayList<>();
+        for (int crew = 0; crew < crewOrders.size(); ++crew) {
+            List<Room> order = crewOrders.get(crew);
+            if (order.isEmpty()) {
+                continue;
+            }
+            MaintenanceSchedule schedule = new MaintenanceSchedule(order);
+            boolean first = true;
+            for (Floor floor : crewFloors.get(crew)) {
+                floor.addCrewSchedule(schedule, first);
+                first = false;
+            }
+            schedules.add(schedule);
+        }
+        return schedules;
+    }
+}
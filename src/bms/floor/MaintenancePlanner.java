@@ -0,0 +1,346 @@
+package bms.floor;
+
+import bms.room.Room;
+import bms.sensors.OccupancySensor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plans maintenance of a set of rooms, on one or more floors, for several
+ * crews working at once.
+ * <p>
+ * Each room is maintained by one crew, taking the time given by
+ * {@link MaintenanceSchedule#calculateMaintenanceTime(Room)}. Rooms are
+ * first dealt out longest first, each to the crew which would finish
+ * earliest. The plan is then improved by moving and swapping rooms between
+ * the busiest and the least busy crew, until no move shortens the busier
+ * of the two or the time budget runs out.
+ * <p>
+ * When minimising {@link MaintenanceObjective#DISRUPTION}, the rooms of
+ * each crew are then reordered, swapping neighbouring rooms whenever the
+ * swap disturbs fewer people according to the rooms' occupancy forecasts,
+ * see {@link bms.sensors.TimedSensor#forecastReading(int)}. Reordering does
+ * not change when a crew finishes, so the makespan is kept.
+ */
+public class MaintenancePlanner {
+
+    /** Default time budget for improving a plan, in milliseconds */
+    private static final long DEFAULT_TIME_BUDGET = 100;
+
+    /** Number of crews available */
+    private final int crewCount;
+
+    /** What plans are optimised for */
+    private MaintenanceObjective objective;
+
+    /** Time budget for improving a plan, in milliseconds */
+    private long timeBudget;
+
+    /**
+     * Creates a new planner for the given number of crews, which minimises
+     * the makespan within the default time budget of 100 milliseconds.
+     *
+     * @param crewCount number of crews available
+     * @throws IllegalArgumentException if crewCount &lt; 1
+     */
+    public MaintenancePlanner(int crewCount) throws IllegalArgumentException {
+        if (crewCount < 1) {
+            throw new IllegalArgumentException(
+                    "There must be at least one crew");
+        }
+        this.crewCount = crewCount;
+        this.objective = MaintenanceObjective.MAKESPAN;
+        this.timeBudget = DEFAULT_TIME_BUDGET;
+    }
+
+    /**
+     * Returns the number of crews available.
+     *
+     * @return number of crews
+     */
+    public int getCrewCount() {
+        return crewCount;
+    }
+
+    /**
+     * Returns what plans are optimised for.
+     *
+     * @return objective of the planner
+     */
+    public MaintenanceObjective getObjective() {
+        return objective;
+    }
+
+    /**
+     * Sets what plans are optimised for.
+     *
+     * @param objective objective of the planner
+     */
+    public void setObjective(MaintenanceObjective objective) {
+        this.objective = objective;
+    }
+
+    /**
+     * Returns the time budget for improving a plan.
+     *
+     * @return time budget in milliseconds
+     */
+    public long getTimeBudget() {
+        return timeBudget;
+    }
+
+    /**
+     * Sets the time budget for improving a plan. The initial plan is always
+     * completed, however long it takes; a budget of 0 returns it without
+     * any improvement.
+     *
+     * @param timeBudget time budget in milliseconds
+     * @throws IllegalArgumentException if timeBudget &lt; 0
+     */
+    public void setTimeBudget(long timeBudget)
+            throws IllegalArgumentException {
+        if (timeBudget < 0) {
+            throw new IllegalArgumentException(
+                    "Time budget must not be negative");
+        }
+        this.timeBudget = timeBudget;
+    }
+
+    /**
+     * Plans maintenance of the given rooms, starting now.
+     *
+     * @param rooms rooms to maintain, in any order
+     * @return plan assigning each room to a crew
+     * @throws IllegalArgumentException if a room appears more than once
+     */
+    public MaintenancePlan plan(List<Room> rooms)
+            throws IllegalArgumentException {
+        long deadline = System.nanoTime() + timeBudget * 1_000_000;
+        Map<Room, Boolean> seen = new IdentityHashMap<>();
+        for (Room room : rooms) {
+            if (seen.put(room, Boolean.TRUE) != null) {
+                throw new IllegalArgumentException("Room "
+                        + room.getRoomNumber() + " appears more than once.");
+            }
+        }
+        return new Solver(rooms).solve(deadline);
+    }
+
+    /**
+     * State of a single run of the planner. Rooms are referred to by their
+     * index in the list of rooms given to the planner.
+     */
+    private final class Solver {
+
+        /** Rooms to maintain */
+        private final List<Room> rooms;
+
+        /** Maintenance time of each room */
+        private final int[] times;
+
+        /** Occupancy sensor of each room; null if it has none */
+        private final OccupancySensor[] occupancy;
+
+        /** Rooms assigned to each crew, in order */
+        private final int[][] crewRooms;
+
+        /** Number of rooms assigned to each crew */
+        private final int[] crewSizes;
+
+        /** Total maintenance time of the rooms of each crew */
+        private final int[] loads;
+
+        private Solver(List<Room> rooms) {
+            this.rooms = rooms;
+            this.times = new int[rooms.size()];
+            this.occupancy = new OccupancySensor[rooms.size()];
+            for (int i = 0; i < times.length; ++i) {
+                times[i] = MaintenanceSchedule.calculateMaintenanceTime(
+                        rooms.get(i));
+                occupancy[i] = rooms.get(i).getOccupancySensor();
+            }
+            this.crewRooms = new int[crewCount][];
+            for (int crew = 0; crew < crewCount; ++crew) {
+                crewRooms[crew] = new int[Math.max(1,
+                        times.length / crewCount + 1)];
+            }
+            this.crewSizes = new int[crewCount];
+            this.loads = new int[crewCount];
+        }
+
+        private MaintenancePlan solve(long deadline) {
+            assignLongestFirst();
+            rebalance(deadline);
+            if (objective == MaintenanceObjective.DISRUPTION) {
+                reorder(deadline);
+            }
+
+            List<List<Room>> orders = new ArrayList<>(crewCount);
+            long disruption = 0;
+            for (int crew = 0; crew < crewCount; ++crew) {
+                List<Room> order = new ArrayList<>(crewSizes[crew]);
+                int start = 0;
+                for (int i = 0; i < crewSizes[crew]; ++i) {
+                    int room = crewRooms[crew][i];
+                    order.add(rooms.get(room));
+                    disruption += disruption(room, start);
+                    start += times[room];
+                }
+                orders.add(order);
+            }
+            return new MaintenancePlan(orders, loads.clone(), disruption);
+        }
+
+        /**
+         * Deals out the rooms longest first, each to the crew which would
+         * finish earliest.
+         */
+        private void assignLongestFirst() {
+            // Sort by descending time, then by index, packed into one long
+            long[] keys = new long[times.length];
+            for (int i = 0; i < times.length; ++i) {
+                keys[i] = ((long) (Integer.MAX_VALUE - times[i]) << 32) | i;
+            }
+            Arrays.sort(keys);
+            for (long key : keys) {
+                int crew = 0;
+                for (int c = 1; c < crewCount; ++c) {
+                    if (loads[c] < loads[crew]) {
+                        crew = c;
+                    }
+                }
+                add(crew, (int) key);
+            }
+        }
+
+        /**
+         * Moves or swaps rooms between the busiest and least busy crews,
+         * until no move finishes both crews earlier than the busiest crew
+         * finishes now.
+         */
+        private void rebalance(long deadline) {
+            while (System.nanoTime() < deadline) {
+                int busiest = 0;
+                int idlest = 0;
+                for (int crew = 1; crew < crewCount; ++crew) {
+                    if (loads[crew] > loads[busiest]) {
+                        busiest = crew;
+                    }
+                    if (loads[crew] < loads[idlest]) {
+                        idlest = crew;
+                    }
+                }
+                int gap = loads[busiest] - loads[idlest];
+                // Moving time d from the busiest to the idlest crew helps
+                // if 0 < d < gap, and helps most when d is closest to gap/2
+                int bestFrom = -1;
+                int bestTo = -1;
+                int bestMiss = gap;
+                for (int i = 0; i < crewSizes[busiest]; ++i) {
+                    int d = times[crewRooms[busiest][i]];
+                    if (d > 0 && d < gap && Math.abs(2 * d - gap) < bestMiss) {
+                        bestFrom = i;
+                        bestMiss = Math.abs(2 * d - gap);
+                    }
+                }
+                if (bestFrom < 0) {
+                    for (int i = 0; i < crewSizes[busiest]; ++i) {
+                        int from = times[crewRooms[busiest][i]];
+                        for (int j = 0; j < crewSizes[idlest]; ++j) {
+                            int d = from - times[crewRooms[idlest][j]];
+                            if (d > 0 && d < gap
+                                    && Math.abs(2 * d - gap) < bestMiss) {
+                                bestFrom = i;
+                                bestTo = j;
+                                bestMiss = Math.abs(2 * d - gap);
+                            }
+                        }
+                    }
+                }
+                if (bestFrom < 0) {
+                    return;
+                }
+                int room = remove(busiest, bestFrom);
+                if (bestTo >= 0) {
+                    add(busiest, remove(idlest, bestTo));
+                }
+                add(idlest, room);
+            }
+        }
+
+        /**
+         * Swaps neighbouring rooms of each crew while doing so lowers the
+         * forecast disruption, one pass over each crew at a time.
+         */
+        private void reorder(long deadline) {
+            boolean improved = true;
+            while (improved && System.nanoTime() < deadline) {
+                improved = false;
+                for (int crew = 0; crew < crewCount; ++crew) {
+                    int[] order = crewRooms[crew];
+                    int start = 0;
+                    for (int i = 0; i + 1 < crewSizes[crew]; ++i) {
+                        int a = order[i];
+                        int b = order[i + 1];
+                        // Rooms after the pair start at the same time
+                        // either way, so only the pair's cost changes
+                        long kept = disruption(a, start)
+                                + disruption(b, start + times[a]);
+                        long swapped = disruption(b, start)
+                                + disruption(a, start + times[b]);
+                        if (swapped < kept) {
+                            order[i] = b;
+                            order[i + 1] = a;
+                            improved = true;
+                        }
+                        start += times[order[i]];
+                    }
+                }
+            }
+        }
+
+        /**
+         * Returns the forecast number of people disturbed by maintaining the
+         * given room from the given minute, summed over every minute.
+         */
+        private long disruption(int room, int start) {
+            OccupancySensor sensor = occupancy[room];
+            if (sensor == null) {
+                return 0;
+            }
+            long total = 0;
+            for (int minute = start; minute < start + times[room]; ++minute) {
+                total += sensor.forecastReading(minute);
+            }
+            return total;
+        }
+
+        /**
+         * Adds a room to the end of the given crew's rooms.
+         */
+        private void add(int crew, int room) {
+            if (crewSizes[crew] == crewRooms[crew].length) {
+                crewRooms[crew] = Arrays.copyOf(crewRooms[crew],
+                        2 * crewSizes[crew]);
+            }
+            crewRooms[crew][crewSizes[crew]++] = room;
+            loads[crew] += times[room];
+        }
+
+        /**
+         * Removes the room at the given position in the given crew's rooms,
+         * replacing it with the crew's last room.
+         */
+        private int remove(int crew, int position) {
+            int[] order = crewRooms[crew];
+            int room = order[position];
+            order[position] = order[--crewSizes[crew]];
+            loads[crew] -= times[room];
+            return room;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package bms.floor;
+
+import bms.exceptions.DuplicateSensorException;
+import bms.room.Room;
+import bms.room.RoomType;
+import bms.sensors.OccupancySensor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Load generator for the maintenance planner.
+ * <p>
+ * Builds a number of random rooms, a third of them with an occupancy
+ * sensor, and plans their maintenance several times for each objective,
+ * see {@link MaintenancePlanner}. Reports the median and slowest time taken
+ * to plan, and how far the makespan of the last plan is from the lower
+ * bound of the longest room or an even split of the work, whichever is
+ * larger.
+ */
+public class MaintenancePlannerLoadGenerator {
+
+    /**
+     * Entry point of the load generator.
+     * <p>
+     * Command line arguments: [rooms] [crews] [timeBudget] [runs]
+     *
+     * @param args command line arguments
+     * @throws DuplicateSensorException never, each room has one sensor
+     */
+    public static void main(String[] args) throws DuplicateSensorException {
+        int roomCount = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int crews = args.length > 1 ? Integer.parseInt(args[1]) : 12;
+        long timeBudget = args.length > 2 ? Long.parseLong(args[2]) : 200;
+        int runs = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+
+        Random random = new Random(45);
+        List<Room> rooms = new ArrayList<>(roomCount);
+        RoomType[] types = RoomType.values();
+        long total = 0;
+        int longest = 0;
+        for (int i = 0; i < roomCount; ++i) {
+            Room room = new Room(i, types[random.nextInt(types.length)],
+                    Room.getMinArea() + random.nextInt(100));
+            if (random.nextInt(3) == 0) {
+                int[] readings = new int[1 + random.nextInt(10)];
+                for (int j = 0; j < readings.length; ++j) {
+                    readings[j] = random.nextInt(40);
+                }
+                room.addSensor(new OccupancySensor(readings,
+                        1 + random.nextInt(5), 40));
+            }
+            rooms.add(room);
+            int time = MaintenanceSchedule.calculateMaintenanceTime(room);
+            total += time;
+            longest = Math.max(longest, time);
+        }
+        long lowerBound = Math.max(longest, (total + crews - 1) / crews);
+
+        System.out.printf("%d rooms, %d crews, time budget %d ms, "
+                        + "makespan lower bound %d%n",
+                roomCount, crews, timeBudget, lowerBound);
+        MaintenancePlanner planner = new MaintenancePlanner(crews);
+        planner.setTimeBudget(timeBudget);
+        for (MaintenanceObjective objective : MaintenanceObjective.values()) {
+            planner.setObjective(objective);
+            // Warm up before timing
+            planner.plan(rooms);
+            long[] times = new long[runs];
+            MaintenancePlan plan = null;
+            for (int i = 0; i < runs; ++i) {
+                long start = System.nanoTime();
+                plan = planner.plan(rooms);
+                times[i] = System.nanoTime() - start;
+            }
+            Arrays.sort(times);
+            System.out.printf("%-10s p50 %7.1f ms, max %7.1f ms, "
+                            + "makespan %d (+%d), disruption %d%n",
+                    objective, times[runs / 2] / 1e6,
+                    times[runs - 1] / 1e6, plan.getMakespan(),
+                    plan.getMakespan() - lowerBound, plan.getDisruption());
+        }
+    }
+}
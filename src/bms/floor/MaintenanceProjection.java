@@ -0,0 +1,451 @@
+package bms.floor;
+
+import bms.room.Room;
+import bms.sensors.TemperatureSensor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Projection of when each room of a maintenance schedule will be under
+ * maintenance, taken from the schedule as it is now, see
+ * {@link MaintenanceSchedule#project(boolean)}.
+ * <p>
+ * The projection covers one pass over the schedule, starting with the room
+ * currently under maintenance, until every room has been maintained once.
+ * The pass is kept as the rooms worked on in turn, with a running total of
+ * the time at which work on each stops, so the next start and end of a
+ * room can be looked up in constant time, and the room under maintenance
+ * at a given minute by binary search.
+ * <p>
+ * By default no evacuations are assumed. When corrected for evacuations, a
+ * room is assumed to be evacuated whenever it is projected to be on fire
+ * according to its temperature sensor's cycle of readings, see
+ * {@link bms.sensors.TimedSensor#forecastHazardLevel(int)}. Fire drills
+ * cannot be projected, and are not taken into account.
+ * <p>
+ * If the schedule waits for evacuations, maintenance pauses while the
+ * current room is evacuated. If the schedule skips evacuated rooms, see
+ * {@link MaintenanceSchedule#setSkipEvacuated(boolean)}, the projection
+ * follows the same rules as the schedule: evacuated rooms are deferred,
+ * deferred rooms are returned to oldest first once they are no longer
+ * evacuated, and they keep the time already spent on them, including the
+ * rooms deferred before the projection was taken. The projection then
+ * steps from one room finishing or being deferred to the next, finding
+ * the next projected fire in a room by binary search rather than minute
+ * by minute.
+ * <p>
+ * A projection does not change as the schedule progresses; project the
+ * schedule again for an up to date projection.
+ */
+public class MaintenanceProjection {
+
+    /** Returned for a time which will never be reached */
+    public static final long NEVER = -1;
+
+    /**
+     * Maximum number of rooms finished or deferred per room in the order
+     * when projecting a schedule which skips evacuated rooms. Rooms not
+     * maintained by then are projected to never be maintained.
+     */
+    private static final int MAX_TURNS_PER_ROOM = 64;
+
+    /** Rooms in the order they will be worked on, from the current room */
+    private final Room[] order;
+
+    /**
+     * Number of minutes from now until work on each room in the order
+     * stops, because it is finished or deferred; Long.MAX_VALUE if it never
+     * will.
+     */
+    private final long[] ends;
+
+    /** Position of the first appearance of each room in the order */
+    private final Map<Room, Integer> positions;
+
+    /** Position in the order at which each room is first finished */
+    private final Map<Room, Integer> finishes;
+
+    /**
+     * Number of minutes from now until every room has been maintained
+     * once; Long.MAX_VALUE if some room never will be.
+     */
+    private final long horizon;
+
+    /** Whether the projection is corrected for evacuations */
+    private final boolean corrected;
+
+    /** Calm minute counts of each temperature sensor, see calmCounts */
+    private final Map<TemperatureSensor, int[]> calmMinutes;
+
+    /**
+     * Creates a projection of a maintenance schedule.
+     *
+     * @param roomOrder the schedule's room order
+     * @param currentIndex index of the current room in the order
+     * @param nextIndex index of the room after the current room
+     * @param currentElapsed minutes spent maintaining the current room
+     * @param corrected whether to correct the projection for evacuations
+     * @param skipEvacuated whether the schedule skips evacuated rooms
+     * @param deferredRooms indices of deferred rooms, oldest first, as kept
+     *                      by the schedule; not changed
+     * @param deferredCleanTimes clean time of each deferred room by index,
+     *                           -1 if not deferred, as kept by the
+     *                           schedule; not changed
+     */
+    MaintenanceProjection(List<Room> roomOrder, int currentIndex,
+                          int nextIndex, int currentElapsed,
+                          boolean corrected, boolean skipEvacuated,
+                          Collection<Integer> deferredRooms,
+                          int[] deferredCleanTimes) {
+        this.corrected = corrected;
+        this.calmMinutes = new IdentityHashMap<>();
+        this.positions = new IdentityHashMap<>();
+        this.finishes = new IdentityHashMap<>();
+
+        List<Room> rooms = new ArrayList<>();
+        List<Long> times = new ArrayList<>();
+        long end;
+        if (skipEvacuated) {
+            end = projectSkipping(roomOrder, currentIndex, nextIndex,
+                    currentElapsed, deferredRooms, deferredCleanTimes,
+                    rooms, times);
+        } else {
+            end = projectWaiting(roomOrder, currentIndex, nextIndex,
+                    currentElapsed, rooms, times);
+        }
+
+        this.order = rooms.toArray(new Room[0]);
+        this.ends = new long[times.size()];
+        for (int k = 0; k < ends.length; ++k) {
+            ends[k] = times.get(k);
+            positions.putIfAbsent(order[k], k);
+        }
+        this.horizon = end;
+    }
+
+    /**
+     * Projects a schedule which waits for evacuations, adding each room
+     * worked on and the time work on it stops to the given lists. Every
+     * room is finished the first time it is worked on.
+     *
+     * @return time at which every room has been maintained once
+     */
+    private long projectWaiting(List<Room> roomOrder, int currentIndex,
+                                int nextIndex, int currentElapsed,
+                                List<Room> rooms, List<Long> times) {
+        int n = roomOrder.size();
+        long time = 0;
+        for (int k = 0; k < n; ++k) {
+            Room room = roomOrder.get(k == 0
+                    ? currentIndex : (nextIndex + k - 1) % n);
+
+            int remaining = MaintenanceSchedule.calculateMaintenanceTime(room)
+                    - (k == 0 ? currentElapsed : 0);
+            int[] counts = calmCounts(room);
+            // Once a room is never finished, neither are the rooms after it
+            if (time != Long.MAX_VALUE) {
+                if (counts != null) {
+                    time = finishTime(counts, time, remaining);
+                } else {
+                    time += remaining;
+                }
+            }
+            finishes.putIfAbsent(room, rooms.size());
+            rooms.add(room);
+            times.add(time);
+        }
+        return time;
+    }
+
+    /**
+     * Projects a schedule which skips evacuated rooms, following the rules
+     * of {@link MaintenanceSchedule#setSkipEvacuated(boolean)}, adding
+     * each room worked on and the time work on it stops to the given lists.
+     *
+     * @return time at which every room has been maintained once;
+     * Long.MAX_VALUE if some room never will be
+     */
+    private long projectSkipping(List<Room> roomOrder, int currentIndex,
+                                 int nextIndex, int currentElapsed,
+                                 Collection<Integer> deferredRooms,
+                                 int[] deferredCleanTimes,
+                                 List<Room> rooms, List<Long> times) {
+        int n = roomOrder.size();
+        int[] cleanTimes = deferredCleanTimes.clone();
+        ArrayDeque<Integer> deferred = new ArrayDeque<>(deferredRooms);
+        boolean[] queued = new boolean[n];
+        for (int index : deferred) {
+            queued[index] = true;
+        }
+        boolean[] finished = new boolean[n];
+
+        // Rooms which are never calm are deferred every time they come up
+        int unfinished = 0;
+        boolean allFinishable = true;
+        for (Room room : roomOrder) {
+            int[] counts = calmCounts(room);
+            if (counts == null || counts[counts.length - 1] > 0) {
+                ++unfinished;
+            } else {
+                allFinishable = false;
+            }
+        }
+
+        int current = currentIndex;
+        int next = nextIndex;
+        int cleaned = currentElapsed;
+        long time = 0;
+        for (int turn = 0; unfinished > 0 && turn < MAX_TURNS_PER_ROOM * n;
+             ++turn) {
+            Room room = roomOrder.get(current);
+            int remaining = MaintenanceSchedule.calculateMaintenanceTime(room)
+                    - cleaned;
+            int[] counts = calmCounts(room);
+            long fire = counts == null ? -1 : firstFire(counts, time,
+                    remaining);
+
+            // Finish the room, or defer it on the first minute it is on fire
+            boolean finishing = fire < 0;
+            int deferredCleanTime = -1;
+            if (finishing) {
+                time += Math.max(0, remaining);
+            } else {
+                deferredCleanTime = cleaned + (int) (fire - 1 - time);
+                time = fire;
+            }
+
+            // Move on, as the schedule does
+            Integer oldest;
+            while ((oldest = deferred.peekFirst()) != null
+                    && cleanTimes[oldest] < 0) {
+                deferred.pollFirst();
+                queued[oldest] = false;
+            }
+            int chosen = -1;
+            if (oldest != null && !isOnFire(roomOrder.get(oldest), time)) {
+                deferred.pollFirst();
+                queued[oldest] = false;
+                chosen = oldest;
+            }
+            if (chosen < 0 || chosen == next) {
+                chosen = next;
+                next = (next + 1) % n;
+            }
+            if (!finishing && chosen == current) {
+                // The only room in the order, so it stays under maintenance
+                cleaned = deferredCleanTime;
+                continue;
+            }
+
+            if (finishing && !finished[current]) {
+                finished[current] = true;
+                --unfinished;
+                finishes.putIfAbsent(room, rooms.size());
+            }
+            rooms.add(room);
+            times.add(time);
+
+            int previous = current;
+            current = chosen;
+            cleaned = Math.max(0, cleanTimes[chosen]);
+            cleanTimes[chosen] = -1;
+            if (!finishing) {
+                cleanTimes[previous] = deferredCleanTime;
+                if (!queued[previous]) {
+                    queued[previous] = true;
+                    deferred.addLast(previous);
+                }
+            }
+        }
+        return unfinished == 0 && allFinishable ? time : Long.MAX_VALUE;
+    }
+
+    /**
+     * Returns the number of minutes from now until the given room is next
+     * under maintenance; 0 if it is under maintenance now.
+     *
+     * @param room room to look up
+     * @return minutes until the room's next maintenance starts; NEVER if
+     * the room is not in the schedule, or its maintenance will never start
+     */
+    public long getNextStart(Room room) {
+        Integer position = positions.get(room);
+        if (position == null) {
+            return NEVER;
+        }
+        return position == 0 ? 0 : toMinutes(ends[position - 1]);
+    }
+
+    /**
+     * Returns the number of minutes from now until the current or next
+     * maintenance of the given room ends with the room finished. Rooms
+     * deferred by a schedule which skips evacuated rooms are only finished
+     * once they are returned to.
+     *
+     * @param room room to look up
+     * @return minutes until the room's maintenance ends; NEVER if the room
+     * is not in the schedule, or its maintenance will never end
+     */
+    public long getNextEnd(Room room) {
+        Integer position = finishes.get(room);
+        return position == null ? NEVER : toMinutes(ends[position]);
+    }
+
+    /**
+     * Returns the number of minutes from now until every room in the
+     * schedule has been maintained once.
+     *
+     * @return length of the projection in minutes; NEVER if some room will
+     * never be maintained
+     */
+    public long getHorizon() {
+        return toMinutes(horizon);
+    }
+
+    /**
+     * Returns the room which will be under maintenance the given number of
+     * minutes from now.
+     *
+     * @param minutesAhead number of minutes from now
+     * @return room under maintenance at that time; null if the time is
+     * beyond the end of the projection
+     * @throws IllegalArgumentException if minutesAhead &lt; 0
+     */
+    public Room getRoomAt(long minutesAhead) throws IllegalArgumentException {
+        if (minutesAhead < 0) {
+            throw new IllegalArgumentException(
+                    "Cannot project maintenance in the past");
+        }
+        // First room which is still being maintained at that time
+        int low = 0;
+        int high = order.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (ends[middle] > minutesAhead) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low == order.length ? null : order[low];
+    }
+
+    /**
+     * Converts a time kept by the projection to a number of minutes.
+     */
+    private static long toMinutes(long time) {
+        return time == Long.MAX_VALUE ? NEVER : time;
+    }
+
+    /**
+     * Returns the calm minute counts of the given room's temperature
+     * sensor, see {@link #countCalmMinutes(TemperatureSensor)}, or null if
+     * the room is never projected to be evacuated.
+     */
+    private int[] calmCounts(Room room) {
+        TemperatureSensor sensor = room.getTemperatureSensor();
+        if (!corrected || sensor == null) {
+            return null;
+        }
+        return calmMinutes.computeIfAbsent(sensor,
+                MaintenanceProjection::countCalmMinutes);
+    }
+
+    /**
+     * Returns whether the given room is projected to be evacuated the given
+     * number of minutes from now, where time &gt;= 1.
+     */
+    private boolean isOnFire(Room room, long time) {
+        int[] counts = calmCounts(room);
+        return counts != null
+                && calmBefore(counts, time) == calmBefore(counts, time - 1);
+    }
+
+    /**
+     * Returns the number of calm minutes among the first given number of
+     * minutes from now, for a room with the given calm minute counts.
+     */
+    private static long calmBefore(int[] counts, long time) {
+        int cycle = counts.length - 1;
+        return (time / cycle) * counts[cycle] + counts[(int) (time % cycle)];
+    }
+
+    /**
+     * Returns the first of the given number of minutes after the given
+     * start on which a room with the given calm minute counts is projected
+     * to be on fire, or -1 if it is calm for all of them.
+     */
+    private static long firstFire(int[] counts, long start, int minutes) {
+        long calmAtStart = calmBefore(counts, start);
+        if (minutes <= 0
+                || calmBefore(counts, start + minutes) - calmAtStart
+                == minutes) {
+            return -1;
+        }
+        // The number of fires since the start never decreases
+        long low = start + 1;
+        long high = start + minutes;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (calmBefore(counts, middle) - calmAtStart < middle - start) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Counts the minutes in one cycle of the given sensor's readings on
+     * which no fire is projected. Element x of the result is the number of
+     * such minutes among the first x minutes from now.
+     */
+    private static int[] countCalmMinutes(TemperatureSensor sensor) {
+        int[] counts = new int[sensor.getCycleLength() + 1];
+        for (int minute = 1; minute < counts.length; ++minute) {
+            // A schedule checks for evacuation after the sensor has ticked
+            counts[minute] = counts[minute - 1]
+                    + (sensor.forecastHazardLevel(minute) == 100 ? 0 : 1);
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the time at which the given number of minutes of maintenance,
+     * starting at the given time, will have been done in a room with the
+     * given calm minute counts, or Long.MAX_VALUE if never.
+     */
+    private static long finishTime(int[] counts, long start, int minutes) {
+        if (minutes <= 0) {
+            return start;
+        }
+        int cycle = counts.length - 1;
+        int perCycle = counts[cycle];
+        if (perCycle == 0) {
+            return Long.MAX_VALUE;
+        }
+        // Calm minutes up to the start, then the calm minute to finish on
+        long target = (start / cycle) * perCycle
+                + counts[(int) (start % cycle)] + minutes;
+        long cycles = (target - 1) / perCycle;
+        int remainder = (int) (target - cycles * perCycle);
+        // First minute of the cycle by which that many calm minutes pass
+        int low = 1;
+        int high = cycle;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (counts[middle] >= remainder) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return cycles * cycle + low;
+    }
+}
@@ -7,6 +7,7 @@ import bms.util.Encodable;
 import bms.util.TimedItem;
 import bms.util.TimedItemManager;
 
+import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.List;
 
@@ -14,6 +15,12 @@ import java.util.List;
  *  Carries out maintenance on a list of rooms in a given floor.
  *  The maintenance time for each room depends on the type of the room and its
  *  area. Maintenance cannot progress whilst an evacuation is in progress.
+ *  <p>
+ *  By default the schedule waits for an evacuation of the current room to
+ *  end. If evacuated rooms are skipped, see
+ *  {@link #setSkipEvacuated(boolean)}, the schedule instead defers the
+ *  current room and moves on to the next room in order, returning to
+ *  deferred rooms, oldest first, once their evacuation is over.
  */
 public class MaintenanceSchedule implements TimedItem, Encodable {
 
@@ -32,6 +39,40 @@ public class MaintenanceSchedule implements TimedItem, Encodable {
     /** A list contains rooms in order */
     private final List<Room> roomOrder;
 
+    /** The index of the room after the current room in the order */
+    private int nextRoomIndex;
+
+    /** The number of rooms whose maintenance has been completed */
+    private int maintainedCount;
+
+    /** Whether evacuated rooms are deferred rather than waited for */
+    private boolean skipEvacuated;
+
+    /**
+     * Indices of deferred rooms, oldest first. May also hold indices of
+     * rooms which have since been returned to, which are dropped when
+     * they reach the front.
+     */
+    private final ArrayDeque<Integer> deferredRooms;
+
+    /**
+     * The clean time of each deferred room when it was deferred, by index;
+     * -1 for rooms which are not deferred.
+     */
+    private final int[] deferredCleanTimes;
+
+    /** Whether the index of each room is in the deque of deferred rooms */
+    private final boolean[] queued;
+
+    /**
+     * Listener notified when the current room changes, or null if there is
+     * none.
+     */
+    private MaintenanceListener listener;
+
+    /** Whether this schedule has been stopped */
+    private boolean stopped;
+
     /**
      * Creates a new maintenance schedule for a floor's list of rooms.
      * In this constructor, the new maintenance schedule should be registered
@@ -49,7 +90,12 @@ public class MaintenanceSchedule implements TimedItem, Encodable {
             roomOrder.get(0).setMaintenance(true);
         }
         this.currentRoomIndex = 0;
+        this.nextRoomIndex = roomOrder.size() > 0 ? 1 % roomOrder.size() : 0;
         this.cleanedRoomsTime = 0;
+        this.deferredRooms = new ArrayDeque<>();
+        this.deferredCleanTimes = new int[roomOrder.size()];
+        Arrays.fill(this.deferredCleanTimes, -1);
+        this.queued = new boolean[roomOrder.size()];
     }
 
     /**
@@ -76,6 +122,20 @@ public class MaintenanceSchedule implements TimedItem, Encodable {
      * @param room - room on which to perform maintenance
      */
     public int getMaintenanceTime(Room room) {
+        return calculateMaintenanceTime(room);
+    }
+
+    /**
+     * Returns the time taken to perform maintenance on the given room, in
+     * minutes, as described in {@link #getMaintenanceTime(Room)}.
+     * <p>
+     * This allows maintenance to be planned before any schedule is created,
+     * see {@link MaintenancePlanner}.
+     *
+     * @param room room on which to perform maintenance
+     * @return maintenance time of the room in minutes
+     */
+    public static int calculateMaintenanceTime(Room room) {
         double roomTypeMultiplier;
         double baseMaintenanceTime =
                 (room.getArea() -  Room.getMinArea()) * 0.2 + 5.0;
@@ -125,9 +185,15 @@ public class MaintenanceSchedule implements TimedItem, Encodable {
      *      current room should "wrap around" to the first room in the list.
      *
      * ·the new current room should have its maintenance status set to true
+     *
+     * If evacuated rooms are skipped, the current room is instead deferred
+     * when it has a room state of EVACUATE, see setSkipEvacuated(boolean).
      */
     public void elapseOneMinute() {
         if (getCurrentRoom().evaluateRoomState() == RoomState.EVACUATE) {
+            if (skipEvacuated) {
+                deferCurrentRoom();
+            }
             return;
         }
 
@@ -137,17 +203,81 @@ public class MaintenanceSchedule implements TimedItem, Encodable {
         int currentRoomTime = getMaintenanceTime(getCurrentRoom());
 
         if ((timeElapsed - cleanedRoomsTime) / currentRoomTime > 0) {
-            int oldCurrentRoomIndex = currentRoomIndex;
-
-            currentRoomIndex = (oldCurrentRoomIndex + 1) % roomOrder.size();
             cleanedRoomsTime += currentRoomTime;
+            maintainedCount++;
+            moveToNextRoom();
+        }
+    }
+
+    /**
+     * Returns whether rooms which are being evacuated are skipped, rather
+     * than waited for.
+     *
+     * @return true if evacuated rooms are skipped, false otherwise
+     */
+    public boolean isSkipEvacuated() {
+        return skipEvacuated;
+    }
 
-            roomOrder.get(oldCurrentRoomIndex).setMaintenance(false);
-            getCurrentRoom().setMaintenance(true);
-            currentCleanTime = 0;
+    /**
+     * Sets whether rooms which are being evacuated are skipped.
+     * <p>
+     * When skipped, a tick on which the current room is being evacuated
+     * defers that room, keeping the time already spent on it, and moves on
+     * to the next room in order. Whenever a room is finished, the oldest
+     * deferred room is returned to if its evacuation is over; otherwise the
+     * schedule carries on in order. A deferred room which comes up again
+     * in order is also returned to. Each tick takes constant time.
+     * <p>
+     * When no longer skipped, deferred rooms are forgotten and next
+     * maintained when they come up in order.
+     *
+     * @param skipEvacuated true to skip evacuated rooms, false to wait for
+     *                      their evacuation to end
+     */
+    public void setSkipEvacuated(boolean skipEvacuated) {
+        this.skipEvacuated = skipEvacuated;
+        if (!skipEvacuated) {
+            deferredRooms.clear();
+            Arrays.fill(deferredCleanTimes, -1);
+            Arrays.fill(queued, false);
         }
     }
 
+    /**
+     * Returns the number of rooms whose maintenance has been completed
+     * since this schedule was created. Skipped rooms are not counted.
+     *
+     * @return number of rooms maintained
+     */
+    public int getMaintainedCount() {
+        return maintainedCount;
+    }
+
+    /**
+     * Projects when each room in this schedule will next be under
+     * maintenance, without simulating the schedule minute by minute.
+     * <p>
+     * If corrected for evacuations, a room is assumed to be evacuated
+     * while its temperature sensor is projected to report a fire: the
+     * schedule is projected to pause, or, if evacuated rooms are skipped,
+     * to defer the room. Otherwise no evacuations are assumed.
+     * <p>
+     * If evacuated rooms are skipped, rooms which have already been
+     * deferred are projected to be returned to as the schedule would, with
+     * the clean time they had when deferred. See
+     * {@link MaintenanceProjection} for details.
+     *
+     * @param withEvacuations whether to correct the projection for
+     *                        projected fires
+     * @return projection of this schedule from now
+     */
+    public MaintenanceProjection project(boolean withEvacuations) {
+        return new MaintenanceProjection(roomOrder, currentRoomIndex,
+                nextRoomIndex, currentCleanTime, withEvacuations,
+                skipEvacuated, deferredRooms, deferredCleanTimes);
+    }
+
     /**
      * Stops the in-progress maintenance of the current room and progresses
      * to the next room.
@@ -157,11 +287,115 @@ public class MaintenanceSchedule implements TimedItem, Encodable {
      */
     public void skipCurrentMaintenance() {
         cleanedRoomsTime += currentCleanTime;
-        roomOrder.get(currentRoomIndex).setMaintenance(false);
+        moveToNextRoom();
+    }
 
-        currentRoomIndex = (currentRoomIndex + 1) % roomOrder.size();
+    /**
+     * Defers the evacuated current room, keeping the time spent on it, and
+     * moves on to the next room.
+     */
+    private void deferCurrentRoom() {
+        int deferred = currentRoomIndex;
+        int cleanTime = currentCleanTime;
+        cleanedRoomsTime += currentCleanTime;
+        moveToNextRoom();
+        if (currentRoomIndex == deferred) {
+            // The only room in the order, so there is nothing to move on to
+            cleanedRoomsTime -= cleanTime;
+            currentCleanTime = cleanTime;
+            return;
+        }
+        deferredCleanTimes[deferred] = cleanTime;
+        if (!queued[deferred]) {
+            queued[deferred] = true;
+            deferredRooms.addLast(deferred);
+        }
+    }
+
+    /**
+     * Makes the oldest deferred room whose evacuation is over the current
+     * room, or else the next room in order, as described in
+     * {@link #setSkipEvacuated(boolean)}. A deferred room keeps its clean
+     * time.
+     */
+    private void moveToNextRoom() {
+        int next = -1;
+        if (skipEvacuated) {
+            Integer oldest;
+            while ((oldest = deferredRooms.peekFirst()) != null
+                    && deferredCleanTimes[oldest] < 0) {
+                // Returned to in order since it was deferred
+                deferredRooms.pollFirst();
+                queued[oldest] = false;
+            }
+            if (oldest != null && roomOrder.get(oldest).evaluateRoomState()
+                    != RoomState.EVACUATE) {
+                deferredRooms.pollFirst();
+                queued[oldest] = false;
+                next = oldest;
+            }
+        }
+        if (next < 0 || next == nextRoomIndex) {
+            // A deferred room which is also next in order counts as both
+            next = nextRoomIndex;
+            nextRoomIndex = (nextRoomIndex + 1) % roomOrder.size();
+        }
+
+        Room previous = getCurrentRoom();
+        previous.setMaintenance(false);
+        currentRoomIndex = next;
         getCurrentRoom().setMaintenance(true);
-        currentCleanTime = 0;
+        currentCleanTime = Math.max(0, deferredCleanTimes[next]);
+        cleanedRoomsTime -= currentCleanTime;
+        deferredCleanTimes[next] = -1;
+        if (listener != null && previous != getCurrentRoom()) {
+            listener.maintenanceMoved(this, previous, getCurrentRoom());
+        }
+    }
+
+    /**
+     * Sets the listener to be notified when this schedule moves on to a new
+     * room, replacing any existing listener.
+     * <p>
+     * The new listener is told of the current room straight away, with a
+     * null previous room.
+     *
+     * @param listener listener to notify of new rooms; null for none
+     */
+    public void setMaintenanceListener(MaintenanceListener listener) {
+        this.listener = listener;
+        if (listener != null) {
+            listener.maintenanceMoved(this, null, getCurrentRoom());
+        }
+    }
+
+    /**
+     * Stops this schedule: the current room is taken out of maintenance,
+     * the schedule is unregistered from the timed item manager and the
+     * listener, if any, is told with a null current room.
+     * <p>
+     * A stopped schedule must not be used again. Stopping a schedule which
+     * has already been stopped has no effect.
+     */
+    public void stop() {
+        if (stopped) {
+            return;
+        }
+        stopped = true;
+        TimedItemManager.getInstance().unregisterTimedItem(this);
+        getCurrentRoom().setMaintenance(false);
+        if (listener != null) {
+            listener.maintenanceMoved(this, getCurrentRoom(), null);
+        }
+    }
+
+    /**
+     * Returns whether this schedule has been stopped, see {@link #stop()}.
+     *
+     * @return true if stopped, false otherwise
+     */
+    boolean isStopped() {
+        return stopped;
     }
 
     /**
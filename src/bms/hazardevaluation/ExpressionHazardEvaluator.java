@@ -0,0 +1,309 @@
+package bms.hazardevaluation;
+
+import bms.sensors.HazardSensor;
+import bms.sensors.SensorType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Evaluates the hazard level of a location using a custom formula over the
+ * hazard levels of its sensors.
+ * <p>
+ * A formula is made up of numbers, sensor names, the operators + - * /,
+ * parentheses and the functions max, min, avg and abs. A sensor name is
+ * the simple class name of a sensor, e.g. "TemperatureSensor", and stands
+ * for that sensor's current hazard level, or 0 if the location has no such
+ * sensor. A name which is not that of a sensor type is rejected when the
+ * formula is parsed, so a misspelt name cannot silently read as 0.
+ * For example, the formula
+ *
+ *  max(CarbonDioxideSensor, TemperatureSensor) * OccupancySensor / 100
+ *
+ * takes the highest of the CO2 and temperature hazard levels and scales it
+ * by the occupancy hazard level.
+ * <p>
+ * The formula is parsed once, when the evaluator is created, into a tree
+ * of operations bound directly to the sensors, so evaluating the hazard
+ * level does not parse or look up anything.
+ */
+public class ExpressionHazardEvaluator implements HazardEvaluator {
+
+    /**
+     * A node of a compiled formula.
+     */
+    private interface Node {
+        double evaluate();
+    }
+
+    /**
+     * The save file token of this evaluator.
+     */
+    private final String name;
+
+    /**
+     * The formula used to calculate the hazard level.
+     */
+    private final String formula;
+
+    /**
+     * Sensors which the formula can refer to.
+     */
+    private final List<HazardSensor> hazardSensors;
+
+    /**
+     * The root of the compiled formula.
+     */
+    private final Node root;
+
+    /**
+     * The formula being parsed, and the position of the parser within it.
+     * Only used while the evaluator is being constructed.
+     */
+    private String input;
+    private int position;
+
+    /**
+     * Creates a new expression based hazard evaluator with the given formula
+     * and list of sensors.
+     *
+     * @param name save file token of this evaluator, see toString()
+     * @param formula formula used to calculate the hazard level
+     * @param sensors sensors to be used in the hazard level calculation
+     * @throws IllegalArgumentException if the formula cannot be parsed
+     */
+    public ExpressionHazardEvaluator(String name, String formula,
+                                     List<HazardSensor> sensors)
+            throws IllegalArgumentException {
+        if (formula == null) {
+            throw new IllegalArgumentException("Formula must not be null");
+        }
+        this.name = name;
+        this.formula = formula;
+        this.hazardSensors = new ArrayList<>(sensors);
+
+        this.input = formula;
+        this.position = 0;
+        Node parsed = parseExpression();
+        skipWhitespace();
+        if (position != input.length()) {
+            throw error("Unexpected character");
+        }
+        this.root = parsed;
+        this.input = null;
+    }
+
+    /**
+     * Returns the formula used by this evaluator.
+     *
+     * @return formula of this evaluator
+     */
+    public String getFormula() {
+        return formula;
+    }
+
+    /**
+     * Returns the value of the formula for the current sensor hazard levels,
+     * rounded to the nearest integer between 0 and 100.
+     *
+     * @return calculated hazard level according to the formula
+     */
+    public int evaluateHazardLevel() {
+        double result = root.evaluate();
+        if (Double.isNaN(result) || result < 0) {
+            return 0;
+        }
+        return (int) Math.min(Math.round(result), 100);
+    }
+
+    /**
+     * Parses a sum or difference of terms.
+     */
+    private Node parseExpression() {
+        Node left = parseTerm();
+        while (true) {
+            if (accept('+')) {
+                Node a = left, b = parseTerm();
+                left = () -> a.evaluate() + b.evaluate();
+            } else if (accept('-')) {
+                Node a = left, b = parseTerm();
+                left = () -> a.evaluate() - b.evaluate();
+            } else {
+                return left;
+            }
+        }
+    }
+
+    /**
+     * Parses a product or quotient of factors.
+     */
+    private Node parseTerm() {
+        Node left = parseFactor();
+        while (true) {
+            if (accept('*')) {
+                Node a = left, b = parseFactor();
+                left = () -> a.evaluate() * b.evaluate();
+            } else if (accept('/')) {
+                Node a = left, b = parseFactor();
+                left = () -> {
+                    double divisor = b.evaluate();
+                    return divisor == 0 ? 0 : a.evaluate() / divisor;
+                };
+            } else {
+                return left;
+            }
+        }
+    }
+
+    /**
+     * Parses a number, sensor name, function call, negation or
+     * parenthesised expression.
+     */
+    private Node parseFactor() {
+        if (accept('-')) {
+            Node a = parseFactor();
+            return () -> -a.evaluate();
+        }
+        if (accept('(')) {
+            Node inner = parseExpression();
+            expect(')');
+            return inner;
+        }
+        skipWhitespace();
+        int start = position;
+        if (position < input.length()
+                && (Character.isDigit(input.charAt(position))
+                || input.charAt(position) == '.')) {
+            while (position < input.length()
+                    && (Character.isDigit(input.charAt(position))
+                    || input.charAt(position) == '.')) {
+                position++;
+            }
+            double value;
+            try {
+                value = Double.parseDouble(input.substring(start, position));
+            } catch (NumberFormatException e) {
+                throw error("Invalid number");
+            }
+            return () -> value;
+        }
+        while (position < input.length()
+                && Character.isLetter(input.charAt(position))) {
+            position++;
+        }
+        if (start == position) {
+            throw error("Expected a number, sensor or function");
+        }
+        String identifier = input.substring(start, position);
+        if (accept('(')) {
+            return parseFunction(identifier);
+        }
+        return sensorNode(identifier);
+    }
+
+    /**
+     * Parses the arguments of a function call, after the opening
+     * parenthesis.
+     */
+    private Node parseFunction(String function) {
+        List<Node> arguments = new ArrayList<>();
+        do {
+            arguments.add(parseExpression());
+        } while (accept(','));
+        expect(')');
+        Node[] args = arguments.toArray(new Node[0]);
+
+        switch (function) {
+            case "max" -> {
+                return () -> {
+                    double result = args[0].evaluate();
+                    for (int i = 1; i < args.length; ++i) {
+                        result = Math.max(result, args[i].evaluate());
+                    }
+                    return result;
+                };
+            }
+            case "min" -> {
+                return () -> {
+                    double result = args[0].evaluate();
+                    for (int i = 1; i < args.length; ++i) {
+                        result = Math.min(result, args[i].evaluate());
+                    }
+                    return result;
+                };
+            }
+            case "avg" -> {
+                return () -> {
+                    double sum = 0;
+                    for (Node arg : args) {
+                        sum += arg.evaluate();
+                    }
+                    return sum / args.length;
+                };
+            }
+            case "abs" -> {
+                if (args.length != 1) {
+                    throw error("abs takes exactly one argument");
+                }
+                Node a = args[0];
+                return () -> Math.abs(a.evaluate());
+            }
+            default -> throw error("Unknown function: " + function);
+        }
+    }
+
+    /**
+     * Returns a node for the hazard level of the sensor with the given
+     * simple class name, or a constant 0 if the location has no such sensor.
+     */
+    private Node sensorNode(String sensorType) {
+        if (SensorType.fromSimpleName(sensorType) == null) {
+            throw error("Unknown sensor: " + sensorType);
+        }
+        for (HazardSensor sensor : hazardSensors) {
+            if (sensor.getClass().getSimpleName().equals(sensorType)) {
+                return sensor::getHazardLevel;
+            }
+        }
+        return () -> 0;
+    }
+
+    private void skipWhitespace() {
+        while (position < input.length()
+                && Character.isWhitespace(input.charAt(position))) {
+            position++;
+        }
+    }
+
+    private boolean accept(char c) {
+        skipWhitespace();
+        if (position < input.length() && input.charAt(position) == c) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char c) {
+        if (!accept(c)) {
+            throw error("Expected '" + c + "'");
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position "
+                + position + " of formula: " + input);
+    }
+
+    /**
+     * Returns the string representation of this hazard evaluator, which is
+     * the token it was registered under.
+     *
+     * See the demo save file for an example (uqstlucia.txt).
+     *
+     * @return save file token of this evaluator
+     */
+    public String toString() {
+        return name;
+    }
+}
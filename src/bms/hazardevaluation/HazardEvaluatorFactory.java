@@ -0,0 +1,38 @@
+package bms.hazardevaluation;
+
+import bms.sensors.HazardSensor;
+
+import java.util.Map;
+
+/**
+ * Creates hazard evaluators for a room's hazard sensors.
+ * <p>
+ * Factories are registered with the {@link HazardEvaluatorRegistry} under
+ * the token used for the evaluator in save files.
+ */
+public interface HazardEvaluatorFactory {
+    /**
+     * Creates a new hazard evaluator for the given sensors.
+     * <p>
+     * The sensors are given in alphabetical order of their simple class
+     * name. Each sensor is mapped to its weighting if this factory
+     * {@link #usesWeightings() uses weightings}, or to null otherwise.
+     *
+     * @param sensors hazard sensors to evaluate, mapped to their weightings
+     * @return new hazard evaluator for the given sensors
+     * @throws IllegalArgumentException if an evaluator cannot be created
+     * for the given sensors
+     */
+    HazardEvaluator create(Map<HazardSensor, Integer> sensors)
+            throws IllegalArgumentException;
+
+    /**
+     * Returns whether the evaluators created by this factory require a
+     * weighting for each sensor.
+     *
+     * @return true if sensor weightings are required, false otherwise
+     */
+    default boolean usesWeightings() {
+        return false;
+    }
+}
@@ -0,0 +1,136 @@
+package bms.hazardevaluation;
+
+import bms.sensors.HazardSensor;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the hazard evaluator types that can be loaded from a save
+ * file, keyed by the token used for the evaluator type in the file.
+ * <p>
+ * The "RuleBased" and "WeightingBased" evaluators are always registered.
+ * Custom evaluators can be registered with
+ * {@link #register(String, HazardEvaluatorFactory)}, or defined by a
+ * formula with {@link #registerExpression(String, String)}, and removed
+ * again with {@link #unregister(String)}.
+ * <p>
+ * The registry is shared by the whole application, and may be changed on
+ * one thread while a save file is loaded on another.
+ */
+public class HazardEvaluatorRegistry {
+
+    /**
+     * Hazard evaluator factories, keyed by their save file token.
+     */
+    private static final Map<String, HazardEvaluatorFactory> factories =
+            new ConcurrentHashMap<>();
+
+    static {
+        factories.put("RuleBased", sensors ->
+                new RuleBasedHazardEvaluator(
+                        new ArrayList<>(sensors.keySet())));
+
+        factories.put("WeightingBased", new HazardEvaluatorFactory() {
+            @Override
+            public HazardEvaluator create(Map<HazardSensor, Integer> sensors) {
+                return new WeightingBasedHazardEvaluator(sensors);
+            }
+
+            @Override
+            public boolean usesWeightings() {
+                return true;
+            }
+        });
+    }
+
+    private HazardEvaluatorRegistry() {}
+
+    /**
+     * Registers a hazard evaluator factory under the given save file token,
+     * replacing any custom factory previously registered under the token.
+     * <p>
+     * The token must match the toString() representation of the evaluators
+     * created by the factory, so that saved rooms can be loaded again.
+     * The "RuleBased" and "WeightingBased" evaluators cannot be replaced.
+     *
+     * @param token save file token of the evaluator type, e.g. "Co2Only"
+     * @param factory factory used to create evaluators of this type
+     * @throws IllegalArgumentException if the token is empty, contains a
+     * colon or is "RuleBased" or "WeightingBased", or if the factory is null
+     */
+    public static void register(String token, HazardEvaluatorFactory factory)
+            throws IllegalArgumentException {
+        if (token == null || token.isEmpty() || token.contains(":")) {
+            throw new IllegalArgumentException("Evaluator token must be "
+                    + "non-empty and must not contain a colon");
+        }
+        if (isBuiltIn(token)) {
+            throw new IllegalArgumentException(
+                    "Built in evaluator types cannot be replaced");
+        }
+        if (factory == null) {
+            throw new IllegalArgumentException(
+                    "Evaluator factory must not be null");
+        }
+        factories.put(token, factory);
+    }
+
+    /**
+     * Registers an expression based hazard evaluator under the given save
+     * file token. See {@link ExpressionHazardEvaluator} for the formula
+     * syntax.
+     * <p>
+     * The formula is checked when it is registered, so an invalid formula
+     * is reported here rather than when a save file is loaded.
+     *
+     * @param token save file token of the evaluator type
+     * @param formula formula used to calculate the hazard level
+     * @throws IllegalArgumentException if the token or formula is invalid
+     */
+    public static void registerExpression(String token, String formula)
+            throws IllegalArgumentException {
+        new ExpressionHazardEvaluator(token, formula, new ArrayList<>());
+        register(token, sensors -> new ExpressionHazardEvaluator(
+                token, formula, new ArrayList<>(sensors.keySet())));
+    }
+
+    /**
+     * Removes the factory registered under the given save file token, if
+     * any. Save files using the token can no longer be loaded.
+     * <p>
+     * The "RuleBased" and "WeightingBased" evaluators cannot be removed.
+     *
+     * @param token save file token of the evaluator type
+     * @return true if a factory was removed, false if none was registered
+     * @throws IllegalArgumentException if the token is "RuleBased" or
+     * "WeightingBased"
+     */
+    public static boolean unregister(String token)
+            throws IllegalArgumentException {
+        if (isBuiltIn(token)) {
+            throw new IllegalArgumentException(
+                    "Built in evaluator types cannot be removed");
+        }
+        return token != null && factories.remove(token) != null;
+    }
+
+    /**
+     * Returns true if the given token is that of a built in evaluator type.
+     */
+    private static boolean isBuiltIn(String token) {
+        return "RuleBased".equals(token) || "WeightingBased".equals(token);
+    }
+
+    /**
+     * Returns the factory registered under the given save file token, or
+     * null if no factory is registered under the token.
+     *
+     * @param token save file token of the evaluator type
+     * @return factory for the evaluator type; null if not registered
+     */
+    public static HazardEvaluatorFactory getFactory(String token) {
+        return token == null ? null : factories.get(token);
+    }
+}
@@ -0,0 +1,139 @@
+package bms.ingestion;
+
+import bms.building.Building;
+import bms.building.BuildingInitialiser;
+import bms.exceptions.FileFormatException;
+import bms.floor.Floor;
+import bms.room.Room;
+import bms.sensors.Sensor;
+import bms.sensors.SensorType;
+import bms.util.TimedItemManager;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Load generator for the ingestion server.
+ * <p>
+ * Loads the buildings in a save file, starts an {@link IngestionServer} for
+ * their sensors, and sends batches of random readings to it for a number
+ * of seconds while another thread consumes the sensor feeds by running the
+ * timed item manager as fast as possible. Reports the number of readings
+ * accepted per second.
+ */
+public class IngestionLoadGenerator {
+
+    /** Number of readings sent in each frame */
+    private static final int BATCH_SIZE = 4096;
+
+    /**
+     * Entry point of the load generator.
+     * <p>
+     * Command line arguments: filename [seconds] [feedCapacity]
+     *
+     * @param args command line arguments
+     * @throws IOException if the save file or a socket cannot be used
+     * @throws FileFormatException if the save file is invalid
+     * @throws InterruptedException if interrupted while waiting for threads
+     */
+    public static void main(String[] args)
+            throws IOException, FileFormatException, InterruptedException {
+        if (args.length < 1) {
+            System.out.println("Usage: filename [seconds] [feedCapacity]");
+            System.exit(1);
+        }
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int feedCapacity = args.length > 2 ? Integer.parseInt(args[2]) : 1024;
+
+        List<Building> buildings = BuildingInitialiser.loadBuildings(args[0]);
+        SensorIndex index = new SensorIndex(buildings, feedCapacity);
+        if (index.size() == 0) {
+            System.out.println("No sensors to send readings to.");
+            return;
+        }
+        int[][] addresses = addresses(buildings);
+
+        IngestionServer server = new IngestionServer(index, 0);
+        Thread serverThread = new Thread(server, "ingestion-server");
+        serverThread.start();
+
+        AtomicBoolean sending = new AtomicBoolean(true);
+        Thread consumer = new Thread(() -> {
+            while (sending.get()) {
+                TimedItemManager.getInstance().elapseOneMinute();
+            }
+        }, "ingestion-consumer");
+        consumer.start();
+
+        Random random = new Random();
+        ByteBuffer frame = ByteBuffer.allocateDirect(
+                IngestionServer.HEADER_SIZE
+                        + BATCH_SIZE * IngestionServer.RECORD_SIZE);
+        long sent = 0;
+        long start = System.nanoTime();
+        long end = start + seconds * 1_000_000_000L;
+        try (SocketChannel channel = SocketChannel.open(new InetSocketAddress(
+                InetAddress.getLoopbackAddress(), server.getPort()))) {
+            while (System.nanoTime() < end) {
+                frame.clear();
+                frame.putInt(BATCH_SIZE);
+                for (int i = 0; i < BATCH_SIZE; ++i) {
+                    int[] address = addresses[random.nextInt(addresses.length)];
+                    frame.putInt(address[0]);
+                    frame.putInt(address[1]);
+                    frame.putInt(address[2]);
+                    frame.put((byte) address[3]);
+                    frame.putInt(random.nextInt(100));
+                }
+                frame.flip();
+                while (frame.hasRemaining()) {
+                    channel.write(frame);
+                }
+                sent += BATCH_SIZE;
+            }
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        sending.set(false);
+        consumer.join();
+        server.stop();
+        serverThread.join();
+
+        System.out.printf("Sent %d readings in %.2fs to %d sensors%n",
+                sent, elapsed, index.size());
+        System.out.printf("Accepted %d readings (%.0f readings/s), "
+                        + "dropped %d%n",
+                server.getAcceptedReadings(),
+                server.getAcceptedReadings() / elapsed,
+                server.getDroppedReadings());
+    }
+
+    /**
+     * Returns the address (building index, floor number, room number,
+     * sensor type ordinal) of every sensor in the given buildings.
+     */
+    private static int[][] addresses(List<Building> buildings) {
+        List<int[]> addresses = new ArrayList<>();
+        for (int b = 0; b < buildings.size(); ++b) {
+            for (Floor floor : buildings.get(b).getFloorsView()) {
+                for (Room room : floor.getRoomsView()) {
+                    for (Sensor sensor : room.getSensorsView()) {
+                        SensorType type = SensorType.of(sensor);
+                        if (type != null) {
+                            addresses.add(new int[]{b, floor.getFloorNumber(),
+                                    room.getRoomNumber(), type.ordinal()});
+                        }
+                    }
+                }
+            }
+        }
+        return addresses.toArray(new int[0][]);
+    }
+}
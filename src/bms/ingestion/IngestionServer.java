@@ -0,0 +1,302 @@
+package bms.ingestion;
+
+import bms.sensors.SensorFeed;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Local TCP server which accepts batches of sensor readings and routes each
+ * reading to its sensor's live feed.
+ * <p>
+ * Clients send a stream of frames. Each frame is a batch of readings, in
+ * big-endian binary:
+ *
+ *  count            (int)
+ *  buildingIndex    (int)   \
+ *  floorNumber      (int)    |
+ *  roomNumber       (int)    |  repeated 'count' times
+ *  sensorType       (byte)   |  (ordinal of SensorType)
+ *  reading          (int)   /
+ *
+ * Readings are routed through a {@link SensorIndex}. Readings addressed to
+ * a sensor that is not in the index, or with a negative value, are dropped.
+ * <p>
+ * If a sensor's feed is full because the tick has not consumed it yet, the
+ * server stops reading from that client until the feed has space again, so
+ * TCP flow control pushes back on the client instead of readings being
+ * lost. Other clients are not affected.
+ * <p>
+ * All connections are served by a single thread, see {@link #run()}.
+ */
+public class IngestionServer implements Runnable {
+
+    /** Size in bytes of the header of a frame */
+    public static final int HEADER_SIZE = 4;
+
+    /** Size in bytes of a single reading within a frame */
+    public static final int RECORD_SIZE = 17;
+
+    /** Size of each client's receive buffer, in bytes */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * State of a single client connection.
+     */
+    private static class Connection {
+        private final SocketChannel channel;
+        private final SelectionKey key;
+        private final ByteBuffer buffer;
+        private int recordsRemaining;
+        private boolean stalled;
+        private boolean closing;
+
+        private Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+            this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+    }
+
+    /** Index used to route readings to sensor feeds */
+    private final SensorIndex index;
+
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+
+    /** Connections waiting for a full feed to have space */
+    private final List<Connection> stalledConnections = new ArrayList<>();
+
+    private volatile boolean running;
+
+    /** Number of readings pushed onto a feed */
+    private volatile long acceptedReadings;
+
+    /** Number of readings dropped as invalid or unaddressable */
+    private volatile long droppedReadings;
+
+    /**
+     * Creates a new ingestion server listening on the loopback interface.
+     *
+     * @param index index used to route readings to sensor feeds
+     * @param port port to listen on, or 0 for any free port
+     * @throws IOException if the server socket cannot be opened
+     */
+    public IngestionServer(SensorIndex index, int port) throws IOException {
+        this.index = index;
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.bind(new InetSocketAddress(
+                InetAddress.getLoopbackAddress(), port));
+        this.serverChannel.configureBlocking(false);
+        this.serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        this.running = true;
+    }
+
+    /**
+     * Returns the port this server is listening on.
+     *
+     * @return local port of the server
+     * @throws IOException if the port cannot be determined
+     */
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+    }
+
+    /**
+     * Returns the number of readings pushed onto a sensor feed so far.
+     *
+     * @return number of accepted readings
+     */
+    public long getAcceptedReadings() {
+        return acceptedReadings;
+    }
+
+    /**
+     * Returns the number of readings dropped so far because they were
+     * addressed to an unknown sensor or had a negative value.
+     *
+     * @return number of dropped readings
+     */
+    public long getDroppedReadings() {
+        return droppedReadings;
+    }
+
+    /**
+     * Serves client connections until {@link #stop()} is called.
+     */
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                if (stalledConnections.isEmpty()) {
+                    selector.select();
+                } else {
+                    selector.select(1);
+                }
+
+                Iterator<SelectionKey> keys =
+                        selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else if (key.isReadable()) {
+                        read((Connection) key.attachment());
+                    }
+                }
+
+                retryStalled();
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            running = false;
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Stops the server and closes all client connections.
+     */
+    public void stop() {
+        running = false;
+        selector.wakeup();
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+        key.attach(new Connection(channel, key));
+    }
+
+    private void read(Connection connection) {
+        int read;
+        try {
+            read = connection.channel.read(connection.buffer);
+        } catch (IOException e) {
+            disconnect(connection);
+            return;
+        }
+        if (read < 0) {
+            connection.closing = true;
+        }
+        drain(connection);
+    }
+
+    /**
+     * Routes as many complete readings in the connection's buffer as
+     * possible, stalling the connection if a feed is full.
+     */
+    private void drain(Connection connection) {
+        ByteBuffer buffer = connection.buffer;
+        long timestamp = System.currentTimeMillis();
+        long accepted = 0;
+        long dropped = 0;
+        buffer.flip();
+
+        boolean stalled = false;
+        while (true) {
+            if (connection.recordsRemaining == 0) {
+                if (buffer.remaining() < HEADER_SIZE) {
+                    break;
+                }
+                int count = buffer.getInt();
+                if (count < 0) {
+                    // Corrupt stream, the frame boundaries are lost
+                    buffer.clear();
+                    disconnect(connection);
+                    return;
+                }
+                connection.recordsRemaining = count;
+                continue;
+            }
+            if (buffer.remaining() < RECORD_SIZE) {
+                break;
+            }
+            int start = buffer.position();
+            int building = buffer.getInt();
+            int floorNumber = buffer.getInt();
+            int roomNumber = buffer.getInt();
+            int sensorType = buffer.get() & 0xFF;
+            int reading = buffer.getInt();
+
+            SensorFeed feed = index.getFeed(building, floorNumber, roomNumber,
+                    sensorType);
+            if (feed == null || reading < 0) {
+                dropped++;
+            } else if (feed.offer(timestamp, reading)) {
+                accepted++;
+            } else {
+                buffer.position(start);
+                stalled = true;
+                break;
+            }
+            connection.recordsRemaining--;
+        }
+        buffer.compact();
+
+        acceptedReadings += accepted;
+        droppedReadings += dropped;
+
+        if (stalled && !connection.stalled) {
+            connection.stalled = true;
+            connection.key.interestOps(0);
+            stalledConnections.add(connection);
+        } else if (!stalled && connection.stalled) {
+            connection.stalled = false;
+            stalledConnections.remove(connection);
+            if (!connection.closing) {
+                connection.key.interestOps(SelectionKey.OP_READ);
+            }
+        }
+
+        if (connection.closing && !connection.stalled) {
+            disconnect(connection);
+        }
+    }
+
+    private void retryStalled() {
+        for (Connection connection : new ArrayList<>(stalledConnections)) {
+            drain(connection);
+        }
+    }
+
+    private void disconnect(Connection connection) {
+        stalledConnections.remove(connection);
+        connection.key.cancel();
+        try {
+            connection.channel.close();
+        } catch (IOException ignored) {
+            // Connection is being discarded anyway
+        }
+    }
+
+    private void close() {
+        try {
+            for (SelectionKey key : selector.keys()) {
+                key.channel().close();
+            }
+            selector.close();
+        } catch (IOException | ClosedSelectorException ignored) {
+            // Server is shutting down anyway
+        }
+    }
+}
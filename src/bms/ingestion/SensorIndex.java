@@ -0,0 +1,144 @@
+package bms.ingestion;
+
+import bms.building.Building;
+import bms.floor.Floor;
+import bms.room.Room;
+import bms.sensors.Sensor;
+import bms.sensors.SensorFeed;
+import bms.sensors.SensorType;
+import bms.sensors.TimedSensor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Index from sensor addresses to the live feeds of the sensors in a list of
+ * buildings.
+ * <p>
+ * A sensor is addressed by the index of its building in the list, its floor
+ * number, its room number and its type. Building the index attaches a new
+ * feed to every timed sensor in the buildings, see
+ * {@link TimedSensor#setFeed(SensorFeed)}. Looking up a feed is a binary
+ * search over packed addresses, so routing a reading never walks the
+ * building's floors, rooms or sensors.
+ * <p>
+ * The index is a snapshot of the buildings when it was built; sensors
+ * added afterwards are not indexed.
+ */
+public class SensorIndex {
+
+    /** Largest floor number that can be indexed */
+    private static final int MAX_FLOOR = 0xFFFF;
+
+    /** Largest room number that can be indexed */
+    private static final int MAX_ROOM = 0xFFFFFF;
+
+    /** Largest building index that can be indexed */
+    private static final int MAX_BUILDING = 0x7FFF;
+
+    /** Packed addresses of the indexed sensors, in ascending order */
+    private final long[] addresses;
+
+    /** Feeds of the indexed sensors, in the same order as addresses */
+    private final SensorFeed[] feeds;
+
+    /**
+     * Builds an index over every timed sensor in the given buildings,
+     * attaching a new feed of the given capacity to each sensor.
+     *
+     * @param buildings buildings whose sensors to index
+     * @param feedCapacity capacity of each sensor's feed
+     * @throws IllegalArgumentException if there are too many buildings, a
+     * floor or room number is out of range to be indexed, or the feed
+     * capacity is invalid, see {@link SensorFeed#SensorFeed(int)}; no feed
+     * is attached to any sensor if so
+     */
+    public SensorIndex(List<Building> buildings, int feedCapacity)
+            throws IllegalArgumentException {
+        if (buildings.size() - 1 > MAX_BUILDING) {
+            throw new IllegalArgumentException("Too many buildings to index");
+        }
+        List<long[]> entries = new ArrayList<>();
+        List<TimedSensor> sensors = new ArrayList<>();
+
+        // Address every sensor before attaching any feed, so an address out
+        // of range leaves the sensors as they were
+        for (int b = 0; b < buildings.size(); ++b) {
+            for (Floor floor : buildings.get(b).getFloorsView()) {
+                for (Room room : floor.getRoomsView()) {
+                    for (Sensor sensor : room.getSensorsView()) {
+                        SensorType type = SensorType.of(sensor);
+                        if (type == null || !(sensor instanceof TimedSensor)) {
+                            continue;
+                        }
+                        entries.add(new long[]{address(b,
+                                floor.getFloorNumber(), room.getRoomNumber(),
+                                type.ordinal()), sensors.size()});
+                        sensors.add((TimedSensor) sensor);
+                    }
+                }
+            }
+        }
+
+        entries.sort((x, y) -> Long.compare(x[0], y[0]));
+        this.addresses = new long[entries.size()];
+        this.feeds = new SensorFeed[entries.size()];
+        for (int i = 0; i < entries.size(); ++i) {
+            // An invalid capacity throws on the first feed, before any is
+            // attached
+            SensorFeed feed = new SensorFeed(feedCapacity);
+            sensors.get((int) entries.get(i)[1]).setFeed(feed);
+            this.addresses[i] = entries.get(i)[0];
+            this.feeds[i] = feed;
+        }
+    }
+
+    /**
+     * Returns the number of sensors in the index.
+     *
+     * @return number of indexed sensors
+     */
+    public int size() {
+        return addresses.length;
+    }
+
+    /**
+     * Returns the feed of the sensor at the given address, or null if there
+     * is no such sensor.
+     *
+     * @param building index of the building in the indexed list
+     * @param floorNumber floor number of the sensor's floor
+     * @param roomNumber room number of the sensor's room
+     * @param sensorType ordinal of the sensor's {@link SensorType}
+     * @return feed of the addressed sensor; null if not found
+     */
+    public SensorFeed getFeed(int building, int floorNumber, int roomNumber,
+                              int sensorType) {
+        if (building < 0 || building > MAX_BUILDING
+                || floorNumber < 0 || floorNumber > MAX_FLOOR
+                || roomNumber < 0 || roomNumber > MAX_ROOM
+                || sensorType < 0 || sensorType > 0xFF) {
+            return null;
+        }
+        int i = Arrays.binarySearch(addresses,
+                address(building, floorNumber, roomNumber, sensorType));
+        return i < 0 ? null : feeds[i];
+    }
+
+    /**
+     * Packs a sensor address into a single long.
+     */
+    private static long address(int building, int floorNumber, int roomNumber,
+                                int sensorType) {
+        if (floorNumber < 0 || floorNumber > MAX_FLOOR
+                || roomNumber < 0 || roomNumber > MAX_ROOM) {
+            throw new IllegalArgumentException(
+                    "Floor or room number out of range to index");
+        }
+        return ((long) building << 48)
+                | ((long) floorNumber << 32)
+                | ((long) roomNumber << 8)
+                | sensorType;
+    }
+}
@@ -0,0 +1,226 @@
+package bms.room;
+
+import bms.hazardevaluation.HazardEvaluator;
+import bms.util.TimedItem;
+import bms.util.TimedItemManager;
+
+/**
+ * Records the hazard level of a room once every minute, keeping a fixed
+ * number of the most recent levels.
+ * <p>
+ * The minimum and maximum hazard level over a fixed window of recent
+ * minutes are maintained with monotonic queues, and the mean over any
+ * number of recent minutes is calculated from running sums, so all
+ * queries take constant time. Recording a level does not allocate.
+ */
+public class HazardHistory implements TimedItem {
+
+    /** The room whose hazard level is recorded */
+    private final Room room;
+
+    /** Recorded hazard levels, indexed by sequence number modulo capacity */
+    private final int[] levels;
+
+    /**
+     * Running sums of all recorded levels, indexed by sequence number modulo
+     * (capacity + 1). The sum of the levels with sequence numbers from a
+     * (inclusive) to b (exclusive) is sums[b] - sums[a].
+     */
+    private final long[] sums;
+
+    /** Number of minutes covered by getWindowMin() and getWindowMax() */
+    private final int window;
+
+    /**
+     * Sequence numbers of the candidate window maximums, in a ring of size
+     * window. The levels of the queued sequence numbers are decreasing.
+     */
+    private final long[] maxQueue;
+    private int maxHead;
+    private int maxSize;
+
+    /**
+     * Sequence numbers of the candidate window minimums, in a ring of size
+     * window. The levels of the queued sequence numbers are increasing.
+     */
+    private final long[] minQueue;
+    private int minHead;
+    private int minSize;
+
+    /** Total number of levels recorded */
+    private long count;
+
+    /**
+     * Creates a new hazard history for the given room, and registers it as
+     * a timed item with the timed item manager.
+     *
+     * @param room room whose hazard level is recorded
+     * @param capacity maximum number of minutes of history to keep
+     * @param window number of minutes covered by the window minimum and
+     *               maximum
+     * @throws IllegalArgumentException if capacity &lt; 1, or if window is
+     * &lt; 1 or &gt; capacity
+     */
+    public HazardHistory(Room room, int capacity, int window)
+            throws IllegalArgumentException {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be >= 1");
+        }
+        if (window < 1 || window > capacity) {
+            throw new IllegalArgumentException(
+                    "Window must be between 1 and the capacity (inclusive)");
+        }
+        this.room = room;
+        this.levels = new int[capacity];
+        this.sums = new long[capacity + 1];
+        this.window = window;
+        this.maxQueue = new long[window];
+        this.minQueue = new long[window];
+        TimedItemManager.getInstance().registerTimedItem(this);
+    }
+
+    /**
+     * Returns the maximum number of minutes of history kept.
+     *
+     * @return capacity of this history
+     */
+    public int getCapacity() {
+        return levels.length;
+    }
+
+    /**
+     * Returns the number of minutes covered by the window minimum and
+     * maximum.
+     *
+     * @return window length in minutes
+     */
+    public int getWindow() {
+        return window;
+    }
+
+    /**
+     * Returns the number of hazard levels currently held, which is at most
+     * the capacity of this history.
+     *
+     * @return number of recorded levels held
+     */
+    public int size() {
+        return (int) Math.min(count, levels.length);
+    }
+
+    /**
+     * Records the room's current hazard level, or 0 if the room has no
+     * hazard evaluator.
+     */
+    @Override
+    public void elapseOneMinute() {
+        HazardEvaluator evaluator = room.getHazardEvaluator();
+        record(evaluator == null ? 0 : evaluator.evaluateHazardLevel());
+    }
+
+    /**
+     * Records the given hazard level as the most recent level.
+     *
+     * @param level hazard level to record, 0 to 100
+     */
+    public void record(int level) {
+        long sequence = count;
+        levels[(int) (sequence % levels.length)] = level;
+        sums[(int) ((sequence + 1) % sums.length)] =
+                sums[(int) (sequence % sums.length)] + level;
+        count++;
+
+        if (maxSize > 0 && maxQueue[maxHead] <= sequence - window) {
+            maxHead = (maxHead + 1) % window;
+            maxSize--;
+        }
+        while (maxSize > 0 && levelAt(maxQueue[
+                (maxHead + maxSize - 1) % window]) <= level) {
+            maxSize--;
+        }
+        maxQueue[(maxHead + maxSize) % window] = sequence;
+        maxSize++;
+
+        if (minSize > 0 && minQueue[minHead] <= sequence - window) {
+            minHead = (minHead + 1) % window;
+            minSize--;
+        }
+        while (minSize > 0 && levelAt(minQueue[
+                (minHead + minSize - 1) % window]) >= level) {
+            minSize--;
+        }
+        minQueue[(minHead + minSize) % window] = sequence;
+        minSize++;
+    }
+
+    /**
+     * Returns the hazard level recorded the given number of minutes ago,
+     * where 0 is the most recently recorded level.
+     *
+     * @param minutesAgo how many minutes before the latest level to look
+     * @return hazard level recorded at that time
+     * @throws IndexOutOfBoundsException if minutesAgo &lt; 0 or &gt;= size()
+     */
+    public int getLevel(int minutesAgo) throws IndexOutOfBoundsException {
+        if (minutesAgo < 0 || minutesAgo >= size()) {
+            throw new IndexOutOfBoundsException(
+                    "No hazard level recorded " + minutesAgo + " minutes ago");
+        }
+        return levelAt(count - 1 - minutesAgo);
+    }
+
+    /**
+     * Returns the highest hazard level recorded in the last getWindow()
+     * minutes, or 0 if no levels have been recorded.
+     *
+     * @return maximum hazard level in the window
+     */
+    public int getWindowMax() {
+        return maxSize == 0 ? 0 : levelAt(maxQueue[maxHead]);
+    }
+
+    /**
+     * Returns the lowest hazard level recorded in the last getWindow()
+     * minutes, or 0 if no levels have been recorded.
+     *
+     * @return minimum hazard level in the window
+     */
+    public int getWindowMin() {
+        return minSize == 0 ? 0 : levelAt(minQueue[minHead]);
+    }
+
+    /**
+     * Returns the mean hazard level recorded in the last getWindow()
+     * minutes, or 0 if no levels have been recorded.
+     *
+     * @return mean hazard level in the window
+     */
+    public double getWindowMean() {
+        return getMean(window);
+    }
+
+    /**
+     * Returns the mean hazard level recorded in the given number of most
+     * recent minutes. If fewer levels are held, the mean of all held levels
+     * is returned, or 0 if no levels have been recorded.
+     *
+     * @param minutes number of recent minutes to average over
+     * @return mean hazard level over the recent minutes
+     */
+    public double getMean(int minutes) {
+        int n = Math.min(minutes, size());
+        if (n <= 0) {
+            return 0;
+        }
+        long total = sums[(int) (count % sums.length)]
+                - sums[(int) ((count - n) % sums.length)];
+        return (double) total / n;
+    }
+
+    /**
+     * Returns the level recorded with the given sequence number.
+     */
+    private int levelAt(long sequence) {
+        return levels[(int) (sequence % levels.length)];
+    }
+}
@@ -3,15 +3,20 @@ package bms.room;
 import bms.exceptions.DuplicateSensorException;
 import bms.hazardevaluation.HazardEvaluator;
 import bms.hazardevaluation.WeightingBasedHazardEvaluator;
+import bms.sensors.CarbonDioxideSensor;
+import bms.sensors.NoiseSensor;
+import bms.sensors.OccupancySensor;
 import bms.sensors.Sensor;
+import bms.sensors.SensorType;
 import bms.sensors.TemperatureSensor;
 import bms.sensors.TimedSensor;
 import bms.util.Encodable;
+import bms.util.TimedItemManager;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -47,11 +52,28 @@ public class Room implements Encodable {
      */
     private List<Sensor> sensors;
 
+    /**
+     * Read-only view of the list of sensors.
+     */
+    private List<Sensor> sensorsView;
+
+    /**
+     * Sensors located in the room, indexed by the ordinal of their
+     * SensorType. A slot is null if the room has no sensor of that type.
+     */
+    private Sensor[] sensorSlots;
+
     /**
      * Area of the room in square metres.
      */
     private double area;
 
+    /**
+     * Area of the room in thousandths of a square metre, rounded up. Used to
+     * compare areas within the ±0.001 delta allowed by equals(Object).
+     */
+    private long scaledArea;
+
     /**
      * Minimum area of all rooms, in square metres.
      * (Note that dimensions of the room are irrelevant).
@@ -65,8 +87,45 @@ public class Room implements Encodable {
     private boolean fireDrill;
 
     private boolean maintenance;
+
+    /**
+     * Records whether the room's temperature sensor currently detects a
+     * fire. Kept up to date as the sensor's reading changes.
+     */
+    private boolean fireDetected;
+
     private HazardEvaluator hazardEvaluator;
 
+    /**
+     * Record of this room's recent hazard levels, or null if hazard history
+     * is not being kept.
+     */
+    private HazardHistory hazardHistory;
+
+    /**
+     * Listener notified when this room changes, or null if there is none.
+     */
+    private RoomListener listener;
+
+    /**
+     * Number of structural changes made to this room, starting from 1.
+     */
+    private volatile int structureVersion = 1;
+
+    /**
+     * Cached hash code of this room in the high 32 bits, and the structure
+     * version it was calculated at in the low 32 bits. Only valid while that
+     * version is the current structure version, so a hash code calculated
+     * by a reader racing with a structural change is never used.
+     */
+    private volatile long hashCache;
+
+    /**
+     * Snapshot of the room as it is now, or null if the room has changed
+     * since the last snapshot was taken.
+     */
+    private RoomSnapshot snapshot;
+
     /**
      * Creates a new room with the given room number.
      *
@@ -79,8 +138,11 @@ public class Room implements Encodable {
         this.roomNumber = roomNumber;
         this.type = type;
         this.area = area;
+        this.scaledArea = scale(area);
 
         this.sensors = new ArrayList<>();
+        this.sensorsView = Collections.unmodifiableList(this.sensors);
+        this.sensorSlots = new Sensor[SensorType.values().length];
         this.fireDrill = false;
 
         this.maintenance = false;
@@ -148,6 +210,16 @@ public class Room implements Encodable {
         return this.maintenance;
     }
 
+    /**
+     * Returns whether the room's temperature sensor currently detects a fire,
+     * ie. reports a hazard level of 100.
+     *
+     * @return true if a fire is detected, false otherwise
+     */
+    public boolean fireDetected() {
+        return this.fireDetected;
+    }
+
     /**
      * Returns this room's hazard evaluator, or null if none exists.
      *
@@ -164,7 +236,72 @@ public class Room implements Encodable {
      */
     public void setHazardEvaluator(HazardEvaluator hazardEvaluator) {
         this.hazardEvaluator = hazardEvaluator;
+        notifyListener(RoomChange.HAZARD_EVALUATOR);
+    }
 
+    /**
+     * Sets the listener to be notified when this room changes, replacing
+     * any existing listener.
+     * <p>
+     * A floor registers itself as the listener of each room added to it.
+     *
+     * @param listener listener to notify of changes; null for none
+     */
+    public void setRoomListener(RoomListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Notifies this room's listener, if any, that the room has changed.
+     *
+     * @param change kind of change made to the room
+     */
+    private void notifyListener(RoomChange change) {
+        if (change.isStructural()) {
+            ++structureVersion;
+        }
+        snapshot = null;
+        if (listener != null) {
+            listener.roomChanged(this, change);
+        }
+    }
+
+    /**
+     * Returns the record of this room's recent hazard levels, or null if
+     * hazard history is not being kept for this room.
+     *
+     * @return room's hazard history
+     */
+    public HazardHistory getHazardHistory() {
+        return hazardHistory;
+    }
+
+    /**
+     * Starts keeping a history of this room's hazard level, recorded once
+     * every minute. Any history previously kept for this room is discarded.
+     *
+     * @param capacity maximum number of minutes of history to keep
+     * @param window number of minutes covered by the history's window
+     *               minimum and maximum
+     * @throws IllegalArgumentException if capacity &lt; 1, or if window is
+     * &lt; 1 or &gt; capacity
+     */
+    public void enableHazardHistory(int capacity, int window)
+            throws IllegalArgumentException {
+        HazardHistory history = new HazardHistory(this, capacity, window);
+        disableHazardHistory();
+        this.hazardHistory = history;
+    }
+
+    /**
+     * Stops keeping a history of this room's hazard level, discarding any
+     * history kept so far.
+     */
+    public void disableHazardHistory() {
+        if (hazardHistory != null) {
+            TimedItemManager.getInstance().unregisterTimedItem(hazardHistory);
+            hazardHistory = null;
+        }
     }
 
     /**
@@ -183,6 +320,19 @@ public class Room implements Encodable {
         return new ArrayList<>(this.sensors);
     }
 
+    /**
+     * Returns a read-only view of the sensors in the room, in alphabetical
+     * order by the sensor's class name.
+     * <p>
+     * Unlike {@link #getSensors()}, no new list is created. The view reflects
+     * sensors added to the room later, and cannot be modified.
+     *
+     * @return unmodifiable view of all sensors in the room
+     */
+    public List<Sensor> getSensorsView() {
+        return this.sensorsView;
+    }
+
     /**
      * Change the status of the fire drill to the given value.
      *
@@ -190,7 +340,10 @@ public class Room implements Encodable {
      * @ass1
      */
     public void setFireDrill(boolean fireDrill) {
-        this.fireDrill = fireDrill;
+        if (this.fireDrill != fireDrill) {
+            this.fireDrill = fireDrill;
+            notifyListener(RoomChange.FIRE_DRILL);
+        }
     }
 
     /**
@@ -199,7 +352,46 @@ public class Room implements Encodable {
      * @param maintenance - whether there is maintenance ongoing
      */
     public void setMaintenance(boolean maintenance) {
-        this.maintenance = maintenance;
+        if (this.maintenance != maintenance) {
+            this.maintenance = maintenance;
+            notifyListener(RoomChange.MAINTENANCE);
+        }
+    }
+
+    /**
+     * Called when the reading of one of this room's timed sensors changes.
+     */
+    private void readingChanged(TimedSensor sensor) {
+        if (sensor instanceof TemperatureSensor) {
+            boolean fire =
+                    ((TemperatureSensor) sensor).getHazardLevel() == 100;
+            if (this.fireDetected != fire) {
+                this.fireDetected = fire;
+                notifyListener(RoomChange.FIRE_ALARM);
+            }
+        }
+        notifyListener(RoomChange.READING);
+    }
+
+    /**
+     * Returns an immutable snapshot of this room's attributes, state and
+     * current sensor readings.
+     * <p>
+     * The snapshot is cached until the room next changes, so taking
+     * another snapshot of an unchanged room returns the same object.
+     *
+     * @return snapshot of the room as it is now
+     */
+    public RoomSnapshot snapshot() {
+        if (snapshot == null) {
+            int[] readings = new int[sensorSlots.length];
+            for (int i = 0; i < sensorSlots.length; ++i) {
+                readings[i] = sensorSlots[i] == null
+                        ? -1 : sensorSlots[i].getCurrentReading();
+            }
+            snapshot = new RoomSnapshot(this, readings);
+        }
+        return snapshot;
     }
 
     /**
@@ -213,7 +405,11 @@ public class Room implements Encodable {
      * @ass1
      */
     public Sensor getSensor(String sensorType) {
-        for (Sensor s : this.getSensors()) {
+        SensorType type = SensorType.fromSimpleName(sensorType);
+        if (type != null) {
+            return this.sensorSlots[type.ordinal()];
+        }
+        for (Sensor s : this.sensors) {
             if (s.getClass().getSimpleName().equals(sensorType)) {
                 return s;
             }
@@ -221,12 +417,68 @@ public class Room implements Encodable {
         return null;
     }
 
+    /**
+     * Returns the sensor of the given type in this room, or null if there is
+     * no sensor of that type.
+     *
+     * @param sensorType the type of sensor to return
+     * @return the sensor in this room of the given type; null if none found
+     */
+    public Sensor getSensor(SensorType sensorType) {
+        return this.sensorSlots[sensorType.ordinal()];
+    }
+
+    /**
+     * Returns the carbon dioxide sensor in this room, or null if there is
+     * none.
+     *
+     * @return carbon dioxide sensor in this room; null if none found
+     */
+    public CarbonDioxideSensor getCarbonDioxideSensor() {
+        return (CarbonDioxideSensor)
+                this.sensorSlots[SensorType.CARBON_DIOXIDE.ordinal()];
+    }
+
+    /**
+     * Returns the noise sensor in this room, or null if there is none.
+     *
+     * @return noise sensor in this room; null if none found
+     */
+    public NoiseSensor getNoiseSensor() {
+        return (NoiseSensor) this.sensorSlots[SensorType.NOISE.ordinal()];
+    }
+
+    /**
+     * Returns the occupancy sensor in this room, or null if there is none.
+     *
+     * @return occupancy sensor in this room; null if none found
+     */
+    public OccupancySensor getOccupancySensor() {
+        return (OccupancySensor)
+                this.sensorSlots[SensorType.OCCUPANCY.ordinal()];
+    }
+
+    /**
+     * Returns the temperature sensor in this room, or null if there is none.
+     *
+     * @return temperature sensor in this room; null if none found
+     */
+    public TemperatureSensor getTemperatureSensor() {
+        return (TemperatureSensor)
+                this.sensorSlots[SensorType.TEMPERATURE.ordinal()];
+    }
+
     /**
      * Adds a sensor to the room if a sensor of the same type is not
      * already in the room.
      * <p>
      * The list of sensors should be sorted after adding the new sensor, in
      * alphabetical order by simple class name ({@link Class#getSimpleName()}).
+     * <p>
+     * The hazard and comfort levels of a timed sensor are precomputed when
+     * it is added, see {@link TimedSensor#precomputeLevels()}, so every
+     * sensor in a building, however it was added, reads its levels from the
+     * lookup tables.
      *
      * @param sensor the sensor to add to the room
      * @throws DuplicateSensorException if the sensor to add is of the
@@ -235,16 +487,41 @@ public class Room implements Encodable {
      */
     public void addSensor(Sensor sensor)
             throws DuplicateSensorException {
-        for (Sensor s : sensors) {
-            if (s.getClass().equals(sensor.getClass())) {
-                throw new DuplicateSensorException(
-                        "Duplicate sensor of type: "
-                                + s.getClass().getSimpleName());
+        SensorType type = SensorType.of(sensor);
+        if (type != null && sensorSlots[type.ordinal()] != null) {
+            throw new DuplicateSensorException(
+                    "Duplicate sensor of type: " + type.getSimpleName());
+        }
+        if (type == null) {
+            for (Sensor s : sensors) {
+                if (s.getClass().equals(sensor.getClass())) {
+                    throw new DuplicateSensorException(
+                            "Duplicate sensor of type: "
+                                    + s.getClass().getSimpleName());
+                }
             }
         }
-        sensors.add(sensor);
-        sensors.sort(Comparator.comparing(s -> s.getClass().getSimpleName()));
+
+        // Insert in place to keep the list sorted by simple class name
+        String name = sensor.getClass().getSimpleName();
+        int index = 0;
+        while (index < sensors.size() && sensors.get(index).getClass()
+                .getSimpleName().compareTo(name) < 0) {
+            index++;
+        }
+        sensors.add(index, sensor);
+        if (type != null) {
+            sensorSlots[type.ordinal()] = sensor;
+        }
         hazardEvaluator = null;
+        notifyListener(RoomChange.STRUCTURE);
+
+        if (sensor instanceof TimedSensor) {
+            TimedSensor timedSensor = (TimedSensor) sensor;
+            timedSensor.precomputeLevels();
+            timedSensor.setReadingListener(this::readingChanged);
+            readingChanged(timedSensor);
+        }
     }
 
     /**
@@ -267,8 +544,7 @@ public class Room implements Encodable {
      * @return current room status
      */
     public RoomState evaluateRoomState() {
-        TemperatureSensor TemperatureSensor =
-                (TemperatureSensor) this.getSensor("TemperatureSensor");
+        TemperatureSensor TemperatureSensor = this.getTemperatureSensor();
         if (TemperatureSensor != null &&
                 TemperatureSensor.getHazardLevel() == 100) {
             return RoomState.EVACUATE;
@@ -307,33 +583,53 @@ public class Room implements Encodable {
 
         Room castObj = (Room) obj;
 
-        BigDecimal thisArea =
-                new BigDecimal(area).setScale(3, RoundingMode.UP);
-        BigDecimal objArea =
-                new BigDecimal(castObj.area).setScale(3, RoundingMode.UP);
+        // Rooms with different hash codes can never be equal
+        if (this.hashCode() != castObj.hashCode())
+            return false;
+
+        if (this.getRoomNumber() != castObj.getRoomNumber() ||
+                this.getType() != castObj.getType() ||
+                this.scaledArea != castObj.scaledArea ||
+                this.sensors.size() != castObj.sensors.size())
+            return false;
 
-        for(Sensor sensor : this.getSensors()) {
-            String sensorName = sensor.getClass().getSimpleName();
-            Sensor objSensor = castObj.getSensor(sensorName);
-            if (!sensor.equals(objSensor))
+        // Both lists are sorted by class name and hold at most one sensor of
+        // each class, so equal rooms have equal sensors at each position
+        for (int i = 0; i < this.sensors.size(); ++i) {
+            if (!this.sensors.get(i).equals(castObj.sensors.get(i)))
                 return false;
         }
-
-        return this.getRoomNumber() == castObj.getRoomNumber() &&
-                this.getType() == castObj.getType() &&
-                thisArea.equals(objArea) &&
-                this.getSensors().size() == castObj.getSensors().size();
+        return true;
     }
 
     /**
      * Returns the hash code of this room.
      * Two rooms that are equal according to equals(Object) should have
      * the same hash code.
+     * <p>
+     * The hash code is cached, and only recalculated after the room's
+     * structure has changed.
      *
      * @return  hash code of this room
      */
     @Override
     public int hashCode() {
+        int current = structureVersion;
+        long cache = hashCache;
+        if ((int) cache == current) {
+            return (int) (cache >>> 32);
+        }
+        int hash = calculateHashCode();
+        hashCache = ((long) hash << 32) | (current & 0xFFFFFFFFL);
+        return hash;
+    }
+
+    /**
+     * Calculates the hash code of this room from its current structure.
+     *
+     * @return  hash code of this room
+     */
+    private int calculateHashCode() {
 
         final int typePrime;
         int sensorsHashCode = 0;
@@ -345,20 +641,28 @@ public class Room implements Encodable {
             default -> typePrime = 1;
         }
 
-        for(Sensor sensor : getSensors()) {
+        for(Sensor sensor : this.sensors) {
             sensorsHashCode += sensor.hashCode();
         }
 
         int result = 1;
         result = result * typePrime + roomNumber;
         result = result * typePrime + typePrime;
-        result = result * typePrime + getSensors().size();
-        result = result * typePrime + (int) (area * 1000);
+        result = result * typePrime + this.sensors.size();
+        result = result * typePrime + Long.hashCode(scaledArea);
         result = result * typePrime + sensorsHashCode;
 
         return result;
     }
 
+    /**
+     * Returns the given area in thousandths, rounded up.
+     */
+    private static long scale(double value) {
+        return new BigDecimal(value).setScale(3, RoundingMode.UP)
+                .unscaledValue().longValue();
+    }
+
     /**
      * Returns the human-readable string representation of this room.
      * <p>
@@ -437,7 +741,7 @@ public class Room implements Encodable {
      */
     @Override
     public String encode() {
-        List<Sensor> sensors = getSensors();
+        List<Sensor> sensors = getSensorsView();
 
         String roomEncode = String.join(":",
                 String.valueOf(getRoomNumber()),
@@ -0,0 +1,48 @@
+package bms.room;
+
+/**
+ * Enum to represent the kinds of change a room reports to its listener.
+ */
+public enum RoomChange {
+    /**
+     * A change to the room's structure, ie. anything that is compared by
+     * {@link Room#equals(Object)}, such as adding a sensor.
+     */
+    STRUCTURE,
+    /**
+     * The room was added to a floor. This is a change to the structure of
+     * the floor. When reported by a building without a room, a floor was
+     * added to the building.
+     */
+    ADDED,
+    /**
+     * A fire drill was started or cancelled in the room.
+     */
+    FIRE_DRILL,
+    /**
+     * Maintenance was started or finished in the room.
+     */
+    MAINTENANCE,
+    /**
+     * The room's temperature sensor started or stopped detecting a fire.
+     */
+    FIRE_ALARM,
+    /**
+     * The room's hazard evaluator was set or removed.
+     */
+    HAZARD_EVALUATOR,
+    /**
+     * The current reading of one of the room's sensors changed.
+     */
+    READING;
+
+    /**
+     * Returns whether this kind of change affects the structure, and hence
+     * the equality and hash code, of the room or the floor it is on.
+     *
+     * @return true if this is a structural change, false otherwise
+     */
+    public boolean isStructural() {
+        return this == STRUCTURE || this == ADDED;
+    }
+}
@@ -0,0 +1,17 @@
+package bms.room;
+
+/**
+ * Listener notified when a room changes.
+ * <p>
+ * A room has at most one listener, normally the floor the room is on.
+ */
+public interface RoomListener {
+
+    /**
+     * Called after the given room has changed.
+     *
+     * @param room room which changed
+     * @param change kind of change made to the room
+     */
+    void roomChanged(Room room, RoomChange change);
+}
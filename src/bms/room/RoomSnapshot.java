@@ -0,0 +1,129 @@
+package bms.room;
+
+import bms.sensors.SensorType;
+
+/**
+ * Immutable snapshot of a room, taken by {@link Room#snapshot()}.
+ * <p>
+ * Records the room's attributes, state and the current reading of each of
+ * its sensors at the time the snapshot was taken. Snapshots are never
+ * modified, so they may be shared freely between threads.
+ */
+public final class RoomSnapshot {
+
+    /** Room number of the room */
+    private final int roomNumber;
+
+    /** Type of the room */
+    private final RoomType type;
+
+    /** Area of the room in square metres */
+    private final double area;
+
+    /** Whether a fire drill was in progress */
+    private final boolean fireDrill;
+
+    /** Whether maintenance was in progress */
+    private final boolean maintenance;
+
+    /** State of the room, as evaluated by Room.evaluateRoomState() */
+    private final RoomState state;
+
+    /**
+     * Current reading of each sensor, indexed by the ordinal of its
+     * SensorType; -1 if the room had no sensor of that type.
+     */
+    private final int[] readings;
+
+    /**
+     * Creates a snapshot of the given room's current attributes, state and
+     * readings.
+     *
+     * @param room room to take a snapshot of
+     * @param readings current reading of each sensor type, -1 if absent
+     */
+    RoomSnapshot(Room room, int[] readings) {
+        this.roomNumber = room.getRoomNumber();
+        this.type = room.getType();
+        this.area = room.getArea();
+        this.fireDrill = room.fireDrillOngoing();
+        this.maintenance = room.maintenanceOngoing();
+        this.state = room.evaluateRoomState();
+        this.readings = readings;
+    }
+
+    /**
+     * Returns the room number of the room.
+     *
+     * @return the room number on the floor
+     */
+    public int getRoomNumber() {
+        return roomNumber;
+    }
+
+    /**
+     * Returns the type of the room.
+     *
+     * @return the room type
+     */
+    public RoomType getType() {
+        return type;
+    }
+
+    /**
+     * Returns the area of the room.
+     *
+     * @return the room area in square metres
+     */
+    public double getArea() {
+        return area;
+    }
+
+    /**
+     * Returns whether a fire drill was in progress.
+     *
+     * @return status of fire drill
+     */
+    public boolean fireDrillOngoing() {
+        return fireDrill;
+    }
+
+    /**
+     * Returns whether maintenance was in progress.
+     *
+     * @return status of maintenance
+     */
+    public boolean maintenanceOngoing() {
+        return maintenance;
+    }
+
+    /**
+     * Returns the state of the room.
+     *
+     * @return room state when the snapshot was taken
+     */
+    public RoomState getState() {
+        return state;
+    }
+
+    /**
+     * Returns whether the room had a sensor of the given type.
+     *
+     * @param sensorType type of sensor
+     * @return true if the room had a sensor of the type, false otherwise
+     */
+    public boolean hasSensor(SensorType sensorType) {
+        return readings[sensorType.ordinal()] >= 0;
+    }
+
+    /**
+     * Returns the current reading of the room's sensor of the given type,
+     * or -1 if the room had no sensor of that type.
+     *
+     * @param sensorType type of sensor
+     * @return current reading of the sensor; -1 if none
+     */
+    public int getReading(SensorType sensorType) {
+        return readings[sensorType.ordinal()];
+    }
+}
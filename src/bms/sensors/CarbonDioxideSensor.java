@@ -109,7 +109,18 @@ public class CarbonDioxideSensor extends TimedSensor
      */
     @Override
     public int getHazardLevel() {
-        final int currentReading = this.getCurrentReading();
+        return lookupHazardLevel();
+    }
+
+    /**
+     * Calculates the hazard level for the given CO2 reading, as described in
+     * {@link #getHazardLevel()}.
+     *
+     * @param currentReading CO2 reading in ppm
+     * @return hazard level of the given reading, 0 to 100
+     */
+    @Override
+    protected int calculateHazardLevel(int currentReading) {
         if (currentReading < 1000) {
             return 0;
         }
@@ -152,9 +163,20 @@ public class CarbonDioxideSensor extends TimedSensor
      * @return the current comfort level as an integer between 0 and 100
      */
     public int getComfortLevel() {
+        return lookupComfortLevel();
+    }
+
+    /**
+     * Calculates the comfort level for the given CO2 reading, as described
+     * in {@link #getComfortLevel()}.
+     *
+     * @param currentReading CO2 reading in ppm
+     * @return comfort level of the given reading, 0 to 100
+     */
+    @Override
+    protected int calculateComfortLevel(int currentReading) {
         final int idealValue = this.getIdealValue();
         final int variationLimit = this.getVariationLimit();
-        final int currentReading = this.getCurrentReading();
         final double absoluteDiff = Math.abs(currentReading - idealValue);
         final double result = (1.0 - absoluteDiff / variationLimit) * 100;
         return result < 0 ? 0 : (int) Math.round(result);
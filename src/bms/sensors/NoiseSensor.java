@@ -51,7 +51,18 @@ public class NoiseSensor extends TimedSensor
      * @ass1
      */
     public double calculateRelativeLoudness() {
-        return Math.pow(2, (this.getCurrentReading() - referenceDB) / 10.0);
+        return relativeLoudness(this.getCurrentReading());
+    }
+
+    /**
+     * Calculates the relative loudness of the given reading compared to a
+     * reference of 70.0 decibels, see {@link #calculateRelativeLoudness()}.
+     *
+     * @param reading noise reading in decibels
+     * @return relative loudness of the given reading to 70dB
+     */
+    private static double relativeLoudness(int reading) {
+        return Math.pow(2, (reading - referenceDB) / 10.0);
     }
 
     /**
@@ -74,7 +85,19 @@ public class NoiseSensor extends TimedSensor
      */
     @Override
     public int getHazardLevel() {
-        double relativeLoudnessMult100 = this.calculateRelativeLoudness() * 100;
+        return lookupHazardLevel();
+    }
+
+    /**
+     * Calculates the hazard level for the given noise reading, as described
+     * in {@link #getHazardLevel()}.
+     *
+     * @param currentReading noise reading in decibels
+     * @return hazard level of the given reading, 0 to 100
+     */
+    @Override
+    protected int calculateHazardLevel(int currentReading) {
+        double relativeLoudnessMult100 = relativeLoudness(currentReading) * 100;
         return (int) Math.min(Math.floor(relativeLoudnessMult100), 100);
     }
 
@@ -95,7 +118,19 @@ public class NoiseSensor extends TimedSensor
      * @return level of comfort at sensor location, 0 to 100
      */
     public int getComfortLevel() {
-        double RelativeLoudness = this.calculateRelativeLoudness();
+        return lookupComfortLevel();
+    }
+
+    /**
+     * Calculates the comfort level for the given noise reading, as described
+     * in {@link #getComfortLevel()}.
+     *
+     * @param currentReading noise reading in decibels
+     * @return comfort level of the given reading, 0 to 100
+     */
+    @Override
+    protected int calculateComfortLevel(int currentReading) {
+        double RelativeLoudness = relativeLoudness(currentReading);
         double result = (1 - RelativeLoudness) * (double) 100;
         return result < 0 ? 0 : (int) Math.floor(result);
     }
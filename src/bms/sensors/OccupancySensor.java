@@ -67,8 +67,18 @@ public class OccupancySensor extends TimedSensor
      */
     @Override
     public int getHazardLevel() {
-        final int currentReading = this.getCurrentReading();
+        return lookupHazardLevel();
+    }
 
+    /**
+     * Calculates the hazard level for the given occupancy reading, as
+     * described in {@link #getHazardLevel()}.
+     *
+     * @param currentReading number of people in the room
+     * @return hazard level of the given reading, 0 to 100
+     */
+    @Override
+    protected int calculateHazardLevel(int currentReading) {
         if (currentReading >= this.capacity) {
             return 100;
         }
@@ -96,7 +106,19 @@ public class OccupancySensor extends TimedSensor
      * @return  encoded string representation of this noise sensor
      */
     public int getComfortLevel() {
-        return 100 - this.getHazardLevel();
+        return lookupComfortLevel();
+    }
+
+    /**
+     * Calculates the comfort level for the given occupancy reading, as
+     * described in {@link #getComfortLevel()}.
+     *
+     * @param currentReading number of people in the room
+     * @return comfort level of the given reading, 0 to 100
+     */
+    @Override
+    protected int calculateComfortLevel(int currentReading) {
+        return 100 - calculateHazardLevel(currentReading);
     }
 
     /**
@@ -0,0 +1,16 @@
+package bms.sensors;
+
+/**
+ * Listener notified when the current reading of a timed sensor changes.
+ * <p>
+ * A sensor has at most one listener, normally the room the sensor is in.
+ */
+public interface ReadingListener {
+
+    /**
+     * Called after the current reading of the given sensor has changed.
+     *
+     * @param sensor sensor whose reading changed
+     */
+    void readingChanged(TimedSensor sensor);
+}
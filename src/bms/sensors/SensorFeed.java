@@ -0,0 +1,146 @@
+package bms.sensors;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded queue of live readings for a single sensor, with one producer
+ * thread pushing timestamped readings and one consumer (the timed item
+ * manager's tick) taking the latest reading.
+ * <p>
+ * The queue is a lock-free ring buffer: neither side ever blocks. If the
+ * consumer falls behind and the buffer is full, {@link #offer(long, int)}
+ * returns false and the producer decides whether to retry or drop the
+ * reading.
+ * <p>
+ * A feed is attached to a sensor with {@link TimedSensor#setFeed(SensorFeed)},
+ * after which the sensor's current reading is taken from the feed rather
+ * than from its fixed array of readings.
+ */
+public class SensorFeed {
+
+    /** Timestamps of the buffered readings, indexed by sequence & mask */
+    private final long[] timestamps;
+
+    /** Buffered readings, indexed by sequence & mask */
+    private final int[] readings;
+
+    /** Mask used to map a sequence number to a buffer index */
+    private final int mask;
+
+    /** Sequence number of the next reading to be consumed */
+    private final AtomicLong head = new AtomicLong();
+
+    /** Sequence number of the next reading to be produced */
+    private final AtomicLong tail = new AtomicLong();
+
+    /** Latest reading taken by the consumer */
+    private int latestReading;
+
+    /** Timestamp of the latest reading taken by the consumer */
+    private long latestTimestamp;
+
+    /**
+     * Creates a new empty sensor feed.
+     * <p>
+     * The capacity is rounded up to the next power of two.
+     *
+     * @param capacity maximum number of readings buffered at once
+     * @throws IllegalArgumentException if capacity &lt; 1 or &gt; 2^30
+     */
+    public SensorFeed(int capacity) throws IllegalArgumentException {
+        if (capacity < 1 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException(
+                    "Feed capacity must be between 1 and 2^30 (inclusive)");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.timestamps = new long[size];
+        this.readings = new int[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Returns the maximum number of readings buffered at once.
+     *
+     * @return capacity of this feed
+     */
+    public int getCapacity() {
+        return readings.length;
+    }
+
+    /**
+     * Returns the number of readings buffered and not yet consumed.
+     *
+     * @return number of pending readings
+     */
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    /**
+     * Pushes a reading onto the feed. Must only be called by the producer
+     * thread.
+     *
+     * @param timestamp time the reading was taken, e.g. in epoch millis
+     * @param reading the sensor reading
+     * @return true if the reading was buffered; false if the feed is full
+     * @throws IllegalArgumentException if reading is less than zero
+     */
+    public boolean offer(long timestamp, int reading)
+            throws IllegalArgumentException {
+        if (reading < 0) {
+            throw new IllegalArgumentException(
+                    "All sensor readings must be non-negative");
+        }
+        long t = tail.get();
+        if (t - head.get() > mask) {
+            return false;
+        }
+        int index = (int) (t & mask);
+        timestamps[index] = timestamp;
+        readings[index] = reading;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * Takes all pending readings from the feed, keeping only the most recent
+     * one. Must only be called by the consumer thread.
+     *
+     * @return true if there was at least one pending reading; false otherwise
+     */
+    public boolean pollLatest() {
+        long t = tail.get();
+        long h = head.get();
+        if (t == h) {
+            return false;
+        }
+        int index = (int) ((t - 1) & mask);
+        latestTimestamp = timestamps[index];
+        latestReading = readings[index];
+        head.lazySet(t);
+        return true;
+    }
+
+    /**
+     * Returns the most recent reading taken by {@link #pollLatest()}, or 0
+     * if no reading has been taken.
+     *
+     * @return latest consumed reading
+     */
+    public int getLatestReading() {
+        return latestReading;
+    }
+
+    /**
+     * Returns the timestamp of the most recent reading taken by
+     * {@link #pollLatest()}, or 0 if no reading has been taken.
+     *
+     * @return timestamp of latest consumed reading
+     */
+    public long getLatestTimestamp() {
+        return latestTimestamp;
+    }
+}
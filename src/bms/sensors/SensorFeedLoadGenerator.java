@@ -0,0 +1,88 @@
+package bms.sensors;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Load generator for sensor feeds.
+ * <p>
+ * Attaches a {@link SensorFeed} to a sensor and, for a number of seconds,
+ * pushes readings onto it from a producer thread as fast as possible while
+ * a consumer thread takes them by calling the sensor's
+ * {@link TimedSensor#elapseOneMinute()} as fast as possible. Reports the
+ * number of readings accepted by the feed per second, the number of times
+ * the feed was full, and the number of ticks which took a new reading.
+ */
+public class SensorFeedLoadGenerator {
+
+    /**
+     * Entry point of the load generator.
+     * <p>
+     * Command line arguments: [seconds] [feedCapacity]
+     *
+     * @param args command line arguments
+     * @throws InterruptedException if interrupted while waiting for threads
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int feedCapacity = args.length > 1 ? Integer.parseInt(args[1]) : 1024;
+
+        SensorFeed feed = new SensorFeed(feedCapacity);
+        TemperatureSensor sensor = new TemperatureSensor(new int[]{20});
+        sensor.setFeed(feed);
+
+        AtomicBoolean producing = new AtomicBoolean(true);
+        // Ticks which took a new reading, and all ticks, set by the consumer
+        long[] ticks = new long[2];
+        Thread consumer = new Thread(() -> {
+            long taken = 0;
+            long total = 0;
+            while (producing.get()) {
+                long timestamp = feed.getLatestTimestamp();
+                sensor.elapseOneMinute();
+                if (feed.getLatestTimestamp() != timestamp) {
+                    ++taken;
+                } else {
+                    // Nothing new; let the producer run if sharing a core
+                    Thread.yield();
+                }
+                ++total;
+            }
+            ticks[0] = taken;
+            ticks[1] = total;
+        }, "feed-consumer");
+        consumer.start();
+
+        long accepted = 0;
+        long full = 0;
+        long start = System.nanoTime();
+        long end = start + seconds * 1_000_000_000L;
+        while (true) {
+            // Only check the clock every 1024 readings
+            for (int i = 0; i < 1024; ++i) {
+                if (feed.offer(accepted + 1, (int) (accepted & 0x7F))) {
+                    ++accepted;
+                } else {
+                    ++full;
+                    Thread.yield();
+                }
+            }
+            if (System.nanoTime() >= end) {
+                break;
+            }
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        producing.set(false);
+        consumer.join();
+
+        System.out.printf("Feed capacity %d, %.2fs, %d processor(s)%n",
+                feed.getCapacity(), elapsed,
+                Runtime.getRuntime().availableProcessors());
+        System.out.printf("Accepted %d readings (%.0f readings/s), "
+                        + "feed full %d times%n",
+                accepted, accepted / elapsed, full);
+        System.out.printf("Ran %d ticks (%.0f ticks/s), %d took a new "
+                        + "reading%n",
+                ticks[1], ticks[1] / elapsed, ticks[0]);
+    }
+}
@@ -0,0 +1,78 @@
+package bms.sensors;
+
+import bms.exceptions.FileFormatException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * Replays recorded sensor readings into a sensor feed, standing in for a
+ * live gateway when running locally.
+ * <p>
+ * Each line of the recording has the format
+ *
+ *  timestamp,reading
+ *
+ * where 'timestamp' is the time the reading was taken and 'reading' is the
+ * non-negative sensor reading. The recording may come from a file or from a
+ * socket's input stream.
+ */
+public class SensorFeedReplay {
+
+    /** Source of the recorded readings */
+    private final BufferedReader reader;
+
+    /** Feed to push the readings onto */
+    private final SensorFeed feed;
+
+    /**
+     * Creates a new replay of the given recording onto the given feed.
+     *
+     * @param reader source of the recorded readings
+     * @param feed feed to push the readings onto
+     */
+    public SensorFeedReplay(BufferedReader reader, SensorFeed feed) {
+        this.reader = reader;
+        this.feed = feed;
+    }
+
+    /**
+     * Pushes every reading in the recording onto the feed, in order.
+     * <p>
+     * If the feed is full, waits for the consumer to take readings rather
+     * than dropping them. This method should be called on the feed's
+     * producer thread.
+     *
+     * @return number of readings replayed
+     * @throws IOException if an IOException is encountered when reading the
+     *          recording
+     * @throws FileFormatException if a line of the recording is invalid
+     */
+    public int replay() throws IOException, FileFormatException {
+        int count = 0;
+        String line = reader.readLine();
+        while (line != null) {
+            String[] parts = line.split(",");
+            if (parts.length != 2) {
+                throw new FileFormatException();
+            }
+            long timestamp;
+            int reading;
+            try {
+                timestamp = Long.parseLong(parts[0].trim());
+                reading = Integer.parseInt(parts[1].trim());
+            } catch (NumberFormatException e) {
+                throw new FileFormatException();
+            }
+            if (reading < 0) {
+                throw new FileFormatException();
+            }
+            while (!feed.offer(timestamp, reading)) {
+                Thread.yield();
+            }
+            count++;
+            line = reader.readLine();
+        }
+        return count;
+    }
+}
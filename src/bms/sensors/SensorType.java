@@ -0,0 +1,73 @@
+package bms.sensors;
+
+/**
+ * Enum to represent the concrete types of sensor.
+ * <p>
+ * Types are declared in alphabetical order of the simple class name of
+ * their sensor, which is the order sensors are kept in a room.
+ */
+public enum SensorType {
+    CARBON_DIOXIDE("CarbonDioxideSensor"),
+    NOISE("NoiseSensor"),
+    OCCUPANCY("OccupancySensor"),
+    TEMPERATURE("TemperatureSensor");
+
+    /**
+     * Simple class name of sensors of this type.
+     */
+    private final String simpleName;
+
+    SensorType(String simpleName) {
+        this.simpleName = simpleName;
+    }
+
+    /**
+     * Returns the simple class name of sensors of this type, e.g.
+     * "NoiseSensor".
+     *
+     * @return simple class name of this sensor type
+     */
+    public String getSimpleName() {
+        return simpleName;
+    }
+
+    /**
+     * Returns the type of the given sensor, or null if the sensor is not one
+     * of the concrete sensor types.
+     *
+     * @param sensor sensor to get the type of
+     * @return type of the sensor; null if not a concrete sensor type
+     */
+    public static SensorType of(Sensor sensor) {
+        if (sensor instanceof CarbonDioxideSensor) {
+            return CARBON_DIOXIDE;
+        } else if (sensor instanceof NoiseSensor) {
+            return NOISE;
+        } else if (sensor instanceof OccupancySensor) {
+            return OCCUPANCY;
+        } else if (sensor instanceof TemperatureSensor) {
+            return TEMPERATURE;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the type whose sensors have the given simple class name, or
+     * null if there is no such type.
+     *
+     * @param simpleName simple class name of a sensor, e.g. "NoiseSensor"
+     * @return sensor type with the given simple name; null if none found
+     */
+    public static SensorType fromSimpleName(String simpleName) {
+        if (simpleName == null) {
+            return null;
+        }
+        return switch (simpleName) {
+            case "CarbonDioxideSensor" -> CARBON_DIOXIDE;
+            case "NoiseSensor" -> NOISE;
+            case "OccupancySensor" -> OCCUPANCY;
+            case "TemperatureSensor" -> TEMPERATURE;
+            default -> null;
+        };
+    }
+}
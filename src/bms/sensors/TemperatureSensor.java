@@ -36,7 +36,19 @@ public class TemperatureSensor extends TimedSensor
      */
     @Override
     public int getHazardLevel() {
-        if (this.getCurrentReading() >= 68) {
+        return lookupHazardLevel();
+    }
+
+    /**
+     * Calculates the hazard level for the given temperature reading, as
+     * described in {@link #getHazardLevel()}.
+     *
+     * @param currentReading temperature reading in degrees Celsius
+     * @return hazard level of the given reading, 0 or 100
+     */
+    @Override
+    protected int calculateHazardLevel(int currentReading) {
+        if (currentReading >= 68) {
             return 100;
         }
         return 0;
@@ -63,7 +75,18 @@ public class TemperatureSensor extends TimedSensor
      * @return  sensor's current comfort level, 0 to 100
      */
     public int getComfortLevel() {
-        final int currentReading = this.getCurrentReading();
+        return lookupComfortLevel();
+    }
+
+    /**
+     * Calculates the comfort level for the given temperature reading, as
+     * described in {@link #getComfortLevel()}.
+     *
+     * @param currentReading temperature reading in degrees Celsius
+     * @return comfort level of the given reading, 0 to 100
+     */
+    @Override
+    protected int calculateComfortLevel(int currentReading) {
         if (currentReading >= 20 && currentReading <= 26) {
             return 100;
         } else if (currentReading < 20) {
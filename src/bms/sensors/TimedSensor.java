@@ -15,9 +15,10 @@ public abstract class TimedSensor implements TimedItem, Sensor, Encodable {
     /**
      * Data array representing the readings observed by the sensor.
      * <p>
-     * Readings taken one minute apart.
+     * Readings taken one minute apart. A copy of the array given to the
+     * constructor, so the readings never change.
      */
-    private int[] sensorReadings;
+    private final int[] sensorReadings;
 
     /**
      * The current sensor reading observed by the sensor.
@@ -36,6 +37,38 @@ public abstract class TimedSensor implements TimedItem, Sensor, Encodable {
      */
     private int updateFrequency;
 
+    /**
+     * The index of the current sensor reading within the readings array.
+     */
+    private int currentIndex;
+
+    /**
+     * Precomputed hazard level of each reading, or null if the levels have
+     * not been precomputed.
+     */
+    private byte[] hazardLevels;
+
+    /**
+     * Precomputed comfort level of each reading, or null if the levels have
+     * not been precomputed.
+     */
+    private byte[] comfortLevels;
+
+    /**
+     * Live feed of readings, or null if readings are taken from the
+     * sensor readings array.
+     * <p>
+     * Volatile because a feed may be attached or detached on another thread
+     * than the one running the tick, eg. by {@link bms.ingestion.SensorIndex}.
+     */
+    private volatile SensorFeed feed;
+
+    /**
+     * Listener notified when the current reading changes, or null if there
+     * is none.
+     */
+    private ReadingListener readingListener;
+
     /**
      * Creates a new timed sensor, using the provided list of sensor readings.
      * These represent "raw" data values, and have different meanings depending
@@ -44,7 +77,8 @@ public abstract class TimedSensor implements TimedItem, Sensor, Encodable {
      * The provided update frequency must be greater than or equal to one (1),
      * and less than or equal to five (5). The provided sensor readings array
      * must not be null, and must have at least one element. All sensor readings
-     * must be non-negative.
+     * must be non-negative. The array is copied, so changing it afterwards
+     * does not affect the sensor.
      * <p>
      * The new timed sensor should be configured such that the first call
      * to {@link TimedSensor#getCurrentReading()} after calling the
@@ -71,14 +105,16 @@ public abstract class TimedSensor implements TimedItem, Sensor, Encodable {
             throw new IllegalArgumentException("Sensor readings array must "
                     + "not be null and must have at least one element");
         }
-        for (int reading : sensorReadings) {
+        int[] readings = sensorReadings.clone();
+        for (int reading : readings) {
             if (reading < 0) {
                 throw new IllegalArgumentException(
                         "All sensor readings must be non-negative");
             }
         }
-        this.sensorReadings = sensorReadings;
-        this.currentReading = sensorReadings[0];
+        this.sensorReadings = readings;
+        this.currentReading = readings[0];
+        this.currentIndex = 0;
         this.updateFrequency = updateFrequency;
         this.timeElapsed = 0;
         TimedItemManager.getInstance().registerTimedItem(this);
@@ -117,6 +153,61 @@ public abstract class TimedSensor implements TimedItem, Sensor, Encodable {
         return updateFrequency;
     }
 
+    /**
+     * Returns the live feed of readings attached to this sensor, or null if
+     * readings are taken from the sensor readings array.
+     *
+     * @return attached feed of readings
+     */
+    public SensorFeed getFeed() {
+        return feed;
+    }
+
+    /**
+     * Attaches a live feed of readings to this sensor, or detaches the
+     * current feed if the given feed is null.
+     * <p>
+     * While a feed is attached, each call to {@link #elapseOneMinute()}
+     * takes the latest reading pushed onto the feed, keeping the current
+     * reading if nothing new has arrived. The sensor readings array is
+     * still used when encoding the sensor. When the feed is detached, the
+     * current reading reverts to the array reading for the current time.
+     *
+     * @param feed feed of readings to attach; null to detach
+     */
+    public void setFeed(SensorFeed feed) {
+        this.feed = feed;
+        if (feed == null) {
+            // The index is not advanced while a feed is attached
+            this.currentIndex = calculateIndex();
+            setCurrentReading(this.sensorReadings[this.currentIndex]);
+        }
+    }
+
+    /**
+     * Sets the listener to be notified when this sensor's current reading
+     * changes, replacing any existing listener.
+     *
+     * @param listener listener to notify of new readings; null for none
+     */
+    public void setReadingListener(ReadingListener listener) {
+        this.readingListener = listener;
+    }
+
+    /**
+     * Updates the current reading, notifying the listener if it changed.
+     *
+     * @param reading new current reading
+     */
+    private void setCurrentReading(int reading) {
+        if (this.currentReading != reading) {
+            this.currentReading = reading;
+            if (this.readingListener != null) {
+                this.readingListener.readingChanged(this);
+            }
+        }
+    }
+
     /**
      * Increments the time elapsed (in minutes) by one.
      * <p>
@@ -132,6 +223,25 @@ public abstract class TimedSensor implements TimedItem, Sensor, Encodable {
     public void elapseOneMinute() {
         this.timeElapsed++;
 
+        SensorFeed feed = this.feed;
+        if (feed != null) {
+            if (feed.pollLatest()) {
+                setCurrentReading(feed.getLatestReading());
+            }
+            return;
+        }
+
+        this.currentIndex = calculateIndex();
+        setCurrentReading(this.sensorReadings[this.currentIndex]);
+    }
+
+    /**
+     * Calculates the index within the sensor readings array of the reading
+     * for the current time elapsed.
+     *
+     * @return index of the array reading for the current time
+     */
+    private int calculateIndex() {
         // calculate the time taken before wrapping around to the starting value
         // again
         int rotationDuration = this.sensorReadings.length
@@ -142,11 +252,146 @@ public abstract class TimedSensor implements TimedItem, Sensor, Encodable {
 
         // index is time remaining in the current rotation divided by the update
         // frequency
-        int index = timeRemainingInRotation / this.updateFrequency;
+        return timeRemainingInRotation / this.updateFrequency;
+    }
+
+    /**
+     * Returns the reading this sensor will report the given number of
+     * minutes from now, following its cycle of sensor readings.
+     * <p>
+     * A sensor with a live feed attached cannot be forecast, so its current
+     * reading is returned instead.
+     *
+     * @param minutesAhead number of minutes from now; 0 for the current
+     *                     reading
+     * @return forecast reading
+     * @throws IllegalArgumentException if minutesAhead &lt; 0
+     */
+    public int forecastReading(int minutesAhead)
+            throws IllegalArgumentException {
+        if (minutesAhead < 0) {
+            throw new IllegalArgumentException(
+                    "Cannot forecast a reading in the past");
+        }
+        if (this.feed != null || minutesAhead == 0) {
+            return this.currentReading;
+        }
+        int rotationDuration = this.sensorReadings.length
+                * this.updateFrequency;
+        long time = (long) this.timeElapsed + minutesAhead;
+        return this.sensorReadings[
+                (int) (time % rotationDuration) / this.updateFrequency];
+    }
+
+    /**
+     * Returns the hazard level this sensor will report the given number of
+     * minutes from now, ie. the hazard level of
+     * {@link #forecastReading(int)}.
+     *
+     * @param minutesAhead number of minutes from now; 0 for the current
+     *                     hazard level
+     * @return forecast hazard level
+     * @throws IllegalArgumentException if minutesAhead &lt; 0
+     */
+    public int forecastHazardLevel(int minutesAhead)
+            throws IllegalArgumentException {
+        return calculateHazardLevel(forecastReading(minutesAhead));
+    }
+
+    /**
+     * Returns the number of minutes after which this sensor's readings
+     * repeat, ie. the number of sensor readings multiplied by the update
+     * frequency.
+     *
+     * @return length of the cycle of readings in minutes
+     */
+    public int getCycleLength() {
+        return this.sensorReadings.length * this.updateFrequency;
+    }
+
+    /**
+     * Precomputes the hazard and comfort level of every reading in this
+     * sensor's readings array.
+     * <p>
+     * Sensor readings never change after construction, so once the levels
+     * are precomputed, {@link #lookupHazardLevel()} and
+     * {@link #lookupComfortLevel()} become a single array load on the
+     * current reading index. Calling this method more than once has no
+     * further effect.
+     * <p>
+     * This should be called once the concrete sensor has been fully
+     * constructed, as the levels depend on its attributes, so it cannot be
+     * called by this class's constructor. Rooms call it for every timed
+     * sensor added to them, see {@link bms.room.Room#addSensor(Sensor)}.
+     */
+    public void precomputeLevels() {
+        if (this.hazardLevels != null) {
+            return;
+        }
+        byte[] hazard = new byte[this.sensorReadings.length];
+        byte[] comfort = new byte[this.sensorReadings.length];
+        for (int i = 0; i < this.sensorReadings.length; ++i) {
+            hazard[i] = (byte) calculateHazardLevel(this.sensorReadings[i]);
+            comfort[i] = (byte) calculateComfortLevel(this.sensorReadings[i]);
+        }
+        this.comfortLevels = comfort;
+        this.hazardLevels = hazard;
+    }
 
-        this.currentReading = this.sensorReadings[index];
+    /**
+     * Returns whether the hazard and comfort levels of this sensor have been
+     * precomputed, see {@link #precomputeLevels()}.
+     *
+     * @return true if levels are precomputed, false otherwise
+     */
+    public boolean isPrecomputed() {
+        return this.hazardLevels != null;
     }
 
+    /**
+     * Returns the hazard level of the current reading, using the
+     * precomputed table if one exists and no live feed is attached.
+     *
+     * @return hazard level of the current reading, 0 to 100
+     */
+    protected int lookupHazardLevel() {
+        if (this.hazardLevels != null && this.feed == null) {
+            return this.hazardLevels[this.currentIndex];
+        }
+        return calculateHazardLevel(this.currentReading);
+    }
+
+    /**
+     * Returns the comfort level of the current reading, using the
+     * precomputed table if one exists and no live feed is attached.
+     *
+     * @return comfort level of the current reading, 0 to 100
+     */
+    protected int lookupComfortLevel() {
+        if (this.comfortLevels != null && this.feed == null) {
+            return this.comfortLevels[this.currentIndex];
+        }
+        return calculateComfortLevel(this.currentReading);
+    }
+
+    /**
+     * Calculates the hazard level that this sensor would report for the
+     * given reading.
+     *
+     * @param reading sensor reading to evaluate
+     * @return hazard level of the given reading, 0 to 100
+     */
+    protected abstract int calculateHazardLevel(int reading);
+
+    /**
+     * Calculates the comfort level that this sensor would report for the
+     * given reading.
+     *
+     * @param reading sensor reading to evaluate
+     * @return comfort level of the given reading, 0 to 100
+     */
+    protected abstract int calculateComfortLevel(int reading);
+
     /**
      * Returns true if and only if this timed sensor is equal to the other given sensor.
      * For two timed sensors to be equal, they must:
@@ -0,0 +1,254 @@
+package bms.util;
+
+import bms.building.Building;
+import bms.floor.Floor;
+import bms.room.Room;
+import bms.room.RoomChange;
+import bms.room.RoomState;
+import bms.room.RoomType;
+import bms.sensors.ComfortSensor;
+import bms.sensors.Sensor;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of the comfort levels of the study rooms in a building, used to
+ * recommend a study room, see
+ * {@link StudyRoomRecommender#recommendStudyRoom(Building)}.
+ * <p>
+ * The comfort level of each study room is cached, as is the most
+ * comfortable open study room on each floor. The index listens to the
+ * building, and only forgets a cached value when a study room changes: a
+ * sensor reading changes on a tick, a sensor is added, or the room's state
+ * changes. Recommending a room then only looks at the cached best room of
+ * each floor, and only floors with a changed study room are looked at
+ * again.
+ * <p>
+ * The recommendation itself is memoised against the building's version,
+ * see {@link Building#getVersion()}, so repeated recommendations between
+ * changes to the building, eg. within the same minute, return the same
+ * room without looking at any floor.
+ * <p>
+ * Comfort levels are only refreshed when a timed sensor's reading changes,
+ * so sensors which are not timed sensors must not change their comfort
+ * level once added to a room.
+ * <p>
+ * The index is thread-safe: changes reported by the building and lookups
+ * are synchronized on the index, as lookups also fill its caches.
+ */
+public class ComfortIndex {
+
+    /** Initial number of floors the index has space for */
+    private static final int INITIAL_FLOORS = 8;
+
+    /** Building whose study rooms are indexed */
+    private final Building building;
+
+    /** Cached comfort level of study rooms */
+    private final Map<Room, Integer> comfortLevels = new IdentityHashMap<>();
+
+    /**
+     * Most comfortable open study room on each floor, indexed by floor
+     * number - 1; null if the floor has none with a comfort level above 0.
+     */
+    private Room[] bestRooms = new Room[INITIAL_FLOORS];
+
+    /** Comfort level of the best room on each floor */
+    private int[] bestComfortLevels = new int[INITIAL_FLOORS];
+
+    /** Whether the best room on each floor is up to date */
+    private boolean[] floorValid = new boolean[INITIAL_FLOORS];
+
+    /** Number of rooms of any type in the building */
+    private int roomCount;
+
+    /** Last recommendation made, or null if none has been made yet */
+    private volatile Recommendation recommendation;
+
+    /**
+     * Creates a comfort index of the study rooms in the given building.
+     * <p>
+     * The index registers itself as a listener of the building, see
+     * {@link Building#addFloorListener(bms.floor.FloorListener)}. Use
+     * {@link Building#getComfortIndex()} rather than creating a second index
+     * for the same building.
+     *
+     * @param building building whose study rooms to index
+     */
+    public ComfortIndex(Building building) {
+        this.building = building;
+        for (Floor floor : building.getFloorsView()) {
+            roomCount += floor.getRoomsView().size();
+        }
+        building.addFloorListener(this::floorChanged);
+    }
+
+    /**
+     * Called when a floor or room in the building changes.
+     */
+    private synchronized void floorChanged(Floor floor, Room room,
+                                           RoomChange change) {
+        if (change == RoomChange.ADDED) {
+            roomCount += room == null ? floor.getRoomsView().size() : 1;
+        }
+        if (room != null) {
+            if (room.getType() != RoomType.STUDY) {
+                return;
+            }
+            if (change != RoomChange.FIRE_DRILL
+                    && change != RoomChange.MAINTENANCE
+                    && change != RoomChange.FIRE_ALARM
+                    && change != RoomChange.HAZARD_EVALUATOR) {
+                comfortLevels.remove(room);
+            }
+        }
+        int index = floor.getFloorNumber() - 1;
+        if (index < floorValid.length) {
+            floorValid[index] = false;
+        }
+    }
+
+    /**
+     * Returns the comfort level of the given room: the average comfort
+     * level of its sensors, or 0 if it has no sensors.
+     * <p>
+     * The comfort levels of study rooms in the building are cached until
+     * the room's sensors next change reading.
+     *
+     * @param room room to get the comfort level of
+     * @return comfort level of the room; 0 if the room is null
+     */
+    public synchronized int getComfortLevel(Room room) {
+        if (room == null) {
+            return 0;
+        }
+        if (room.getType() != RoomType.STUDY) {
+            return calculateComfortLevel(room);
+        }
+        Integer comfort = comfortLevels.get(room);
+        if (comfort == null) {
+            comfort = calculateComfortLevel(room);
+            comfortLevels.put(room, comfort);
+        }
+        return comfort;
+    }
+
+    /**
+     * Returns the most suitable study room in the building, as described
+     * in {@link StudyRoomRecommender#recommendStudyRoom(Building)}.
+     *
+     * @return the most suitable study room in the building; null if there
+     * are none
+     */
+    public Room recommendStudyRoom() {
+        // Read the version first, so a change made while recommending
+        // leaves the memo out of date rather than wrongly up to date
+        long version = building.getVersion();
+        Recommendation last = recommendation;
+        if (last != null && last.version == version) {
+            return last.room;
+        }
+        Room room;
+        synchronized (this) {
+            room = findStudyRoom();
+        }
+        recommendation = new Recommendation(version, room);
+        return room;
+    }
+
+    /**
+     * Finds the most suitable study room in the building from the cached
+     * best room of each floor.
+     */
+    private Room findStudyRoom() {
+        if (roomCount == 0) {
+            return null;
+        }
+        List<Floor> floors = building.getFloorsView();
+        Room candidate = null;
+        int candidateComfort = 0;
+        for (int i = 0; i < floors.size(); ++i) {
+            Room best = getBestRoom(i, floors.get(i));
+            // Stop climbing once a floor offers no improvement
+            if (best == null || (candidate != null
+                    && candidateComfort >= bestComfortLevels[i])) {
+                return candidate;
+            }
+            candidate = best;
+            candidateComfort = bestComfortLevels[i];
+        }
+        return candidate;
+    }
+
+    /**
+     * Returns the first open study room on the given floor with the highest
+     * comfort level above 0, or null if there is none, refreshing the
+     * cached best room if the floor has changed.
+     *
+     * @param index floor number - 1 of the floor
+     * @param floor floor to find the best room on
+     * @return best room on the floor; null if none
+     */
+    private Room getBestRoom(int index, Floor floor) {
+        if (index >= floorValid.length) {
+            int length = Math.max(index + 1, 2 * floorValid.length);
+            bestRooms = Arrays.copyOf(bestRooms, length);
+            bestComfortLevels = Arrays.copyOf(bestComfortLevels, length);
+            floorValid = Arrays.copyOf(floorValid, length);
+        }
+        if (!floorValid[index]) {
+            Room best = null;
+            int bestComfort = 0;
+            for (Room room : floor.getRoomsView()) {
+                if (room.getType() == RoomType.STUDY
+                        && room.evaluateRoomState() == RoomState.OPEN) {
+                    int comfort = getComfortLevel(room);
+                    if (comfort > bestComfort) {
+                        best = room;
+                        bestComfort = comfort;
+                    }
+                }
+            }
+            bestRooms[index] = best;
+            bestComfortLevels[index] = bestComfort;
+            floorValid[index] = true;
+        }
+        return bestRooms[index];
+    }
+
+    /**
+     * Calculates the average comfort level of the given room's sensors.
+     */
+    private static int calculateComfortLevel(Room room) {
+        List<Sensor> sensors = room.getSensorsView();
+        if (sensors.isEmpty()) {
+            return 0;
+        }
+        int totalComfort = 0;
+        for (Sensor sensor : sensors) {
+            totalComfort += ((ComfortSensor) sensor).getComfortLevel();
+        }
+        return totalComfort / sensors.size();
+    }
+
+    /**
+     * A recommended room, and the version of the building it was
+     * recommended for.
+     */
+    private static final class Recommendation {
+
+        /** Version of the building when the room was recommended */
+        private final long version;
+
+        /** Recommended room; null if none */
+        private final Room room;
+
+        private Recommendation(long version, Room room) {
+            this.version = version;
+            this.room = room;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package bms.util;
+
+import bms.building.Building;
+import bms.exceptions.DuplicateFloorException;
+import bms.exceptions.DuplicateRoomException;
+import bms.exceptions.DuplicateSensorException;
+import bms.exceptions.FloorTooSmallException;
+import bms.exceptions.InsufficientSpaceException;
+import bms.exceptions.NoFloorBelowException;
+import bms.floor.Floor;
+import bms.room.Room;
+import bms.room.RoomType;
+import bms.sensors.NoiseSensor;
+import bms.sensors.TemperatureSensor;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Load generator for campus study room recommendations.
+ * <p>
+ * Builds a number of random buildings and, for campuses of a doubling
+ * number of those buildings, times recommendations made on one thread and
+ * in parallel, see {@link StudyRoomRecommender#recommendStudyRoom(
+ * bms.building.Campus)}. Each recommendation is made straight after a
+ * tick, so most floors have to be looked at again. Reports the median and
+ * 99th percentile latency of each, which shows the campus size at which
+ * evaluating in parallel starts to pay off on this machine.
+ */
+public class StudyRoomLoadGenerator {
+
+    /** Number of floors in each building */
+    private static final int FLOORS = 5;
+
+    /** Number of rooms on each floor */
+    private static final int ROOMS_PER_FLOOR = 20;
+
+    /**
+     * Entry point of the load generator.
+     * <p>
+     * Command line arguments: [buildings] [rounds]
+     *
+     * @param args command line arguments
+     * @throws Exception if a random building cannot be built
+     */
+    public static void main(String[] args) throws Exception {
+        int buildingCount = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        Random random = new Random(43);
+        Building[] buildings = new Building[buildingCount];
+        for (int b = 0; b < buildingCount; ++b) {
+            buildings[b] = randomBuilding("Building " + b, random);
+        }
+
+        System.out.printf("%d processor(s), common pool parallelism %d, "
+                        + "%d rooms per building%n",
+                Runtime.getRuntime().availableProcessors(),
+                ForkJoinPool.getCommonPoolParallelism(),
+                FLOORS * ROOMS_PER_FLOOR);
+        System.out.printf("%9s %14s %14s %14s %14s%n", "buildings",
+                "serial p50 us", "serial p99 us",
+                "parallel p50 us", "parallel p99 us");
+        for (int size = 1; ; size = Math.min(2 * size, buildingCount)) {
+            List<Building> campus = Arrays.asList(buildings).subList(0, size);
+            // Warm up both paths before timing them
+            time(campus, false, rounds);
+            time(campus, true, rounds);
+            long[] serial = time(campus, false, rounds);
+            long[] parallel = time(campus, true, rounds);
+            System.out.printf("%9d %14.1f %14.1f %14.1f %14.1f%n", size,
+                    percentile(serial, 50) / 1e3,
+                    percentile(serial, 99) / 1e3,
+                    percentile(parallel, 50) / 1e3,
+                    percentile(parallel, 99) / 1e3);
+            if (size == buildingCount) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Returns the nanoseconds taken by each of the given number of
+     * recommendations, each made straight after a tick.
+     */
+    private static long[] time(List<Building> campus, boolean parallel,
+                               int rounds) {
+        long[] latencies = new long[rounds];
+        for (int i = 0; i < rounds; ++i) {
+            TimedItemManager.getInstance().elapseOneMinute();
+            long start = System.nanoTime();
+            StudyRoomRecommender.recommendStudyRoom(campus, parallel);
+            latencies[i] = System.nanoTime() - start;
+        }
+        return latencies;
+    }
+
+    /**
+     * Returns the given percentile of the given latencies.
+     */
+    private static long percentile(long[] latencies, int percentile) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        return sorted[Math.min(sorted.length - 1,
+                sorted.length * percentile / 100)];
+    }
+
+    /**
+     * Returns a building of study rooms with random sensor readings.
+     */
+    private static Building randomBuilding(String name, Random random)
+            throws DuplicateFloorException, NoFloorBelowException,
+            FloorTooSmallException, DuplicateRoomException,
+            InsufficientSpaceException, DuplicateSensorException {
+        Building building = new Building(name);
+        for (int f = 1; f <= FLOORS; ++f) {
+            Floor floor = new Floor(f, 20, 20);
+            building.addFloor(floor);
+            for (int r = 0; r < ROOMS_PER_FLOOR; ++r) {
+                Room room = new Room(f * 100 + r, RoomType.STUDY, 10);
+                room.addSensor(new TemperatureSensor(
+                        randomReadings(random, 15, 32)));
+                if (random.nextBoolean()) {
+                    room.addSensor(new NoiseSensor(
+                            randomReadings(random, 30, 80), 1));
+                }
+                floor.addRoom(room);
+            }
+        }
+        return building;
+    }
+
+    /**
+     * Returns between 2 and 10 random readings in the given range.
+     */
+    private static int[] randomReadings(Random random, int low, int high) {
+        int[] readings = new int[2 + random.nextInt(9)];
+        for (int i = 0; i < readings.length; ++i) {
+            readings[i] = low + random.nextInt(high - low + 1);
+        }
+        return readings;
+    }
+}
@@ -0,0 +1,160 @@
+package bms.util;
+
+import bms.room.Room;
+import bms.room.RoomState;
+import bms.room.RoomType;
+import bms.sensors.OccupancySensor;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Query for the most comfortable open study rooms in one or more buildings,
+ * see {@link StudyRoomRecommender#recommendStudyRooms(java.util.List,
+ * StudyRoomQuery)}.
+ * <p>
+ * A query asks for up to a given number of rooms, and may restrict the
+ * rooms considered by minimum area, maximum occupancy ratio and floor
+ * number. It may also prefer some floors, in which case rooms on those
+ * floors are ranked ahead of rooms on other floors. By default no
+ * restriction or preference is applied.
+ */
+public class StudyRoomQuery {
+
+    /** Maximum number of rooms to return */
+    private final int limit;
+
+    /** Minimum area of a room, in square metres */
+    private double minArea;
+
+    /** Maximum ratio of occupancy to capacity of a room */
+    private double maxOccupancyRatio;
+
+    /** Floor numbers to consider, or null to consider all floors */
+    private Set<Integer> floors;
+
+    /** Floor numbers to rank first, or null to prefer no floors */
+    private Set<Integer> preferredFloors;
+
+    /**
+     * Creates a new query for up to the given number of rooms, with no
+     * restrictions.
+     *
+     * @param limit maximum number of rooms to return
+     * @throws IllegalArgumentException if limit &lt; 1
+     */
+    public StudyRoomQuery(int limit) throws IllegalArgumentException {
+        if (limit < 1) {
+            throw new IllegalArgumentException(
+                    "Limit must be at least 1");
+        }
+        this.limit = limit;
+        this.minArea = 0;
+        this.maxOccupancyRatio = Double.POSITIVE_INFINITY;
+        this.floors = null;
+        this.preferredFloors = null;
+    }
+
+    /**
+     * Returns the maximum number of rooms to return.
+     *
+     * @return query limit
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Sets the minimum area of the rooms to consider.
+     *
+     * @param minArea minimum area in square metres
+     */
+    public void setMinArea(double minArea) {
+        this.minArea = minArea;
+    }
+
+    /**
+     * Sets the maximum ratio of current occupancy to capacity of the rooms
+     * to consider, as reported by each room's occupancy sensor. Rooms
+     * without an occupancy sensor are always considered.
+     *
+     * @param maxOccupancyRatio maximum occupancy ratio, eg. 0.5 for rooms
+     *                          at most half full
+     */
+    public void setMaxOccupancyRatio(double maxOccupancyRatio) {
+        this.maxOccupancyRatio = maxOccupancyRatio;
+    }
+
+    /**
+     * Restricts the rooms considered to those on the given floors. Rooms on
+     * other floors are never returned.
+     *
+     * @param floorNumbers floor numbers to consider; null to consider all
+     *                     floors
+     */
+    public void restrictToFloors(Set<Integer> floorNumbers) {
+        this.floors = copyOf(floorNumbers);
+    }
+
+    /**
+     * Prefers rooms on the given floors. Rooms on preferred floors are
+     * ranked ahead of all rooms on other floors, which are only returned
+     * if there are fewer preferred rooms than the limit.
+     *
+     * @param floorNumbers floor numbers to prefer; null to prefer no floors
+     */
+    public void setPreferredFloors(Set<Integer> floorNumbers) {
+        this.preferredFloors = copyOf(floorNumbers);
+    }
+
+    /**
+     * Returns whether rooms on the floor with the given number are
+     * considered.
+     *
+     * @param floorNumber floor number
+     * @return true if the floor is considered, false otherwise
+     */
+    public boolean considersFloor(int floorNumber) {
+        return floors == null || floors.contains(floorNumber);
+    }
+
+    /**
+     * Returns whether rooms on the floor with the given number are ranked
+     * ahead of rooms on floors which are not preferred.
+     *
+     * @param floorNumber floor number
+     * @return true if the floor is preferred, false otherwise
+     */
+    public boolean prefersFloor(int floorNumber) {
+        return preferredFloors != null
+                && preferredFloors.contains(floorNumber);
+    }
+
+    /**
+     * Returns whether the given room is an open study room which meets the
+     * query's area and occupancy restrictions.
+     *
+     * @param room room to check
+     * @return true if the room is considered, false otherwise
+     */
+    public boolean considersRoom(Room room) {
+        if (room.getType() != RoomType.STUDY || room.getArea() < minArea
+                || room.evaluateRoomState() != RoomState.OPEN) {
+            return false;
+        }
+        OccupancySensor sensor = room.getOccupancySensor();
+        return sensor == null || sensor.getCurrentReading()
+                <= maxOccupancyRatio * sensor.getCapacity();
+    }
+
+    /**
+     * Returns an unmodifiable copy of the given floor numbers, or null if
+     * none are given.
+     */
+    private static Set<Integer> copyOf(Set<Integer> floorNumbers) {
+        return floorNumbers == null
+                ? null : Collections.unmodifiableSet(
+                        new HashSet<>(floorNumbers));
+    }
+}
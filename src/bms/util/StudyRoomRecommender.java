@@ -1,14 +1,18 @@
 package bms.util;
 
 import bms.building.Building;
+import bms.building.Campus;
 import bms.floor.Floor;
 import bms.room.Room;
-import bms.room.RoomState;
-import bms.room.RoomType;
-import bms.sensors.ComfortSensor;
-import bms.sensors.Sensor;
-import java.util.HashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 /**
  * Utility class that provides a recommendation for a study room
@@ -16,6 +20,16 @@ import java.util.List;
  */
 public class StudyRoomRecommender {
 
+    /**
+     * Smallest number of buildings for which a campus is evaluated in
+     * parallel. Smaller campuses are faster to evaluate on one thread.
+     */
+    private static final int PARALLEL_THRESHOLD = 16;
+
+    /** Scratch space of the campus recommendations made by each thread */
+    private static final ThreadLocal<CampusScratch> CAMPUS_SCRATCH =
+            ThreadLocal.withInitial(CampusScratch::new);
+
     /**
      * Returns a room in the given building that is most suitable for study
      * purposes.
@@ -71,85 +85,194 @@ public class StudyRoomRecommender {
      * @return the most suitable study room in the building; null if there are none
      */
     public static Room recommendStudyRoom(Building building) {
+        // The building's comfort index caches each study room's comfort
+        // level and the best room on each floor between changes
+        return building.getComfortIndex().recommendStudyRoom();
+    }
 
-        int numberOfRooms = 0;
-        for (Floor floor : building.getFloors()) {
-            numberOfRooms += floor.getRooms().size();
-        }
-        if (numberOfRooms == 0 )
-            return null;
-
-        if (building.getFloorByNumber(1) == null)
-            return null;
-
-        int currentFloorNumber = 0;
-        Floor currentFloor;
-        Floor previousFloor;
-
-        HashMap<Integer, Room> candidateRooms = new HashMap<>();
+    /**
+     * Returns the most suitable study room on the given campus.
+     * <p>
+     * Each building's most suitable study room is found as described in
+     * {@link #recommendStudyRoom(Building)}, and the most comfortable of
+     * these is returned. If two buildings' rooms are equally comfortable,
+     * the room in the building added to the campus first is returned.
+     * <p>
+     * Large campuses are evaluated in parallel, one building per task, if
+     * more than one thread is available to run the tasks. Each building is
+     * only ever evaluated by one task, so the buildings' comfort indices are
+     * not shared between threads. Each task writes its building's room and
+     * comfort level into scratch arrays owned by the calling thread, which
+     * are reused by that thread's later recommendations. The campus must
+     * not be changed, and the tick must not run, while a recommendation is
+     * being made.
+     * <p>
+     * See {@link StudyRoomLoadGenerator} for the latency of campuses of
+     * different sizes.
+     *
+     * @param campus campus in which to search for a study room
+     * @return the most suitable study room on the campus; null if there are
+     * none
+     */
+    public static Room recommendStudyRoom(Campus campus) {
+        List<Building> buildings = campus.getBuildings();
+        return recommendStudyRoom(buildings,
+                buildings.size() >= PARALLEL_THRESHOLD
+                        && ForkJoinPool.getCommonPoolParallelism() > 1);
+    }
 
-        while (currentFloorNumber < building.getFloors().size()) {
+    /**
+     * Returns the most suitable study room in the given buildings, as
+     * described in {@link #recommendStudyRoom(Campus)}.
+     *
+     * @param buildings buildings in which to search for a study room
+     * @param parallel  whether to evaluate the buildings in parallel
+     * @return the most suitable study room in the buildings; null if there
+     * are none
+     */
+    static Room recommendStudyRoom(List<Building> buildings,
+                                   boolean parallel) {
+        int size = buildings.size();
+        CampusScratch scratch = CAMPUS_SCRATCH.get();
+        scratch.ensureCapacity(size);
+        Room[] rooms = scratch.rooms;
+        int[] comforts = scratch.comforts;
 
-            previousFloor = building.getFloorByNumber(currentFloorNumber);
+        IntConsumer evaluate = i -> {
+            Building building = buildings.get(i);
+            Room room = recommendStudyRoom(building);
+            rooms[i] = room;
+            comforts[i] = room == null
+                    ? 0 : building.getComfortIndex().getComfortLevel(room);
+        };
+        if (parallel) {
+            IntStream.range(0, size).parallel().forEach(evaluate);
+        } else {
+            for (int i = 0; i < size; ++i) {
+                evaluate.accept(i);
+            }
+        }
 
-            currentFloorNumber++;
-            currentFloor = building.getFloorByNumber(currentFloorNumber);
-            Room highestRoom = null;
+        Room best = null;
+        int bestComfort = 0;
+        for (int i = 0; i < size; ++i) {
+            // Strictly better only, so ties go to the earlier building
+            if (rooms[i] != null && (best == null
+                    || comforts[i] > bestComfort)) {
+                best = rooms[i];
+                bestComfort = comforts[i];
+            }
+        }
+        // Do not keep the rooms reachable from the scratch space
+        Arrays.fill(rooms, 0, size, null);
+        return best;
+    }
 
-            for (Room room : currentFloor.getRooms()) {
-                if (room.getType() == RoomType.STUDY &&
-                        room.evaluateRoomState() == RoomState.OPEN &&
-                        getRoomComfortLevel(room) >
-                                getRoomComfortLevel(highestRoom)
-                ) {
-                    highestRoom = room;
+    /**
+     * Returns up to the query's limit of the most comfortable open study
+     * rooms in the given buildings which meet the query's restrictions.
+     * <p>
+     * Unlike {@link #recommendStudyRoom(Building)}, every floor is
+     * considered. Rooms on the query's preferred floors, if any, are
+     * returned first. Otherwise rooms are returned in descending order of
+     * comfort level, see {@link ComfortIndex#getComfortLevel(Room)}. Rooms
+     * with equal comfort are returned in order of building, then floor
+     * number, then the order the rooms were added to the floor.
+     * <p>
+     * Comfort levels come from each building's comfort index, so no sensor
+     * is evaluated unless its reading has changed. The best rooms are kept in
+     * a heap bounded by the limit, so a query over N rooms takes
+     * O(N log limit) time.
+     *
+     * @param buildings buildings in which to search for study rooms
+     * @param query limit and restrictions on the rooms to return
+     * @return most suitable study rooms, best first; empty if there are none
+     */
+    public static List<Room> recommendStudyRooms(List<Building> buildings,
+                                                 StudyRoomQuery query) {
+        // Worst candidate at the head, so it is the one replaced
+        PriorityQueue<RankedRoom> best = new PriorityQueue<>(
+                query.getLimit() + 1, RankedRoom.ORDER.reversed());
+        int order = 0;
+        for (Building building : buildings) {
+            ComfortIndex comfortIndex = building.getComfortIndex();
+            for (Floor floor : building.getFloorsView()) {
+                if (!query.considersFloor(floor.getFloorNumber())) {
+                    continue;
+                }
+                boolean preferred = query.prefersFloor(floor.getFloorNumber());
+                for (Room room : floor.getRoomsView()) {
+                    if (!query.considersRoom(room)) {
+                        continue;
+                    }
+                    RankedRoom ranked = new RankedRoom(room, preferred,
+                            comfortIndex.getComfortLevel(room), order++);
+                    if (best.size() < query.getLimit()) {
+                        best.add(ranked);
+                    } else if (RankedRoom.ORDER.compare(ranked,
+                            best.peek()) < 0) {
+                        best.poll();
+                        best.add(ranked);
+                    }
                 }
             }
+        }
 
-            if (previousFloor == null) {
-                if (highestRoom == null)
-                    return null;
-                candidateRooms.put(currentFloorNumber, highestRoom);
-                continue;
-            }
+        List<RankedRoom> ranked = new ArrayList<>(best);
+        ranked.sort(RankedRoom.ORDER);
+        List<Room> rooms = new ArrayList<>(ranked.size());
+        for (RankedRoom room : ranked) {
+            rooms.add(room.room);
+        }
+        return rooms;
+    }
 
-            Room previousHighestRoom = candidateRooms.get(
-                    previousFloor.getFloorNumber());
+    /**
+     * A room considered by a study room query, with its comfort level and
+     * the order in which it was considered.
+     */
+    private static class RankedRoom {
+        /**
+         * Best room first: on a preferred floor, then highest comfort, then
+         * first considered
+         */
+        private static final Comparator<RankedRoom> ORDER =
+                Comparator.comparing((RankedRoom r) -> !r.preferred)
+                        .thenComparingInt(r -> -r.comfort)
+                        .thenComparingInt(r -> r.order);
 
-            if (highestRoom == null) {
-                return previousHighestRoom;
-            } else {
-                if (getRoomComfortLevel(previousHighestRoom) >=
-                        getRoomComfortLevel(highestRoom))
-                    return previousHighestRoom;
-                candidateRooms.put(currentFloorNumber, highestRoom);
-            }
+        private final Room room;
+        private final boolean preferred;
+        private final int comfort;
+        private final int order;
+
+        private RankedRoom(Room room, boolean preferred, int comfort,
+                           int order) {
+            this.room = room;
+            this.preferred = preferred;
+            this.comfort = comfort;
+            this.order = order;
         }
-        return candidateRooms.get(building.getFloors().size());
     }
 
     /**
-     * Returns true if and only if this temperature sensor is equal to the
-     * other given sensor.
-     * For two temperature sensors to be equal, they must have the same:
-     *
-     * ·sensor readings array (in the same order)
-     *
-     * @return  true if equal, false otherwise
+     * Scratch space for the campus recommendations made by one thread: the
+     * most suitable room in each building, and its comfort level.
      */
-    private static int getRoomComfortLevel (Room room) {
-        if (room == null)
-            return 0;
-
-        int totalComfort = 0;
-        List<Sensor> sensors = room.getSensors();
-        if (sensors.size() == 0) {
-            return 0;
-        }
-        for (Sensor sensor : sensors) {
-            totalComfort += ((ComfortSensor) sensor).getComfortLevel();
+    private static class CampusScratch {
+        private Room[] rooms = new Room[0];
+        private int[] comforts = new int[0];
+
+        /**
+         * Grows the scratch space to hold at least the given number of
+         * buildings.
+         */
+        private void ensureCapacity(int size) {
+            if (rooms.length < size) {
+                int length = Math.max(size, 2 * rooms.length);
+                rooms = new Room[length];
+                comforts = new int[length];
+            }
         }
-        return totalComfort / sensors.size();
     }
-
 }
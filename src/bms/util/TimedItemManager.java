@@ -1,7 +1,10 @@
 package bms.util;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -26,10 +29,37 @@ public class TimedItemManager implements TimedItem {
     private static TimedItemManager instance = new TimedItemManager();
 
     /**
-     * List of timed items currently registered with the manager.
+     * List of timed items registered with the manager, in the order they
+     * were registered.
+     * <p>
+     * Unregistered items are only removed from the list at the start of the
+     * next tick, so unregistering an item does not shift the list. The list
+     * and the fields below are guarded by the list's lock, as items may be
+     * registered from other threads while a tick is running, eg. when
+     * sensors are added to a building through
+     * {@link bms.building.ConcurrentBuilding}.
      */
     private List<TimedItem> timedItems;
 
+    /**
+     * Items currently registered, compared by identity.
+     */
+    private final Set<TimedItem> registered =
+            Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Registered items in order, as iterated by each tick. Rebuilt from
+     * the list only after items were registered or unregistered, so each
+     * tick iterates over an array which is never changed.
+     */
+    private TimedItem[] tickItems = new TimedItem[0];
+
+    /**
+     * Whether items were registered or unregistered since tickItems was
+     * last built.
+     */
+    private boolean changed;
+
     /**
      * Creates a new timed item manager with an empty list of registered items.
      * @ass1
@@ -52,13 +82,38 @@ public class TimedItemManager implements TimedItem {
      * Registers a timed item with the manager.
      * <p>
      * After calling this method, the manager will call the given timed item's
-     * {@code elapseOneMinute()} method at regular intervals.
+     * {@code elapseOneMinute()} method at regular intervals, starting from
+     * the next tick. Registering an item which is already registered has
+     * no effect.
      *
      * @param timedItem a timed item to register with the manager
      * @ass1
      */
     public void registerTimedItem(TimedItem timedItem) {
-        this.timedItems.add(timedItem);
+        synchronized (this.timedItems) {
+            if (!this.registered.add(timedItem)) {
+                return;
+            }
+            this.timedItems.add(timedItem);
+            this.changed = true;
+        }
+    }
+
+    /**
+     * Unregisters a timed item from the manager.
+     * <p>
+     * After calling this method, the manager will no longer call the given
+     * timed item's {@code elapseOneMinute()} method, starting from the next
+     * tick.
+     *
+     * @param timedItem a timed item to unregister from the manager
+     */
+    public void unregisterTimedItem(TimedItem timedItem) {
+        synchronized (this.timedItems) {
+            if (this.registered.remove(timedItem)) {
+                this.changed = true;
+            }
+        }
     }
 
     /**
@@ -67,8 +122,29 @@ public class TimedItemManager implements TimedItem {
      */
     @Override
     public void elapseOneMinute() {
-        for (TimedItem timedItem : this.timedItems) {
+        TimedItem[] items;
+        synchronized (this.timedItems) {
+            if (this.changed) {
+                compact();
+            }
+            items = this.tickItems;
+        }
+        for (TimedItem timedItem : items) {
             timedItem.elapseOneMinute();
         }
     }
+
+    /**
+     * Removes unregistered items from the list, keeping the first copy of
+     * items unregistered and registered again, and rebuilds the array of
+     * items to tick. Must be called holding the list's lock.
+     */
+    private void compact() {
+        Set<TimedItem> kept =
+                Collections.newSetFromMap(new IdentityHashMap<>());
+        this.timedItems.removeIf(timedItem ->
+                !this.registered.contains(timedItem) || !kept.add(timedItem));
+        this.tickItems = this.timedItems.toArray(new TimedItem[0]);
+        this.changed = false;
+    }
 }
@@ -2,6 +2,9 @@ package bms.building;
 
 import bms.exceptions.*;
 import bms.floor.Floor;
+import bms.hazardevaluation.ExpressionHazardEvaluator;
+import bms.hazardevaluation.HazardEvaluator;
+import bms.hazardevaluation.HazardEvaluatorRegistry;
 import bms.hazardevaluation.RuleBasedHazardEvaluator;
 import bms.hazardevaluation.WeightingBasedHazardEvaluator;
 import bms.room.Room;
@@ -954,4 +957,39 @@ public class BuildingInitialiserTest {
             throw new FileFormatException();
         }
     }
+
+    /**
+     * A room may use an evaluator type registered with the
+     * HazardEvaluatorRegistry, and is saved again with the same token.
+     */
+    @Test
+    public void testCustomEvaluator() throws IOException, FileFormatException {
+        HazardEvaluatorRegistry.registerExpression("MaxCo2Noise",
+                "max(CarbonDioxideSensor, NoiseSensor)");
+        try {
+            List<Building> buildings = BuildingInitialiser.loadBuildings(
+                    "saves/customEvaluator.txt");
+            Room room = buildings.get(0).getFloorByNumber(1)
+                    .getRoomByNumber(101);
+            HazardEvaluator evaluator = room.getHazardEvaluator();
+            Assert.assertTrue(evaluator instanceof ExpressionHazardEvaluator);
+            Assert.assertEquals("MaxCo2Noise", evaluator.toString());
+            // CO2 hazard level 25, noise hazard level 35
+            Assert.assertEquals(35, evaluator.evaluateHazardLevel());
+            Assert.assertTrue(room.encode().startsWith(
+                    "101:LABORATORY:30.00:2:MaxCo2Noise"));
+        } finally {
+            // The registry is shared, so leave it as later tests expect
+            HazardEvaluatorRegistry.unregister("MaxCo2Noise");
+        }
+    }
+
+    /**
+     * The save file uses an evaluator type which is not registered.
+     */
+    @Test(expected = FileFormatException.class)
+    public void testUnregisteredEvaluator()
+            throws IOException, FileFormatException {
+        BuildingInitialiser.loadBuildings("saves/customEvaluator.txt");
+    }
 }
@@ -0,0 +1,352 @@
+package bms.building;
+
+import bms.exceptions.DuplicateFloorException;
+import bms.exceptions.FireDrillException;
+import bms.exceptions.FloorTooSmallException;
+import bms.exceptions.NoFloorBelowException;
+import bms.floor.Floor;
+import bms.room.Room;
+import bms.room.RoomState;
+import bms.room.RoomType;
+import bms.sensors.NoiseSensor;
+import bms.sensors.SensorType;
+import bms.sensors.TemperatureSensor;
+import bms.util.TimedItemManager;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Use JUnit Test 4 to test the Building class.*/
+public class BuildingTest {
+
+    private Building building1, building2;
+    private Room room1, room2;
+
+    @Before
+    public void setup() throws Exception {
+        building1 = createBuilding();
+        building2 = createBuilding();
+        room1 = building1.getFloorByNumber(1).getRoomByNumber(101);
+        room2 = building2.getFloorByNumber(1).getRoomByNumber(101);
+    }
+
+    private static Building createBuilding() throws Exception {
+        Building building = new Building("General Purpose South");
+        Floor floor1 = new Floor(1, 10, 10);
+        Floor floor2 = new Floor(2, 10, 10);
+        building.addFloor(floor1);
+        building.addFloor(floor2);
+
+        Room room = new Room(101, RoomType.STUDY, 20.25);
+        room.addSensor(new TemperatureSensor(new int[]{20, 21, 22}));
+        floor1.addRoom(room);
+        floor2.addRoom(new Room(201, RoomType.OFFICE, 15.786));
+        return building;
+    }
+
+    @Test
+    public void testEqualBuildings() {
+        Assert.assertEquals(building1, building2);
+        Assert.assertEquals(building1.hashCode(), building2.hashCode());
+    }
+
+    @Test
+    public void testAddSensorInvalidatesHashCode() throws Exception {
+        int roomHash = room1.hashCode();
+        int floorHash = building1.getFloorByNumber(1).hashCode();
+        int buildingHash = building1.hashCode();
+
+        room1.addSensor(new NoiseSensor(new int[]{50, 55}, 2));
+
+        Assert.assertNotEquals(roomHash, room1.hashCode());
+        Assert.assertNotEquals(floorHash,
+                building1.getFloorByNumber(1).hashCode());
+        Assert.assertNotEquals(buildingHash, building1.hashCode());
+        Assert.assertNotEquals(building1, building2);
+
+        room2.addSensor(new NoiseSensor(new int[]{50, 55}, 2));
+        Assert.assertEquals(room1, room2);
+        Assert.assertEquals(building1, building2);
+        Assert.assertEquals(building1.hashCode(), building2.hashCode());
+    }
+
+    @Test
+    public void testAddRoomInvalidatesHashCode() throws Exception {
+        building1.getFloorByNumber(2).addRoom(
+                new Room(202, RoomType.LABORATORY, 10));
+        Assert.assertNotEquals(building1, building2);
+
+        building2.getFloorByNumber(2).addRoom(
+                new Room(202, RoomType.LABORATORY, 10));
+        Assert.assertEquals(building1, building2);
+        Assert.assertEquals(building1.hashCode(), building2.hashCode());
+    }
+
+    @Test
+    public void testRenovateFloorInvalidatesHashCode() throws Exception {
+        building1.renovateFloor(2, 8, 9);
+        Assert.assertNotEquals(building1, building2);
+
+        building2.renovateFloor(2, 8, 9);
+        Assert.assertEquals(building1, building2);
+        Assert.assertEquals(building1.hashCode(), building2.hashCode());
+    }
+
+    @Test
+    public void testAreaWithinDelta() {
+        Assert.assertEquals(new Room(101, RoomType.STUDY, 20.2501),
+                new Room(101, RoomType.STUDY, 20.2509));
+        Assert.assertNotEquals(new Room(101, RoomType.STUDY, 20.25),
+                new Room(101, RoomType.STUDY, 20.2509));
+    }
+
+    @Test
+    public void testFireDrillOnlyStartsInRoomsOfType() throws Exception {
+        Room laboratory = new Room(202, RoomType.LABORATORY, 10);
+        building1.getFloorByNumber(2).addRoom(laboratory);
+
+        building1.fireDrill(RoomType.LABORATORY);
+        Assert.assertTrue(laboratory.fireDrillOngoing());
+        Assert.assertFalse(room1.fireDrillOngoing());
+        Assert.assertFalse(building1.getFloorByNumber(2)
+                .getRoomByNumber(201).fireDrillOngoing());
+
+        building1.fireDrill(null);
+        for (Floor floor : building1.getFloorsView()) {
+            for (Room room : floor.getRoomsView()) {
+                Assert.assertTrue(room.fireDrillOngoing());
+            }
+        }
+    }
+
+    @Test
+    public void testCancelFireDrill() {
+        // Drills started outside the building are still cancelled
+        room1.setFireDrill(true);
+        building1.getFloorByNumber(2).fireDrill(RoomType.OFFICE);
+
+        building1.cancelFireDrill();
+        for (Floor floor : building1.getFloorsView()) {
+            for (Room room : floor.getRoomsView()) {
+                Assert.assertFalse(room.fireDrillOngoing());
+            }
+        }
+    }
+
+    @Test(expected = FireDrillException.class)
+    public void testFireDrillNoRooms() throws Exception {
+        Building building = new Building("Empty");
+        building.addFloor(new Floor(1, 10, 10));
+        building.fireDrill(null);
+    }
+
+    @Test
+    public void testCountRoomsInState() throws Exception {
+        Room laboratory = new Room(202, RoomType.LABORATORY, 10);
+        laboratory.addSensor(new TemperatureSensor(new int[]{20, 70}));
+        building1.getFloorByNumber(2).addRoom(laboratory);
+        Room office = building1.getFloorByNumber(2).getRoomByNumber(201);
+
+        Assert.assertEquals(3, building1.countRoomsInState(RoomState.OPEN));
+
+        room1.setFireDrill(true);
+        office.setMaintenance(true);
+        Assert.assertEquals(1, building1.countRoomsInState(RoomState.OPEN));
+        Assert.assertEquals(1,
+                building1.countRoomsInState(RoomState.EVACUATE));
+        Assert.assertEquals(1,
+                building1.countRoomsInState(RoomState.MAINTENANCE));
+
+        // Temperature reaches 70 degrees, so a fire is detected
+        TimedItemManager.getInstance().elapseOneMinute();
+        Assert.assertTrue(laboratory.fireDetected());
+        Assert.assertEquals(0, building1.countRoomsInState(RoomState.OPEN));
+        Assert.assertEquals(2,
+                building1.countRoomsInState(RoomState.EVACUATE));
+
+        List<Room> evacuated = new ArrayList<>();
+        building1.forEachRoomInState(RoomState.EVACUATE, evacuated::add);
+        Assert.assertEquals(List.of(room1, laboratory), evacuated);
+
+        // Maintenance does not override a fire alarm
+        laboratory.setMaintenance(true);
+        for (RoomState state : RoomState.values()) {
+            int expected = 0;
+            for (Floor floor : building1.getFloorsView()) {
+                for (Room room : floor.getRoomsView()) {
+                    if (room.evaluateRoomState() == state) {
+                        expected++;
+                    }
+                }
+            }
+            Assert.assertEquals(expected,
+                    building1.countRoomsInState(state));
+        }
+    }
+
+    @Test
+    public void testSnapshotSharesUnchangedFloorsAndRooms() throws Exception {
+        BuildingSnapshot first = building1.snapshot();
+        Assert.assertSame(first, building1.snapshot());
+        Assert.assertEquals(2, first.getFloors().size());
+        Assert.assertEquals(20,
+                first.getFloorByNumber(1).getRoomByNumber(101)
+                        .getReading(SensorType.TEMPERATURE));
+
+        Room office = building1.getFloorByNumber(2).getRoomByNumber(201);
+        office.setMaintenance(true);
+        BuildingSnapshot second = building1.snapshot();
+
+        Assert.assertNotSame(first, second);
+        Assert.assertTrue(second.getVersion() > first.getVersion());
+        // Only the path to the changed room is copied
+        Assert.assertSame(first.getFloorByNumber(1),
+                second.getFloorByNumber(1));
+        Assert.assertNotSame(first.getFloorByNumber(2),
+                second.getFloorByNumber(2));
+        Assert.assertEquals(RoomState.MAINTENANCE,
+                second.getFloorByNumber(2).getRoomByNumber(201).getState());
+
+        // Earlier snapshots are unchanged
+        Assert.assertEquals(RoomState.OPEN,
+                first.getFloorByNumber(2).getRoomByNumber(201).getState());
+    }
+
+    @Test
+    public void testSnapshotAfterReadingChange() {
+        BuildingSnapshot first = building1.snapshot();
+        TimedItemManager.getInstance().elapseOneMinute();
+        BuildingSnapshot second = building1.snapshot();
+
+        Assert.assertEquals(21,
+                second.getFloorByNumber(1).getRoomByNumber(101)
+                        .getReading(SensorType.TEMPERATURE));
+        Assert.assertEquals(20,
+                first.getFloorByNumber(1).getRoomByNumber(101)
+                        .getReading(SensorType.TEMPERATURE));
+        Assert.assertFalse(second.getFloorByNumber(1).getRoomByNumber(101)
+                .hasSensor(SensorType.NOISE));
+        Assert.assertSame(first.getFloorByNumber(2),
+                second.getFloorByNumber(2));
+    }
+
+    @Test
+    public void testVersion() throws Exception {
+        Room room201 = building1.getFloorByNumber(2).getRoomByNumber(201);
+        room201.addSensor(new NoiseSensor(new int[]{40, 40}, 1));
+        long version = building1.getVersion();
+
+        // Neither a reading nor a state changes
+        room201.setMaintenance(false);
+        room201.setFireDrill(false);
+        Assert.assertEquals(version, building1.getVersion());
+
+        room201.setMaintenance(true);
+        Assert.assertNotEquals(version, building1.getVersion());
+        version = building1.getVersion();
+
+        room1.setFireDrill(true);
+        Assert.assertNotEquals(version, building1.getVersion());
+        version = building1.getVersion();
+
+        // Room 101's temperature changes, room 201's noise level does not
+        TimedItemManager.getInstance().elapseOneMinute();
+        Assert.assertNotEquals(version, building1.getVersion());
+    }
+
+    @Test
+    public void testFloorLookupAfterAdd() throws Exception {
+        Building tower = new Building("Tower");
+        List<Floor> added = new ArrayList<>();
+        for (int i = 1; i <= 80; ++i) {
+            Floor floor = new Floor(i, 20, 20);
+            tower.addFloor(floor);
+            added.add(floor);
+        }
+        for (int i = 1; i <= 80; ++i) {
+            Assert.assertSame(added.get(i - 1), tower.getFloorByNumber(i));
+        }
+        Assert.assertNull(tower.getFloorByNumber(0));
+        Assert.assertNull(tower.getFloorByNumber(-1));
+        Assert.assertNull(tower.getFloorByNumber(81));
+    }
+
+    @Test
+    public void testFloorLookupAfterFailedAdd() {
+        Floor floor1 = building1.getFloorByNumber(1);
+        try {
+            building1.addFloor(new Floor(1, 10, 10));
+            Assert.fail("Floor 1 already exists");
+        } catch (DuplicateFloorException expected) {
+            // The existing floor is kept
+        } catch (Exception e) {
+            Assert.fail(e.toString());
+        }
+        try {
+            building1.addFloor(new Floor(4, 10, 10));
+            Assert.fail("There is no floor 3");
+        } catch (NoFloorBelowException expected) {
+            // Floors must be contiguous from 1
+        } catch (Exception e) {
+            Assert.fail(e.toString());
+        }
+        Assert.assertSame(floor1, building1.getFloorByNumber(1));
+        Assert.assertNull(building1.getFloorByNumber(3));
+        Assert.assertNull(building1.getFloorByNumber(4));
+        Assert.assertEquals(2, building1.getFloorsView().size());
+    }
+
+    @Test
+    public void testFloorLookupAfterRenovate() throws Exception {
+        Floor floor2 = building1.getFloorByNumber(2);
+        building1.renovateFloor(2, 8, 8);
+        Assert.assertSame(floor2, building1.getFloorByNumber(2));
+        Assert.assertEquals(8, building1.getFloorByNumber(2).getWidth(), 0);
+
+        try {
+            building1.renovateFloor(2, 12, 12);
+            Assert.fail("Floor 1 cannot support a larger floor 2");
+        } catch (FloorTooSmallException expected) {
+            // Dimensions are unchanged
+        }
+        Assert.assertSame(floor2, building1.getFloorByNumber(2));
+        Assert.assertEquals(8, floor2.getLength(), 0);
+    }
+
+    @Test
+    public void testFloorsView() throws Exception {
+        List<Floor> view = building1.getFloorsView();
+        Assert.assertSame(view, building1.getFloorsView());
+        try {
+            view.add(new Floor(3, 10, 10));
+            Assert.fail("View should reject additions");
+        } catch (UnsupportedOperationException expected) {
+            // Floors can only be added through addFloor
+        }
+        try {
+            view.remove(0);
+            Assert.fail("View should reject removals");
+        } catch (UnsupportedOperationException expected) {
+            // Floors cannot be removed
+        }
+
+        // The view reflects floors added later, a copy does not
+        List<Floor> copy = building1.getFloors();
+        Floor floor3 = new Floor(3, 10, 10);
+        building1.addFloor(floor3);
+        Assert.assertEquals(3, view.size());
+        Assert.assertSame(floor3, view.get(2));
+        Assert.assertEquals(2, copy.size());
+
+        // Changing a copy does not change the building
+        copy.clear();
+        Assert.assertEquals(3, building1.getFloors().size());
+
+        List<Floor> visited = new ArrayList<>();
+        building1.forEachFloor(visited::add);
+        Assert.assertEquals(view, visited);
+    }
+}
@@ -0,0 +1,133 @@
+package bms.building;
+
+import bms.floor.Floor;
+import bms.room.Room;
+import bms.room.RoomType;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+/** Use JUnit Test 4 to test the Campus class.*/
+public class CampusTest {
+
+    private Campus campus;
+    private Building building1, building2;
+    private Room room101, room201;
+
+    @Before
+    public void setup() throws Exception {
+        building1 = new Building("General Purpose South");
+        Floor floor1 = new Floor(1, 10, 10);
+        building1.addFloor(floor1);
+        room101 = new Room(101, RoomType.STUDY, 20);
+        floor1.addRoom(room101);
+        floor1.addRoom(new Room(102, RoomType.OFFICE, 20));
+
+        building2 = new Building("Forgan Smith");
+        Floor floor2 = new Floor(1, 10, 10);
+        building2.addFloor(floor2);
+        building2.addFloor(new Floor(2, 10, 10));
+        room201 = new Room(201, RoomType.LABORATORY, 30);
+        building2.getFloorByNumber(2).addRoom(room201);
+
+        campus = new Campus(List.of(building1, building2));
+    }
+
+    @Test
+    public void testGetBuildingByName() {
+        Assert.assertSame(building2, campus.getBuilding("Forgan Smith"));
+        Assert.assertEquals(0, campus.getBuildingIndex("General Purpose South"));
+        Assert.assertNull(campus.getBuilding("Hawken"));
+        Assert.assertEquals(-1, campus.getBuildingIndex("Hawken"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateBuildingName() {
+        campus.addBuilding(new Building("Forgan Smith"));
+    }
+
+    @Test
+    public void testDuplicateBuildingNameFromList() {
+        Building duplicate = new Building("Forgan Smith");
+        Campus loaded = new Campus(List.of(building1, building2, duplicate));
+        Assert.assertEquals(3, loaded.getBuildings().size());
+        Assert.assertSame(building2, loaded.getBuilding("Forgan Smith"));
+        Assert.assertEquals(1, loaded.getBuildingIndex("Forgan Smith"));
+        Assert.assertSame(duplicate, loaded.getBuildings().get(2));
+    }
+
+    @Test
+    public void testRoomIds() {
+        // Given in building, floor and room order when the campus is made
+        Assert.assertEquals(3, campus.getRoomIdCount());
+        int id101 = campus.getRoomId(0, 1, 101);
+        int id201 = campus.getRoomId(1, 2, 201);
+        Assert.assertEquals(0, id101);
+        Assert.assertEquals(1, campus.getRoomId(0, 1, 102));
+        Assert.assertEquals(2, id201);
+        Assert.assertEquals(3, campus.getRoomIdCount());
+
+        Assert.assertSame(room201, campus.getRoom(id201));
+        Assert.assertEquals(1, campus.getRoomBuildingIndex(id201));
+        Assert.assertEquals(2, campus.getRoomFloorNumber(id201));
+        Assert.assertSame(room101, campus.getRoom(id101));
+    }
+
+    @Test
+    public void testRoomIdsIndependentOfLookupOrder() {
+        Campus other = new Campus(List.of(building1, building2));
+        Assert.assertEquals(campus.getRoomId(1, 2, 201),
+                other.getRoomId(1, 2, 201));
+        Assert.assertEquals(other.getRoomId(0, 1, 101),
+                campus.getRoomId(0, 1, 101));
+    }
+
+    @Test
+    public void testRoomIdNotFound() {
+        Assert.assertEquals(-1, campus.getRoomId(2, 1, 101));
+        Assert.assertEquals(-1, campus.getRoomId(0, 2, 101));
+        Assert.assertEquals(-1, campus.getRoomId(0, 1, 103));
+        Assert.assertEquals(-1, campus.getRoomId(-1, 1, 101));
+        // Looking up a room does not give out ids
+        Assert.assertEquals(3, campus.getRoomIdCount());
+    }
+
+    @Test
+    public void testRoomAddedLater() throws Exception {
+        Room room202 = new Room(202, RoomType.OFFICE, 10);
+        building2.getFloorByNumber(2).addRoom(room202);
+        Assert.assertEquals(4, campus.getRoomIdCount());
+        Assert.assertEquals(3, campus.getRoomId(1, 2, 202));
+        Assert.assertSame(room202, campus.getRoom(3));
+    }
+
+    @Test
+    public void testFloorAddedLater() throws Exception {
+        Floor floor3 = new Floor(3, 10, 10);
+        Room room301 = new Room(301, RoomType.STUDY, 20);
+        floor3.addRoom(room301);
+        building2.addFloor(floor3);
+        Assert.assertEquals(3, campus.getRoomId(1, 3, 301));
+        Assert.assertSame(room301, campus.getRoom(3));
+        Assert.assertEquals(3, campus.getRoomFloorNumber(3));
+    }
+
+    @Test
+    public void testBuildingAddedLater() throws Exception {
+        Building building3 = new Building("Hawken");
+        building3.addFloor(new Floor(1, 10, 10));
+        Room room101 = new Room(101, RoomType.OFFICE, 20);
+        building3.getFloorByNumber(1).addRoom(room101);
+        campus.addBuilding(building3);
+        Assert.assertEquals(3, campus.getRoomId(2, 1, 101));
+        Assert.assertSame(room101, campus.getRoom(3));
+        Assert.assertEquals(2, campus.getRoomBuildingIndex(3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownRoomId() {
+        campus.getRoom(3);
+    }
+}
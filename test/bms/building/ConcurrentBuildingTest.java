@@ -0,0 +1,268 @@
+package bms.building;
+
+import bms.floor.Floor;
+import bms.room.Room;
+import bms.room.RoomState;
+import bms.room.RoomType;
+import bms.sensors.ComfortSensor;
+import bms.sensors.NoiseSensor;
+import bms.sensors.Sensor;
+import bms.sensors.TemperatureSensor;
+import bms.util.StudyRoomRecommender;
+import bms.util.TimedItemManager;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Use JUnit Test 4 to test the ConcurrentBuilding class.
+ * <p>
+ * Each test runs a writer thread, a tick thread and several reader threads
+ * at once. Every read checks an invariant which only holds between writes,
+ * so a torn read fails the test.
+ */
+public class ConcurrentBuildingTest {
+
+    private static final int READERS = 3;
+    private static final int WRITES = 2000;
+
+    private Building building;
+    private ConcurrentBuilding concurrent;
+    private AtomicBoolean writing;
+    private AtomicReference<Throwable> failure;
+
+    @Before
+    public void setup() throws Exception {
+        building = new Building("Stress Test");
+        building.addFloor(new Floor(1, 1000, 1000));
+        building.addFloor(new Floor(2, 100, 100));
+        concurrent = new ConcurrentBuilding(building);
+        writing = new AtomicBoolean(true);
+        failure = new AtomicReference<>();
+    }
+
+    /**
+     * Runs the given writer alongside the tick and the given reader, and
+     * fails if any thread threw.
+     */
+    private void run(Runnable writer, Runnable reader) throws Exception {
+        List<Thread> threads = new ArrayList<>();
+        threads.add(new Thread(() -> {
+            try {
+                writer.run();
+            } finally {
+                writing.set(false);
+            }
+        }));
+        threads.add(new Thread(() -> {
+            while (writing.get()) {
+                TimedItemManager.getInstance().elapseOneMinute();
+                Thread.yield();
+            }
+        }));
+        for (int i = 0; i < READERS; ++i) {
+            threads.add(new Thread(() -> {
+                while (writing.get()) {
+                    reader.run();
+                    Thread.yield();
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.setUncaughtExceptionHandler(
+                    (t, e) -> failure.compareAndSet(null, e));
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+    }
+
+    @Test
+    public void testRenovateFloorNoTornReads() throws Exception {
+        run(() -> {
+            try {
+                for (int i = 0; i < WRITES; ++i) {
+                    double size = 10 + i % 90;
+                    concurrent.renovateFloor(2, size, size);
+                }
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }, () -> {
+            double[] dimensions = concurrent.read(b -> new double[]{
+                    b.getFloorByNumber(2).getWidth(),
+                    b.getFloorByNumber(2).getLength()});
+            Assert.assertEquals(dimensions[0], dimensions[1], 0);
+        });
+    }
+
+    @Test
+    public void testAddRoomNoTornReads() throws Exception {
+        run(() -> {
+            try {
+                for (int i = 0; i < WRITES; ++i) {
+                    concurrent.addRoom(1, new Room(i, RoomType.STUDY,
+                            5 + i % 7));
+                    concurrent.addSensor(1, i,
+                            new NoiseSensor(new int[]{40, 60}, 1));
+                    if (i % 2 == 0) {
+                        concurrent.addSensor(1, i,
+                                new TemperatureSensor(new int[]{20, 70}));
+                    }
+                }
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }, () -> {
+            // Every listed room can be found by number, and the occupied
+            // area is the sum of the listed rooms' areas
+            String error = concurrent.read(b -> {
+                Floor floor = b.getFloorByNumber(1);
+                double area = 0;
+                for (Room room : floor.getRoomsView()) {
+                    if (floor.getRoomByNumber(room.getRoomNumber()) != room) {
+                        return "Room " + room.getRoomNumber() + " not found";
+                    }
+                    area += room.getArea();
+                }
+                if (Math.abs(area - floor.occupiedArea()) > 0.5) {
+                    return "Occupied area " + floor.occupiedArea()
+                            + " != " + area;
+                }
+                return null;
+            });
+            Assert.assertNull(error);
+        });
+
+        Assert.assertEquals(WRITES, concurrent.read(
+                b -> b.getFloorByNumber(1).getRoomsView().size()).intValue());
+    }
+
+    @Test
+    public void testDerivedStateWithTick() throws Exception {
+        // Every change reported by the building increments its version once
+        long initialVersion = building.getVersion();
+        AtomicLong changes = new AtomicLong();
+        building.addFloorListener((floor, room, change) ->
+                changes.incrementAndGet());
+
+        run(() -> {
+            try {
+                for (int i = 0; i < WRITES; ++i) {
+                    concurrent.addRoom(1, new Room(i, RoomType.STUDY, 5));
+                    concurrent.addSensor(1, i, new NoiseSensor(
+                            new int[]{40 + i % 30, 60, 70 - i % 20}, 1));
+                }
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }, () -> {
+            // Fills the comfort index and cached hash codes while the tick
+            // and the writer change the building
+            concurrent.recommendStudyRoom();
+            concurrent.read(Building::hashCode);
+        });
+
+        Assert.assertEquals(initialVersion + changes.get(),
+                building.getVersion());
+
+        // Cached hash code matches an identical building built afresh
+        Building copy = new Building("Stress Test");
+        copy.addFloor(new Floor(1, 1000, 1000));
+        copy.addFloor(new Floor(2, 100, 100));
+        for (int i = 0; i < WRITES; ++i) {
+            copy.getFloorByNumber(1).addRoom(new Room(i, RoomType.STUDY, 5));
+            copy.getFloorByNumber(1).getRoomByNumber(i).addSensor(
+                    new NoiseSensor(new int[]{40 + i % 30, 60, 70 - i % 20},
+                            1));
+        }
+        Assert.assertEquals(copy.hashCode(), building.hashCode());
+        Assert.assertEquals(copy, building);
+
+        // Comfort index agrees with the current readings
+        int best = 0;
+        for (Room room : building.getFloorByNumber(1).getRoomsView()) {
+            int comfort = 0;
+            for (Sensor sensor : room.getSensorsView()) {
+                comfort += ((ComfortSensor) sensor).getComfortLevel();
+            }
+            best = Math.max(best, comfort / room.getSensorsView().size());
+        }
+        Room recommended = StudyRoomRecommender.recommendStudyRoom(building);
+        Assert.assertEquals(best, building.getComfortIndex()
+                .getComfortLevel(recommended));
+
+        Assert.assertEquals(WRITES, concurrent.snapshot().getFloorByNumber(1)
+                .getRooms().size());
+    }
+
+    @Test
+    public void testFireDrillsWithWriters() throws Exception {
+        concurrent.addRoom(2, new Room(200, RoomType.STUDY, 5));
+        Thread writer = new Thread(() -> {
+            try {
+                for (int i = 0; i < WRITES; ++i) {
+                    concurrent.addRoom(1, new Room(i, RoomType.STUDY, 5));
+                    concurrent.addSensor(1, i,
+                            new NoiseSensor(new int[]{40, 60}, 1));
+                }
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            } finally {
+                writing.set(false);
+            }
+        });
+        Thread drills = new Thread(() -> {
+            try {
+                while (writing.get()) {
+                    building.fireDrill(RoomType.STUDY);
+                    building.cancelFireDrill();
+                }
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        for (Thread thread : List.of(writer, drills)) {
+            // A deadlocked thread must not keep the test run alive
+            thread.setDaemon(true);
+            thread.setUncaughtExceptionHandler(
+                    (t, e) -> failure.compareAndSet(null, e));
+            thread.start();
+        }
+        writer.join(30_000);
+        drills.join(30_000);
+        Assert.assertFalse("Writer deadlocked", writer.isAlive());
+        Assert.assertFalse("Fire drills deadlocked", drills.isAlive());
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+
+        Assert.assertEquals(WRITES + 1, building.countRoomsInState(
+                RoomState.OPEN));
+    }
+
+    @Test
+    public void testReadException() {
+        try {
+            concurrent.read(b -> b.getFloorByNumber(3).getRoomsView());
+            Assert.fail("Exception from reader should be thrown");
+        } catch (NullPointerException expected) {
+            // Reader exceptions are reported when no write raced with it
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddRoomNoFloor() throws Exception {
+        concurrent.addRoom(3, new Room(301, RoomType.OFFICE, 10));
+    }
+}
@@ -0,0 +1,195 @@
+package bms.building;
+
+import bms.floor.Floor;
+import bms.floor.MaintenancePlan;
+import bms.floor.MaintenancePlanner;
+import bms.floor.MaintenanceSchedule;
+import bms.room.Room;
+import bms.room.RoomType;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+/** Use JUnit Test 4 to test the MaintenanceRegistry class.*/
+public class MaintenanceRegistryTest {
+
+    private Campus campus;
+    private Building building1, building2;
+    private Room room101, room102, room201, room301;
+
+    @Before
+    public void setup() throws Exception {
+        building1 = new Building("General Purpose South");
+        Floor floor1 = new Floor(1, 10, 10);
+        building1.addFloor(floor1);
+        room101 = new Room(101, RoomType.STUDY, 20);
+        room102 = new Room(102, RoomType.OFFICE, 20);
+        floor1.addRoom(room101);
+        floor1.addRoom(room102);
+        floor1.createMaintenanceSchedule(List.of(room101, room102));
+
+        building2 = new Building("Forgan Smith");
+        building2.addFloor(new Floor(1, 10, 10));
+        building2.addFloor(new Floor(2, 10, 10));
+        building2.addFloor(new Floor(3, 10, 10));
+        room201 = new Room(201, RoomType.LABORATORY, 30);
+        room301 = new Room(301, RoomType.STUDY, 30);
+        building2.getFloorByNumber(2).addRoom(room201);
+        building2.getFloorByNumber(2).addRoom(
+                new Room(202, RoomType.OFFICE, 10));
+        building2.getFloorByNumber(3).addRoom(room301);
+        building2.getFloorByNumber(3).addRoom(
+                new Room(302, RoomType.OFFICE, 10));
+
+        campus = new Campus(List.of(building1, building2));
+    }
+
+    @Test
+    public void testExistingSchedule() {
+        MaintenanceRegistry registry = campus.getMaintenanceRegistry();
+        Assert.assertSame(registry, campus.getMaintenanceRegistry());
+        Assert.assertEquals(1, registry.getActiveCount());
+        Assert.assertEquals(1, registry.getActiveCount(0));
+        Assert.assertEquals(0, registry.getActiveCount(1));
+
+        ActiveMaintenance maintenance = registry.getActive(0).get(0);
+        Assert.assertSame(room101, maintenance.getRoom());
+        Assert.assertEquals(0, maintenance.getBuildingIndex());
+        Assert.assertSame(building1.getFloorByNumber(1)
+                .getMaintenanceSchedule(), maintenance.getSchedule());
+    }
+
+    @Test
+    public void testScheduleMovesOn() {
+        MaintenanceRegistry registry = campus.getMaintenanceRegistry();
+        MaintenanceSchedule schedule =
+                building1.getFloorByNumber(1).getMaintenanceSchedule();
+        ActiveMaintenance maintenance = registry.getActive(schedule);
+
+        schedule.elapseOneMinute();
+        Assert.assertEquals(1, maintenance.getTimeElapsed());
+        for (int i = 1; i < schedule.getMaintenanceTime(room101); i++) {
+            schedule.elapseOneMinute();
+        }
+        Assert.assertSame(room102, maintenance.getRoom());
+        Assert.assertEquals(0, maintenance.getTimeElapsed());
+        Assert.assertEquals(1, registry.getActiveCount());
+    }
+
+    @Test
+    public void testReplaceSchedule() {
+        MaintenanceRegistry registry = campus.getMaintenanceRegistry();
+        Floor floor1 = building1.getFloorByNumber(1);
+        MaintenanceSchedule old = floor1.getMaintenanceSchedule();
+
+        floor1.createMaintenanceSchedule(List.of(room102, room101));
+        Assert.assertNull(registry.getActive(old));
+        Assert.assertEquals(1, registry.getActiveCount(0));
+        Assert.assertSame(room102, registry.getActive(0).get(0).getRoom());
+        Assert.assertFalse(room101.maintenanceOngoing());
+    }
+
+    @Test
+    public void testNewSchedulesAndBuildings() throws Exception {
+        MaintenanceRegistry registry = campus.getMaintenanceRegistry();
+        Floor floor2 = building2.getFloorByNumber(2);
+        Floor floor3 = building2.getFloorByNumber(3);
+        floor2.createMaintenanceSchedule(
+                List.of(room201, floor2.getRoomByNumber(202)));
+        floor3.createMaintenanceSchedule(
+                List.of(room301, floor3.getRoomByNumber(302)));
+        Assert.assertEquals(3, registry.getActiveCount());
+        Assert.assertEquals(2, registry.getActiveCount(1));
+
+        // The last in the list takes the place of a stopped schedule
+        floor2.getMaintenanceSchedule().stop();
+        Assert.assertEquals(1, registry.getActiveCount(1));
+        Assert.assertSame(room301, registry.getActive(1).get(0).getRoom());
+        floor3.getMaintenanceSchedule().stop();
+        Assert.assertTrue(registry.getActive(1).isEmpty());
+
+        Building building3 = new Building("Hawken");
+        campus.addBuilding(building3);
+        Floor floor = new Floor(1, 10, 10);
+        Room room = new Room(101, RoomType.OFFICE, 10);
+        floor.addRoom(room);
+        floor.addRoom(new Room(102, RoomType.OFFICE, 10));
+        floor.createMaintenanceSchedule(
+                List.of(room, floor.getRoomByNumber(102)));
+        building3.addFloor(floor);
+        Assert.assertEquals(2, registry.getActiveCount());
+        Assert.assertSame(room, registry.getActive(2).get(0).getRoom());
+    }
+
+    @Test
+    public void testCrewSchedules() {
+        MaintenanceRegistry registry = campus.getMaintenanceRegistry();
+        Floor floor2 = building2.getFloorByNumber(2);
+        Floor floor3 = building2.getFloorByNumber(3);
+        MaintenancePlan plan = new MaintenancePlanner(1).plan(
+                List.of(room201, room301));
+        List<MaintenanceSchedule> schedules =
+                plan.createSchedules(building2.getFloorsView());
+        Assert.assertEquals(1, schedules.size());
+
+        // The crew visits both floors, and reports through its first room's
+        MaintenanceSchedule crew = schedules.get(0);
+        Floor first = crew.getCurrentRoom() == room201 ? floor2 : floor3;
+        Floor second = first == floor2 ? floor3 : floor2;
+        Assert.assertEquals(List.of(crew), first.getCrewSchedules());
+        Assert.assertTrue(second.getCrewSchedules().isEmpty());
+        Assert.assertEquals(2, registry.getActiveCount());
+        Assert.assertSame(crew.getCurrentRoom(),
+                registry.getActive(crew).getRoom());
+
+        // A registry created later finds the running crew schedule
+        Assert.assertEquals(1, new MaintenanceRegistry(
+                new Campus(List.of(building2))).getActiveCount());
+
+        // Giving either floor a schedule of its own stops the crew
+        second.createMaintenanceSchedule(List.of(
+                second.getRoomsView().get(1), second.getRoomsView().get(0)));
+        Assert.assertNull(registry.getActive(crew));
+        Assert.assertTrue(first.getCrewSchedules().isEmpty());
+        Assert.assertEquals(1, registry.getActiveCount(1));
+        Assert.assertFalse(room201.maintenanceOngoing());
+        Assert.assertFalse(room301.maintenanceOngoing());
+        Assert.assertTrue(second.getRoomsView().get(1).maintenanceOngoing());
+    }
+
+    @Test
+    public void testCrewSchedulesStopFloorSchedule() {
+        MaintenanceRegistry registry = campus.getMaintenanceRegistry();
+        Floor floor1 = building1.getFloorByNumber(1);
+        MaintenanceSchedule own = floor1.getMaintenanceSchedule();
+        List<MaintenanceSchedule> schedules = new MaintenancePlanner(2)
+                .plan(List.of(room101, room102))
+                .createSchedules(building1.getFloorsView());
+
+        Assert.assertNull(floor1.getMaintenanceSchedule());
+        Assert.assertNull(registry.getActive(own));
+        Assert.assertEquals(schedules, floor1.getCrewSchedules());
+        Assert.assertEquals(2, registry.getActiveCount(0));
+        Assert.assertTrue(room101.maintenanceOngoing());
+        Assert.assertTrue(room102.maintenanceOngoing());
+    }
+
+    @Test
+    public void testCrewSchedulesRoomNotOnFloors() {
+        MaintenancePlan plan = new MaintenancePlanner(1).plan(
+                List.of(room101, room201));
+        try {
+            plan.createSchedules(building1.getFloorsView());
+            Assert.fail("Room 201 is not in building 1");
+        } catch (IllegalArgumentException expected) {
+            // Every room must be on one of the given floors
+        }
+        // Nothing was stopped
+        Assert.assertNotNull(building1.getFloorByNumber(1)
+                .getMaintenanceSchedule());
+        Assert.assertTrue(room101.maintenanceOngoing());
+        Assert.assertFalse(room201.maintenanceOngoing());
+    }
+}
@@ -0,0 +1,159 @@
+package bms.floor;
+
+import bms.exceptions.DuplicateRoomException;
+import bms.exceptions.FloorTooSmallException;
+import bms.exceptions.InsufficientSpaceException;
+import bms.room.Room;
+import bms.room.RoomType;
+import bms.sensors.OccupancySensor;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Use JUnit Test 4 to test the Floor class.*/
+public class FloorTest {
+
+    private Floor floor;
+    private Room room101, room102;
+
+    @Before
+    public void setup() throws Exception {
+        floor = new Floor(1, 10, 10);
+        room101 = new Room(101, RoomType.STUDY, 20.25);
+        room102 = new Room(102, RoomType.OFFICE, 30.5);
+        floor.addRoom(room101);
+        floor.addRoom(room102);
+    }
+
+    @Test
+    public void testRoomLookup() {
+        Assert.assertSame(room101, floor.getRoomByNumber(101));
+        Assert.assertSame(room102, floor.getRoomByNumber(102));
+        Assert.assertNull(floor.getRoomByNumber(103));
+        Assert.assertNull(floor.getRoomByNumber(-101));
+    }
+
+    @Test
+    public void testRoomLookupLargeFloor() throws Exception {
+        Floor large = new Floor(1, 200, 200);
+        List<Room> added = new ArrayList<>();
+        for (int i = 0; i < 5000; ++i) {
+            Room room = new Room(i, RoomType.STUDY, Room.getMinArea());
+            large.addRoom(room);
+            added.add(room);
+        }
+        for (Room room : added) {
+            Assert.assertSame(room, large.getRoomByNumber(room.getRoomNumber()));
+        }
+        Assert.assertEquals(5000 * Room.getMinArea(), large.occupiedArea(),
+                0.001);
+    }
+
+    @Test
+    public void testFailedAddKeepsLookupAndArea() {
+        float area = floor.occupiedArea();
+        Room duplicate = new Room(101, RoomType.LABORATORY, 10);
+        try {
+            floor.addRoom(duplicate);
+            Assert.fail("Room 101 is already on the floor");
+        } catch (DuplicateRoomException expected) {
+            // The existing room is kept
+        } catch (InsufficientSpaceException e) {
+            Assert.fail(e.toString());
+        }
+        Room large = new Room(103, RoomType.OFFICE, 60);
+        try {
+            floor.addRoom(large);
+            Assert.fail("Room 103 does not fit on the floor");
+        } catch (InsufficientSpaceException expected) {
+            // Only 49.25m^2 is free
+        } catch (DuplicateRoomException e) {
+            Assert.fail(e.toString());
+        }
+
+        Assert.assertSame(room101, floor.getRoomByNumber(101));
+        Assert.assertNull(floor.getRoomByNumber(103));
+        Assert.assertEquals(area, floor.occupiedArea(), 0);
+        Assert.assertEquals(2, floor.getRoomsView().size());
+    }
+
+    @Test
+    public void testOccupiedArea() throws Exception {
+        Assert.assertEquals(50.75, floor.occupiedArea(), 0.001);
+        Room room103 = new Room(103, RoomType.LABORATORY, 12.3);
+        floor.addRoom(room103);
+        Assert.assertEquals(63.05, floor.occupiedArea(), 0.001);
+    }
+
+    @Test
+    public void testOccupiedAreaNoDrift() throws Exception {
+        // Summing in float would drift by over 1m^2 here
+        Floor large = new Floor(1, 200, 200);
+        for (int i = 0; i < 5000; ++i) {
+            large.addRoom(new Room(i, RoomType.STUDY, 5.1));
+        }
+        Assert.assertEquals(25500, large.occupiedArea(), 0.01);
+    }
+
+    @Test
+    public void testOccupiedAreaIgnoresOccupancy() throws Exception {
+        room101.addSensor(new OccupancySensor(new int[]{0, 25, 40}, 1, 40));
+        float area = floor.occupiedArea();
+        for (int i = 0; i < 3; ++i) {
+            room101.getOccupancySensor().elapseOneMinute();
+            Assert.assertEquals(area, floor.occupiedArea(), 0);
+        }
+    }
+
+    @Test
+    public void testChangeDimensionsUsesOccupiedArea() throws Exception {
+        // 7 x 7 = 49 is smaller than the 50.75 occupied
+        try {
+            floor.changeDimensions(7, 7);
+            Assert.fail("Rooms do not fit on a 7 x 7 floor");
+        } catch (FloorTooSmallException expected) {
+            // Dimensions are unchanged
+        }
+        Assert.assertEquals(10, floor.getWidth(), 0);
+        floor.changeDimensions(7.2, 7.1);
+        Assert.assertEquals(7.2, floor.getWidth(), 0);
+        Assert.assertSame(room101, floor.getRoomByNumber(101));
+    }
+
+    @Test
+    public void testRoomsView() throws Exception {
+        List<Room> view = floor.getRoomsView();
+        Assert.assertSame(view, floor.getRoomsView());
+        try {
+            view.add(new Room(103, RoomType.STUDY, 10));
+            Assert.fail("View should reject additions");
+        } catch (UnsupportedOperationException expected) {
+            // Rooms can only be added through addRoom
+        }
+        try {
+            view.set(0, room102);
+            Assert.fail("View should reject replacements");
+        } catch (UnsupportedOperationException expected) {
+            // Rooms cannot be replaced
+        }
+
+        // The view reflects rooms added later, a copy does not
+        List<Room> copy = floor.getRooms();
+        Room room103 = new Room(103, RoomType.STUDY, 10);
+        floor.addRoom(room103);
+        Assert.assertEquals(List.of(room101, room102, room103), view);
+        Assert.assertEquals(List.of(room101, room102), copy);
+
+        // Changing a copy does not change the floor
+        copy.clear();
+        Assert.assertEquals(3, floor.getRooms().size());
+        Assert.assertSame(room103, floor.getRoomByNumber(103));
+
+        List<Room> visited = new ArrayList<>();
+        floor.forEachRoom(visited::add);
+        Assert.assertEquals(view, visited);
+    }
+}
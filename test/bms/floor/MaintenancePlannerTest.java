@@ -0,0 +1,153 @@
+package bms.floor;
+
+import bms.room.Room;
+import bms.room.RoomType;
+import bms.sensors.OccupancySensor;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/** Use JUnit Test 4 to test the MaintenancePlanner class.*/
+public class MaintenancePlannerTest {
+
+    private List<Room> rooms;
+
+    @Before
+    public void setup() {
+        rooms = new ArrayList<>();
+        // Maintenance times of 5, 7, 9, 11 and 13 minutes
+        for (int i = 0; i < 5; ++i) {
+            rooms.add(new Room(101 + i, RoomType.STUDY,
+                    Room.getMinArea() + 10 * i));
+        }
+    }
+
+    @Test
+    public void testSingleCrew() {
+        MaintenancePlan plan = new MaintenancePlanner(1).plan(rooms);
+        Assert.assertEquals(1, plan.getCrewCount());
+        Assert.assertEquals(45, plan.getMakespan());
+        Assert.assertEquals(5, plan.getCrewOrder(0).size());
+        Assert.assertEquals(0, plan.getDisruption());
+    }
+
+    @Test
+    public void testBalancedCrews() {
+        MaintenancePlan plan = new MaintenancePlanner(2).plan(rooms);
+        // 45 minutes of work cannot be split evenly, so 23 is optimal
+        Assert.assertEquals(23, plan.getMakespan());
+        Assert.assertEquals(45, plan.getCrewFinishTime(0)
+                + plan.getCrewFinishTime(1));
+        assertEachRoomOnce(rooms, plan);
+    }
+
+    @Test
+    public void testImprovesOnLongestFirst() {
+        // Longest first gives crews of 14 + 6, 10 + 8 + 6 and 10 + 8,
+        // but 14 + 8, 10 + 6 + 6 and 10 + 8 finish earlier
+        List<Room> studies = new ArrayList<>();
+        int[] times = {14, 10, 10, 8, 8, 6, 6};
+        for (int i = 0; i < times.length; ++i) {
+            studies.add(new Room(201 + i, RoomType.STUDY,
+                    Room.getMinArea() + 5 * (times[i] - 5)));
+        }
+        MaintenancePlanner planner = new MaintenancePlanner(3);
+        planner.setTimeBudget(0);
+        MaintenancePlan greedy = planner.plan(studies);
+        planner.setTimeBudget(1000);
+        MaintenancePlan improved = planner.plan(studies);
+
+        Assert.assertEquals(24, greedy.getMakespan());
+        Assert.assertEquals(22, improved.getMakespan());
+        assertEachRoomOnce(studies, improved);
+    }
+
+    @Test
+    public void testDisruptionOrdersEmptyRoomsFirst() throws Exception {
+        Room busy = new Room(301, RoomType.STUDY, Room.getMinArea());
+        busy.addSensor(new OccupancySensor(new int[]{20, 0}, 5, 30));
+        Room quiet = new Room(302, RoomType.STUDY, Room.getMinArea());
+        quiet.addSensor(new OccupancySensor(new int[]{0}, 1, 30));
+        List<Room> order = List.of(busy, quiet);
+
+        MaintenancePlanner planner = new MaintenancePlanner(1);
+        MaintenancePlan plan = planner.plan(order);
+        Assert.assertEquals(List.of(busy, quiet), plan.getCrewOrder(0));
+        Assert.assertEquals(100, plan.getDisruption());
+
+        planner.setObjective(MaintenanceObjective.DISRUPTION);
+        plan = planner.plan(order);
+        Assert.assertEquals(List.of(quiet, busy), plan.getCrewOrder(0));
+        Assert.assertEquals(0, plan.getDisruption());
+        Assert.assertEquals(10, plan.getMakespan());
+    }
+
+    @Test
+    public void testLargeInstance() throws Exception {
+        Random random = new Random(45);
+        List<Room> large = new ArrayList<>();
+        RoomType[] types = RoomType.values();
+        int total = 0;
+        int longest = 0;
+        for (int i = 0; i < 10000; ++i) {
+            Room room = new Room(i, types[random.nextInt(types.length)],
+                    Room.getMinArea() + random.nextInt(100));
+            if (random.nextInt(3) == 0) {
+                int[] readings = new int[1 + random.nextInt(10)];
+                for (int j = 0; j < readings.length; ++j) {
+                    readings[j] = random.nextInt(40);
+                }
+                room.addSensor(new OccupancySensor(readings,
+                        1 + random.nextInt(5), 40));
+            }
+            large.add(room);
+            int time = MaintenanceSchedule.calculateMaintenanceTime(room);
+            total += time;
+            longest = Math.max(longest, time);
+        }
+
+        MaintenancePlanner planner = new MaintenancePlanner(12);
+        planner.setObjective(MaintenanceObjective.DISRUPTION);
+        planner.setTimeBudget(200);
+        MaintenancePlan plan = planner.plan(large);
+
+        assertEachRoomOnce(large, plan);
+        int lowerBound = Math.max(longest, (total + 11) / 12);
+        Assert.assertTrue("Makespan " + plan.getMakespan(),
+                plan.getMakespan() <= lowerBound + 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoCrews() {
+        new MaintenancePlanner(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateRoom() {
+        rooms.add(rooms.get(0));
+        new MaintenancePlanner(2).plan(rooms);
+    }
+
+    private static void assertEachRoomOnce(List<Room> rooms,
+                                           MaintenancePlan plan) {
+        Map<Room, Integer> counts = new IdentityHashMap<>();
+        for (int crew = 0; crew < plan.getCrewCount(); ++crew) {
+            int finish = 0;
+            for (Room room : plan.getCrewOrder(crew)) {
+                counts.merge(room, 1, Integer::sum);
+                finish += MaintenanceSchedule.calculateMaintenanceTime(room);
+            }
+            Assert.assertEquals(finish, plan.getCrewFinishTime(crew));
+        }
+        Assert.assertEquals(rooms.size(), counts.size());
+        for (Room room : rooms) {
+            Assert.assertEquals(Integer.valueOf(1), counts.get(room));
+        }
+    }
+}
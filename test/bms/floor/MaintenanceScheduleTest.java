@@ -11,6 +11,7 @@ import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 /** Use JUnit Test 4 to test the MaintenanceSchedule class.*/
 public class MaintenanceScheduleTest {
@@ -197,6 +198,264 @@ public class MaintenanceScheduleTest {
         String expected = "101,102,103";
         Assert.assertEquals(expected, MS.encode());
     }
-}
 
+    @Test
+    public void testProject() {
+        for (int i = 0; i < 7; i++)
+            MS.elapseOneMinute();
+        // room2 has had 2 of its 11 minutes
+        MaintenanceProjection projection = MS.project(false);
+        Assert.assertEquals(0, projection.getNextStart(room2));
+        Assert.assertEquals(9, projection.getNextEnd(room2));
+        Assert.assertEquals(9, projection.getNextStart(room3));
+        Assert.assertEquals(25, projection.getNextEnd(room3));
+        Assert.assertEquals(25, projection.getNextStart(room1));
+        Assert.assertEquals(30, projection.getHorizon());
+        Assert.assertEquals(MaintenanceProjection.NEVER,
+                projection.getNextStart(new Room(104, RoomType.STUDY, 5)));
+    }
+
+    @Test
+    public void testProjectMatchesSimulation() {
+        MaintenanceProjection projection = MS.project(false);
+        for (int minute = 0; minute < projection.getHorizon(); minute++) {
+            Assert.assertSame(MS.getCurrentRoom(),
+                    projection.getRoomAt(minute));
+            MS.elapseOneMinute();
+        }
+        Assert.assertNull(projection.getRoomAt(projection.getHorizon()));
+    }
+
+    @Test
+    public void testProjectWithEvacuations() throws Exception {
+        TemperatureSensor t1 = new TemperatureSensor(
+                new int[]{20, 70, 70, 20, 20, 85});
+        TemperatureSensor t3 = new TemperatureSensor(new int[]{90, 22});
+        room1.addSensor(t1);
+        room3.addSensor(t3);
+        for (int i = 0; i < 3; i++) {
+            t1.elapseOneMinute();
+            t3.elapseOneMinute();
+        }
+
+        MaintenanceProjection uncorrected = MS.project(false);
+        MaintenanceProjection projection = MS.project(true);
+        Assert.assertTrue(projection.getHorizon()
+                > uncorrected.getHorizon());
+        for (int minute = 0; minute < projection.getHorizon(); minute++) {
+            Assert.assertSame(MS.getCurrentRoom(),
+                    projection.getRoomAt(minute));
+            // Sensors tick before the schedule, as they were created first
+            t1.elapseOneMinute();
+            t3.elapseOneMinute();
+            MS.elapseOneMinute();
+        }
+        Assert.assertSame(room1, MS.getCurrentRoom());
+        Assert.assertEquals(0, MS.getTimeElapsedCurrentRoom());
+    }
+
+    @Test
+    public void testProjectAlwaysOnFire() throws Exception {
+        room2.addSensor(new TemperatureSensor(new int[]{80}));
+        MaintenanceProjection projection = MS.project(true);
+        Assert.assertEquals(5, projection.getNextStart(room2));
+        Assert.assertEquals(MaintenanceProjection.NEVER,
+                projection.getNextEnd(room2));
+        Assert.assertEquals(MaintenanceProjection.NEVER,
+                projection.getNextStart(room3));
+        Assert.assertSame(room2, projection.getRoomAt(1000));
+    }
+
+    @Test
+    public void testSkipEvacuatedKeepsCleanTime() {
+        MS.setSkipEvacuated(true);
+        MS.elapseOneMinute();
+        MS.elapseOneMinute();
+        room1.setFireDrill(true);
+        MS.elapseOneMinute();
+        Assert.assertEquals(room2, MS.getCurrentRoom());
+        Assert.assertEquals(0, MS.getTimeElapsedCurrentRoom());
+        Assert.assertFalse(room1.maintenanceOngoing());
+
+        room1.setFireDrill(false);
+        for (int i = 0; i < 11; i++)
+            MS.elapseOneMinute();
+        // Back to the deferred room rather than on to room3
+        Assert.assertEquals(room1, MS.getCurrentRoom());
+        Assert.assertEquals(2, MS.getTimeElapsedCurrentRoom());
+        for (int i = 0; i < 3; i++)
+            MS.elapseOneMinute();
+        Assert.assertEquals(room3, MS.getCurrentRoom());
+        Assert.assertEquals(2, MS.getMaintainedCount());
+    }
+
+    @Test
+    public void testSkipEvacuatedStillEvacuated() {
+        MS.setSkipEvacuated(true);
+        room1.setFireDrill(true);
+        MS.elapseOneMinute();
+        for (int i = 0; i < 11; i++)
+            MS.elapseOneMinute();
+        // room1 is still evacuated, so carry on in order
+        Assert.assertEquals(room3, MS.getCurrentRoom());
+
+        room1.setFireDrill(false);
+        for (int i = 0; i < 16; i++)
+            MS.elapseOneMinute();
+        Assert.assertEquals(room1, MS.getCurrentRoom());
+        for (int i = 0; i < 5; i++)
+            MS.elapseOneMinute();
+        // room1 was also next in order, so room2 follows it
+        Assert.assertEquals(room2, MS.getCurrentRoom());
+        Assert.assertEquals(3, MS.getMaintainedCount());
+    }
+
+    @Test
+    public void testSkipEvacuatedSingleRoom() {
+        List<Room> single = new ArrayList<>();
+        single.add(new Room(104, RoomType.STUDY, 5));
+        MaintenanceSchedule schedule = new MaintenanceSchedule(single);
+        schedule.setSkipEvacuated(true);
+        schedule.elapseOneMinute();
+        single.get(0).setFireDrill(true);
+        schedule.elapseOneMinute();
+        Assert.assertEquals(single.get(0), schedule.getCurrentRoom());
+        Assert.assertEquals(1, schedule.getTimeElapsedCurrentRoom());
+        Assert.assertTrue(single.get(0).maintenanceOngoing());
+    }
+
+    @Test
+    public void testProjectSkipEvacuatedDeferredRoom() {
+        MS.setSkipEvacuated(true);
+        MS.elapseOneMinute();
+        MS.elapseOneMinute();
+        room1.setFireDrill(true);
+        MS.elapseOneMinute();
+        room1.setFireDrill(false);
+
+        // room1 is returned to after room2, with 3 of its 5 minutes left
+        MaintenanceProjection projection = MS.project(false);
+        Assert.assertEquals(11, projection.getNextEnd(room2));
+        Assert.assertEquals(11, projection.getNextStart(room1));
+        Assert.assertEquals(14, projection.getNextEnd(room1));
+        Assert.assertEquals(14, projection.getNextStart(room3));
+        Assert.assertEquals(30, projection.getHorizon());
+        assertMatchesSimulation(MS, projection, new TemperatureSensor[0]);
+    }
 
+    @Test
+    public void testProjectSkipEvacuatedWithFires() throws Exception {
+        Random random = new Random(11);
+        for (int trial = 0; trial < 20; trial++) {
+            List<Room> rooms = new ArrayList<>();
+            List<TemperatureSensor> sensors = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                Room room = new Room(501 + i, RoomType.values()[i % 3],
+                        5 + random.nextInt(20));
+                if (random.nextInt(3) > 0) {
+                    int[] readings = new int[1 + random.nextInt(12)];
+                    for (int j = 0; j < readings.length; j++) {
+                        readings[j] = random.nextInt(4) == 0 ? 80 : 22;
+                    }
+                    // Every sensor is calm at some point
+                    readings[0] = 22;
+                    TemperatureSensor sensor = new TemperatureSensor(readings);
+                    room.addSensor(sensor);
+                    sensors.add(sensor);
+                }
+                rooms.add(room);
+            }
+            MaintenanceSchedule schedule = new MaintenanceSchedule(rooms);
+            schedule.setSkipEvacuated(true);
+            TemperatureSensor[] sensorArray =
+                    sensors.toArray(new TemperatureSensor[0]);
+            // Start part way through, with some rooms already deferred
+            for (int minute = random.nextInt(40); minute > 0; minute--) {
+                for (TemperatureSensor sensor : sensorArray) {
+                    sensor.elapseOneMinute();
+                }
+                schedule.elapseOneMinute();
+            }
+
+            // Some rooms may be deferred forever, if they are only ever
+            // returned to the minute before a fire
+            assertMatchesSimulation(schedule, schedule.project(true),
+                    sensorArray);
+        }
+    }
+
+    /**
+     * Runs the given schedule to the end of the given projection of it,
+     * ticking the given sensors before the schedule each minute, and checks
+     * that the rooms under maintenance and the minutes at which rooms are
+     * first finished match the projection.
+     */
+    private static void assertMatchesSimulation(MaintenanceSchedule schedule,
+            MaintenanceProjection projection, TemperatureSensor[] sensors) {
+        List<Room> finished = new ArrayList<>();
+        int minute = 0;
+        for (; projection.getRoomAt(minute) != null; minute++) {
+            Assert.assertSame("Minute " + minute, schedule.getCurrentRoom(),
+                    projection.getRoomAt(minute));
+            Room current = schedule.getCurrentRoom();
+            int maintained = schedule.getMaintainedCount();
+            for (TemperatureSensor sensor : sensors) {
+                sensor.elapseOneMinute();
+            }
+            schedule.elapseOneMinute();
+            if (schedule.getMaintainedCount() > maintained
+                    && !finished.contains(current)) {
+                finished.add(current);
+                Assert.assertEquals(minute + 1,
+                        projection.getNextEnd(current));
+            }
+        }
+        if (projection.getHorizon() != MaintenanceProjection.NEVER) {
+            Assert.assertEquals(projection.getHorizon(), minute);
+        }
+    }
+
+    /**
+     * Simulates maintenance of a floor with fire drills in random rooms,
+     * comparing the rooms maintained when evacuated rooms are skipped to
+     * when they are waited for, at several drill frequencies.
+     */
+    @Test
+    public void testSkipEvacuatedThroughput() {
+        int[] drillIntervals = {5, 15, 60, 240};
+        for (int interval : drillIntervals) {
+            int stalled = simulateDrills(false, interval);
+            int skipped = simulateDrills(true, interval);
+            Assert.assertTrue("Drill every " + interval + " minutes: "
+                    + skipped + " < " + stalled, skipped >= stalled);
+            if (interval == 5) {
+                Assert.assertTrue(skipped > stalled);
+            }
+        }
+    }
+
+    private static int simulateDrills(boolean skipEvacuated, int interval) {
+        Random random = new Random(47);
+        List<Room> rooms = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            rooms.add(new Room(401 + i, RoomType.OFFICE, 10 + 5 * i));
+        }
+        int[] drillEnds = new int[rooms.size()];
+        MaintenanceSchedule schedule = new MaintenanceSchedule(rooms);
+        schedule.setSkipEvacuated(skipEvacuated);
+        for (int minute = 0; minute < 5000; minute++) {
+            if (minute % interval == 0) {
+                int room = random.nextInt(rooms.size());
+                rooms.get(room).setFireDrill(true);
+                drillEnds[room] = minute + 20;
+            }
+            for (int room = 0; room < rooms.size(); room++) {
+                if (drillEnds[room] == minute) {
+                    rooms.get(room).setFireDrill(false);
+                }
+            }
+            schedule.elapseOneMinute();
+        }
+        return schedule.getMaintainedCount();
+    }
+}
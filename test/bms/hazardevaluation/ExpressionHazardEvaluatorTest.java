@@ -0,0 +1,140 @@
+package bms.hazardevaluation;
+
+import bms.sensors.CarbonDioxideSensor;
+import bms.sensors.HazardSensor;
+import bms.sensors.OccupancySensor;
+import bms.sensors.TemperatureSensor;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Use JUnit Test 4 to test the ExpressionHazardEvaluator class.*/
+public class ExpressionHazardEvaluatorTest {
+
+    private List<HazardSensor> sensors;
+
+    @Before
+    public void setup() {
+        // hazard levels: CO2 25, occupancy 50, temperature 0
+        CarbonDioxideSensor co2 = new CarbonDioxideSensor(
+                new int[]{1500}, 1, 700, 150);
+        OccupancySensor occupancy = new OccupancySensor(
+                new int[]{15}, 1, 30);
+        TemperatureSensor temperature = new TemperatureSensor(
+                new int[]{24});
+
+        sensors = new ArrayList<>();
+        sensors.add(co2);
+        sensors.add(occupancy);
+        sensors.add(temperature);
+    }
+
+    @Test
+    public void testMaxScaledByOccupancy() {
+        ExpressionHazardEvaluator evaluator = new ExpressionHazardEvaluator(
+                "MaxScaled", "max(CarbonDioxideSensor, TemperatureSensor)"
+                + " * OccupancySensor / 100", sensors);
+        Assert.assertEquals(13, evaluator.evaluateHazardLevel());
+    }
+
+    @Test
+    public void testPrecedenceAndParentheses() {
+        ExpressionHazardEvaluator evaluator = new ExpressionHazardEvaluator(
+                "Sum", "(CarbonDioxideSensor + 5) * 2 - -1", sensors);
+        Assert.assertEquals(61, evaluator.evaluateHazardLevel());
+    }
+
+    @Test
+    public void testClampedToRange() {
+        Assert.assertEquals(100, new ExpressionHazardEvaluator(
+                "High", "OccupancySensor * 3", sensors)
+                .evaluateHazardLevel());
+        Assert.assertEquals(0, new ExpressionHazardEvaluator(
+                "Low", "abs(0) - OccupancySensor", sensors)
+                .evaluateHazardLevel());
+    }
+
+    @Test
+    public void testMissingSensorIsZero() {
+        ExpressionHazardEvaluator evaluator = new ExpressionHazardEvaluator(
+                "Noise", "avg(NoiseSensor, OccupancySensor)", sensors);
+        Assert.assertEquals(25, evaluator.evaluateHazardLevel());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownFunction() {
+        new ExpressionHazardEvaluator("Bad", "sum(NoiseSensor)", sensors);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTrailingInput() {
+        new ExpressionHazardEvaluator("Bad", "NoiseSensor )", sensors);
+    }
+
+    @Test
+    public void testToString() {
+        Assert.assertEquals("MaxCo2", new ExpressionHazardEvaluator(
+                "MaxCo2", "CarbonDioxideSensor", sensors).toString());
+    }
+
+    @Test
+    public void testRegistry() {
+        HazardEvaluatorRegistry.registerExpression("Co2Only",
+                "CarbonDioxideSensor");
+        try {
+            HazardEvaluatorFactory factory =
+                    HazardEvaluatorRegistry.getFactory("Co2Only");
+            Map<HazardSensor, Integer> map = new LinkedHashMap<>();
+            for (HazardSensor sensor : sensors) {
+                map.put(sensor, null);
+            }
+            HazardEvaluator evaluator = factory.create(map);
+            Assert.assertEquals(25, evaluator.evaluateHazardLevel());
+            Assert.assertEquals("Co2Only", evaluator.toString());
+            Assert.assertFalse(factory.usesWeightings());
+            Assert.assertTrue(HazardEvaluatorRegistry
+                    .getFactory("WeightingBased").usesWeightings());
+            Assert.assertNull(HazardEvaluatorRegistry.getFactory("Unknown"));
+        } finally {
+            // The registry is shared, so leave it as later tests expect
+            Assert.assertTrue(HazardEvaluatorRegistry.unregister("Co2Only"));
+        }
+        Assert.assertNull(HazardEvaluatorRegistry.getFactory("Co2Only"));
+        Assert.assertFalse(HazardEvaluatorRegistry.unregister("Co2Only"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnregisterBuiltIn() {
+        HazardEvaluatorRegistry.unregister("RuleBased");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownSensor() {
+        new ExpressionHazardEvaluator("Bad", "HumiditySensor + 1", sensors);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRegisterBuiltIn() {
+        HazardEvaluatorRegistry.register("WeightingBased", map ->
+                new RuleBasedHazardEvaluator(new ArrayList<>(map.keySet())));
+    }
+
+    @Test
+    public void testRegisterExpressionBuiltIn() {
+        try {
+            HazardEvaluatorRegistry.registerExpression("RuleBased",
+                    "OccupancySensor");
+            Assert.fail("Built in token should be rejected");
+        } catch (IllegalArgumentException expected) {
+            // The built in factory is left in place
+        }
+        Assert.assertFalse(HazardEvaluatorRegistry.getFactory("RuleBased")
+                .create(new LinkedHashMap<>()) instanceof
+                ExpressionHazardEvaluator);
+    }
+}
@@ -0,0 +1,224 @@
+package bms.ingestion;
+
+import bms.building.Building;
+import bms.floor.Floor;
+import bms.room.Room;
+import bms.room.RoomType;
+import bms.sensors.NoiseSensor;
+import bms.sensors.SensorFeed;
+import bms.sensors.SensorType;
+import bms.sensors.TemperatureSensor;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Use JUnit Test 4 to test the IngestionServer class.
+ * <p>
+ * Each test sends frames to a server over loopback and takes readings from
+ * the sensor feeds itself, in place of the tick.
+ */
+public class IngestionServerTest {
+
+    private static final int TEMPERATURE = SensorType.TEMPERATURE.ordinal();
+    private static final int NOISE = SensorType.NOISE.ordinal();
+
+    private SensorIndex index;
+    private IngestionServer server;
+    private Thread serverThread;
+    private SocketChannel channel;
+
+    /**
+     * Starts a server for a building with a temperature and a noise sensor
+     * in room 101, whose feeds have the given capacity.
+     */
+    private void start(int feedCapacity) throws Exception {
+        Building building = new Building("General Purpose South");
+        building.addFloor(new Floor(1, 10, 10));
+        Room room101 = new Room(101, RoomType.STUDY, 20);
+        room101.addSensor(new TemperatureSensor(new int[]{20}));
+        room101.addSensor(new NoiseSensor(new int[]{50}, 1));
+        building.getFloorByNumber(1).addRoom(room101);
+
+        index = new SensorIndex(List.of(building), feedCapacity);
+        server = new IngestionServer(index, 0);
+        serverThread = new Thread(server, "ingestion-server");
+        serverThread.start();
+        channel = SocketChannel.open(new InetSocketAddress(
+                InetAddress.getLoopbackAddress(), server.getPort()));
+    }
+
+    @After
+    public void teardown() throws Exception {
+        if (channel != null) {
+            channel.close();
+        }
+        if (server != null) {
+            server.stop();
+            serverThread.join();
+        }
+    }
+
+    /**
+     * Returns a frame of the given readings, each given as building index,
+     * floor number, room number, sensor type and reading.
+     */
+    private static ByteBuffer frame(int[]... readings) {
+        ByteBuffer frame = ByteBuffer.allocate(IngestionServer.HEADER_SIZE
+                + readings.length * IngestionServer.RECORD_SIZE);
+        frame.putInt(readings.length);
+        for (int[] reading : readings) {
+            frame.putInt(reading[0]);
+            frame.putInt(reading[1]);
+            frame.putInt(reading[2]);
+            frame.put((byte) reading[3]);
+            frame.putInt(reading[4]);
+        }
+        return frame.flip();
+    }
+
+    private void send(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    /**
+     * Waits up to five seconds for the given condition to hold.
+     */
+    private static void await(String message, BooleanSupplier condition)
+            throws InterruptedException {
+        long end = System.nanoTime() + 5_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > end) {
+                Assert.fail(message);
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    private void awaitAccepted(long readings) throws InterruptedException {
+        await("Expected " + readings + " accepted readings",
+                () -> server.getAcceptedReadings() == readings);
+    }
+
+    /**
+     * Returns the latest reading pushed onto the given feed, failing if
+     * there is none.
+     */
+    private static int take(SensorFeed feed) {
+        Assert.assertTrue(feed.pollLatest());
+        return feed.getLatestReading();
+    }
+
+    @Test
+    public void testRoutesReadings() throws Exception {
+        start(8);
+        send(frame(new int[]{0, 1, 101, TEMPERATURE, 24},
+                new int[]{0, 1, 101, NOISE, 61}));
+        awaitAccepted(2);
+
+        Assert.assertEquals(24, take(index.getFeed(0, 1, 101, TEMPERATURE)));
+        Assert.assertEquals(61, take(index.getFeed(0, 1, 101, NOISE)));
+        Assert.assertEquals(0, server.getDroppedReadings());
+    }
+
+    @Test
+    public void testSplitFrames() throws Exception {
+        start(8);
+        ByteBuffer first = frame(new int[]{0, 1, 101, TEMPERATURE, 21},
+                new int[]{0, 1, 101, TEMPERATURE, 22});
+        ByteBuffer second = frame(new int[]{0, 1, 101, NOISE, 62});
+        ByteBuffer stream = ByteBuffer.allocate(first.remaining()
+                + second.remaining());
+        stream.put(first).put(second).flip();
+
+        // Half a header, the rest of it, then records split mid-field
+        for (int split : new int[]{2, 2, 9, 15, 12, 4, 3}) {
+            ByteBuffer part = stream.slice();
+            part.limit(split);
+            send(part);
+            stream.position(stream.position() + split);
+            Thread.sleep(20);
+        }
+        // Both records of the first frame have arrived, but only part of
+        // the second frame's record
+        awaitAccepted(2);
+        Thread.sleep(50);
+        Assert.assertEquals(2, server.getAcceptedReadings());
+        send(stream);
+        awaitAccepted(3);
+
+        Assert.assertEquals(22, take(index.getFeed(0, 1, 101, TEMPERATURE)));
+        Assert.assertEquals(62, take(index.getFeed(0, 1, 101, NOISE)));
+        Assert.assertEquals(0, server.getDroppedReadings());
+    }
+
+    @Test
+    public void testPartialRecordNotRouted() throws Exception {
+        start(8);
+        ByteBuffer frame = frame(new int[]{0, 1, 101, TEMPERATURE, 23});
+        ByteBuffer part = frame.slice();
+        part.limit(frame.remaining() - 1);
+        send(part);
+        Thread.sleep(100);
+        Assert.assertEquals(0, server.getAcceptedReadings());
+
+        frame.position(frame.limit() - 1);
+        send(frame);
+        awaitAccepted(1);
+        Assert.assertEquals(23, take(index.getFeed(0, 1, 101, TEMPERATURE)));
+    }
+
+    @Test
+    public void testDropsUnknownReadings() throws Exception {
+        start(8);
+        send(frame(new int[]{1, 1, 101, TEMPERATURE, 20},
+                new int[]{0, 2, 101, TEMPERATURE, 20},
+                new int[]{0, 1, 102, TEMPERATURE, 20},
+                new int[]{0, 1, 101, SensorType.OCCUPANCY.ordinal(), 20},
+                new int[]{0, 1, 101, TEMPERATURE, -1},
+                new int[]{0, 1, 101, TEMPERATURE, 25}));
+        awaitAccepted(1);
+        await("Expected 5 dropped readings",
+                () -> server.getDroppedReadings() == 5);
+
+        SensorFeed feed = index.getFeed(0, 1, 101, TEMPERATURE);
+        Assert.assertEquals(25, take(feed));
+        Assert.assertFalse(feed.pollLatest());
+    }
+
+    @Test
+    public void testBackpressure() throws Exception {
+        start(1);
+        send(frame(new int[]{0, 1, 101, TEMPERATURE, 1},
+                new int[]{0, 1, 101, TEMPERATURE, 2},
+                new int[]{0, 1, 101, TEMPERATURE, 3},
+                new int[]{0, 1, 101, NOISE, 70}));
+        SensorFeed feed = index.getFeed(0, 1, 101, TEMPERATURE);
+
+        // The feed holds one reading, so the connection stalls on the
+        // second, and the noise reading behind it waits too
+        awaitAccepted(1);
+        Thread.sleep(100);
+        Assert.assertEquals(1, server.getAcceptedReadings());
+        Assert.assertEquals(1, feed.size());
+
+        // Each reading taken makes space for exactly one more
+        Assert.assertEquals(1, take(feed));
+        awaitAccepted(2);
+        Assert.assertEquals(2, take(feed));
+        awaitAccepted(4);
+        Assert.assertEquals(3, take(feed));
+        Assert.assertEquals(70, take(index.getFeed(0, 1, 101, NOISE)));
+        Assert.assertEquals(0, server.getDroppedReadings());
+    }
+}
@@ -0,0 +1,105 @@
+package bms.ingestion;
+
+import bms.building.Building;
+import bms.floor.Floor;
+import bms.room.Room;
+import bms.room.RoomType;
+import bms.sensors.NoiseSensor;
+import bms.sensors.SensorFeed;
+import bms.sensors.SensorType;
+import bms.sensors.TemperatureSensor;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+/** Use JUnit Test 4 to test the SensorIndex class.*/
+public class SensorIndexTest {
+
+    private Building building1, building2;
+    private TemperatureSensor temperature101, temperature201;
+    private NoiseSensor noise101;
+
+    @Before
+    public void setup() throws Exception {
+        building1 = new Building("General Purpose South");
+        building1.addFloor(new Floor(1, 10, 10));
+        Room room101 = new Room(101, RoomType.STUDY, 20);
+        temperature101 = new TemperatureSensor(new int[]{20});
+        noise101 = new NoiseSensor(new int[]{50}, 1);
+        room101.addSensor(temperature101);
+        room101.addSensor(noise101);
+        building1.getFloorByNumber(1).addRoom(room101);
+
+        building2 = new Building("Forgan Smith");
+        building2.addFloor(new Floor(1, 10, 10));
+        building2.addFloor(new Floor(2, 10, 10));
+        Room room201 = new Room(201, RoomType.OFFICE, 20);
+        temperature201 = new TemperatureSensor(new int[]{22});
+        room201.addSensor(temperature201);
+        building2.getFloorByNumber(2).addRoom(room201);
+    }
+
+    @Test
+    public void testFeedsAttached() {
+        SensorIndex index = new SensorIndex(List.of(building1, building2), 8);
+        Assert.assertEquals(3, index.size());
+
+        SensorFeed feed = index.getFeed(0, 1, 101,
+                SensorType.TEMPERATURE.ordinal());
+        Assert.assertNotNull(feed);
+        Assert.assertSame(feed, temperature101.getFeed());
+        Assert.assertEquals(8, feed.getCapacity());
+        Assert.assertSame(noise101.getFeed(), index.getFeed(0, 1, 101,
+                SensorType.NOISE.ordinal()));
+        Assert.assertSame(temperature201.getFeed(), index.getFeed(1, 2, 201,
+                SensorType.TEMPERATURE.ordinal()));
+    }
+
+    @Test
+    public void testUnknownAddress() {
+        SensorIndex index = new SensorIndex(List.of(building1, building2), 8);
+        // Wrong building, floor, room and sensor type
+        Assert.assertNull(index.getFeed(1, 1, 101,
+                SensorType.TEMPERATURE.ordinal()));
+        Assert.assertNull(index.getFeed(0, 2, 101,
+                SensorType.TEMPERATURE.ordinal()));
+        Assert.assertNull(index.getFeed(0, 1, 102,
+                SensorType.TEMPERATURE.ordinal()));
+        Assert.assertNull(index.getFeed(0, 1, 101,
+                SensorType.OCCUPANCY.ordinal()));
+        // Out of range of any address
+        Assert.assertNull(index.getFeed(-1, 1, 101, 0));
+        Assert.assertNull(index.getFeed(0, 1, -101, 0));
+        Assert.assertNull(index.getFeed(0, 1, 101, 256));
+    }
+
+    @Test
+    public void testOutOfRangeAttachesNoFeed() throws Exception {
+        Room large = new Room(0x1000000, RoomType.OFFICE, 20);
+        large.addSensor(new TemperatureSensor(new int[]{20}));
+        building2.getFloorByNumber(1).addRoom(large);
+        try {
+            new SensorIndex(List.of(building1, building2), 8);
+            Assert.fail("Room number out of range should be rejected");
+        } catch (IllegalArgumentException expected) {
+            // Room numbers must fit in 24 bits
+        }
+        // Sensors indexed before the bad room are left without a feed
+        Assert.assertNull(temperature101.getFeed());
+        Assert.assertNull(noise101.getFeed());
+    }
+
+    @Test
+    public void testInvalidCapacityAttachesNoFeed() {
+        try {
+            new SensorIndex(List.of(building1, building2), 0);
+            Assert.fail("Feed capacity of 0 should be rejected");
+        } catch (IllegalArgumentException expected) {
+            // Feeds must hold at least one reading
+        }
+        Assert.assertNull(temperature101.getFeed());
+        Assert.assertNull(temperature201.getFeed());
+    }
+}
@@ -0,0 +1,85 @@
+package bms.room;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+/** Use JUnit Test 4 to test the HazardHistory class.*/
+public class HazardHistoryTest {
+
+    private Room room;
+    private HazardHistory history;
+
+    @Before
+    public void setup() {
+        room = new Room(101, RoomType.STUDY, 20);
+        room.enableHazardHistory(10, 4);
+        history = room.getHazardHistory();
+    }
+
+    @Test
+    public void testEmpty() {
+        Assert.assertEquals(0, history.size());
+        Assert.assertEquals(0, history.getWindowMax());
+        Assert.assertEquals(0, history.getWindowMin());
+        Assert.assertEquals(0, history.getWindowMean(), 0.0001);
+    }
+
+    @Test
+    public void testElapseRecordsZeroWithoutEvaluator() {
+        history.elapseOneMinute();
+        Assert.assertEquals(1, history.size());
+        Assert.assertEquals(0, history.getLevel(0));
+    }
+
+    @Test
+    public void testWindowAggregates() {
+        int[] levels = {10, 50, 20, 30, 5, 40};
+        for (int level : levels) {
+            history.record(level);
+        }
+        // window holds 20, 30, 5, 40
+        Assert.assertEquals(40, history.getWindowMax());
+        Assert.assertEquals(5, history.getWindowMin());
+        Assert.assertEquals(23.75, history.getWindowMean(), 0.0001);
+        Assert.assertEquals(25.8333, history.getMean(100), 0.0001);
+        Assert.assertEquals(40, history.getLevel(0));
+        Assert.assertEquals(10, history.getLevel(5));
+    }
+
+    @Test
+    public void testMatchesBruteForce() {
+        Random random = new Random(42);
+        int[] recorded = new int[1000];
+        for (int i = 0; i < recorded.length; i++) {
+            recorded[i] = random.nextInt(101);
+            history.record(recorded[i]);
+
+            int max = 0, min = 100, sum = 0, n = 0;
+            for (int j = Math.max(0, i - 3); j <= i; j++) {
+                max = Math.max(max, recorded[j]);
+                min = Math.min(min, recorded[j]);
+                sum += recorded[j];
+                n++;
+            }
+            Assert.assertEquals(max, history.getWindowMax());
+            Assert.assertEquals(min, history.getWindowMin());
+            Assert.assertEquals((double) sum / n,
+                    history.getWindowMean(), 0.0001);
+        }
+        Assert.assertEquals(10, history.size());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGetLevelOutOfRange() {
+        history.record(10);
+        history.getLevel(1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWindowLargerThanCapacity() {
+        room.enableHazardHistory(5, 6);
+    }
+}
@@ -0,0 +1,112 @@
+package bms.room;
+
+import bms.exceptions.DuplicateSensorException;
+import bms.sensors.CarbonDioxideSensor;
+import bms.sensors.NoiseSensor;
+import bms.sensors.OccupancySensor;
+import bms.sensors.Sensor;
+import bms.sensors.SensorType;
+import bms.sensors.TemperatureSensor;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+/** Use JUnit Test 4 to test the sensor slots of the Room class.*/
+public class RoomTest {
+
+    private Room room;
+    private CarbonDioxideSensor co2;
+    private NoiseSensor noise;
+    private OccupancySensor occupancy;
+    private TemperatureSensor temperature;
+
+    @Before
+    public void setup() {
+        room = new Room(101, RoomType.STUDY, 20);
+        co2 = new CarbonDioxideSensor(new int[]{690, 740}, 2, 700, 150);
+        noise = new NoiseSensor(new int[]{55, 62}, 3);
+        occupancy = new OccupancySensor(new int[]{0, 13}, 1, 30);
+        temperature = new TemperatureSensor(new int[]{20, 22});
+    }
+
+    @Test
+    public void testSensorOrder() throws Exception {
+        // Sensors are kept in order of class name, whatever the order added
+        room.addSensor(temperature);
+        room.addSensor(noise);
+        Assert.assertEquals(List.of(noise, temperature),
+                room.getSensorsView());
+        room.addSensor(co2);
+        room.addSensor(occupancy);
+        Assert.assertEquals(List.of(co2, noise, occupancy, temperature),
+                room.getSensorsView());
+        Assert.assertEquals(room.getSensorsView(), room.getSensors());
+    }
+
+    @Test
+    public void testTypedSlots() throws Exception {
+        room.addSensor(occupancy);
+        room.addSensor(temperature);
+
+        Assert.assertSame(occupancy, room.getOccupancySensor());
+        Assert.assertSame(temperature, room.getTemperatureSensor());
+        Assert.assertNull(room.getNoiseSensor());
+        Assert.assertNull(room.getCarbonDioxideSensor());
+
+        Assert.assertSame(occupancy, room.getSensor(SensorType.OCCUPANCY));
+        Assert.assertSame(temperature, room.getSensor("TemperatureSensor"));
+        Assert.assertNull(room.getSensor(SensorType.NOISE));
+        Assert.assertNull(room.getSensor("NoiseSensor"));
+        Assert.assertNull(room.getSensor("HumiditySensor"));
+    }
+
+    @Test
+    public void testDuplicateDoesNotReplaceSlot() throws Exception {
+        room.addSensor(noise);
+        room.addSensor(temperature);
+        NoiseSensor other = new NoiseSensor(new int[]{80}, 1);
+        try {
+            room.addSensor(other);
+            Assert.fail("Room already has a noise sensor");
+        } catch (DuplicateSensorException expected) {
+            // The first sensor of each type is kept
+        }
+        Assert.assertSame(noise, room.getNoiseSensor());
+        Assert.assertSame(noise, room.getSensor("NoiseSensor"));
+        Assert.assertEquals(List.of(noise, temperature),
+                room.getSensorsView());
+    }
+
+    @Test
+    public void testStateFromTemperatureSlot() throws Exception {
+        Assert.assertEquals(RoomState.OPEN, room.evaluateRoomState());
+        room.addSensor(new TemperatureSensor(new int[]{68}));
+        Assert.assertEquals(RoomState.EVACUATE, room.evaluateRoomState());
+    }
+
+    @Test
+    public void testSensorsView() throws Exception {
+        List<Sensor> view = room.getSensorsView();
+        Assert.assertSame(view, room.getSensorsView());
+        try {
+            view.add(noise);
+            Assert.fail("View should reject additions");
+        } catch (UnsupportedOperationException expected) {
+            // Sensors can only be added through addSensor
+        }
+        Assert.assertNull(room.getNoiseSensor());
+
+        // The view reflects sensors added later, a copy does not
+        List<Sensor> copy = room.getSensors();
+        room.addSensor(noise);
+        Assert.assertEquals(List.of(noise), view);
+        Assert.assertTrue(copy.isEmpty());
+
+        // Changing a copy does not change the room
+        room.getSensors().clear();
+        Assert.assertSame(noise, room.getNoiseSensor());
+        Assert.assertEquals(1, room.getSensorsView().size());
+    }
+}
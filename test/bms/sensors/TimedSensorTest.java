@@ -0,0 +1,182 @@
+package bms.sensors;
+
+import bms.room.Room;
+import bms.room.RoomType;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Use JUnit Test 4 to test the precomputed levels of TimedSensor.*/
+public class TimedSensorTest {
+
+    private CarbonDioxideSensor co2, co2Precomputed;
+    private NoiseSensor noise, noisePrecomputed;
+    private OccupancySensor occupancy, occupancyPrecomputed;
+    private TemperatureSensor temperature, temperaturePrecomputed;
+
+    @Before
+    public void setup() {
+        int[] co2Readings = new int[]{690, 740, 1200, 2500, 5100, 600};
+        int[] noiseReadings = new int[]{55, 62, 69, 70, 75, 82};
+        int[] occupancyReadings = new int[]{0, 13, 24, 30, 35};
+        int[] temperatureReadings = new int[]{15, 19, 20, 26, 28, 68, 85};
+
+        co2 = new CarbonDioxideSensor(co2Readings, 2, 700, 150);
+        co2Precomputed = new CarbonDioxideSensor(co2Readings, 2, 700, 150);
+        noise = new NoiseSensor(noiseReadings, 3);
+        noisePrecomputed = new NoiseSensor(noiseReadings, 3);
+        occupancy = new OccupancySensor(occupancyReadings, 1, 30);
+        occupancyPrecomputed = new OccupancySensor(occupancyReadings, 1, 30);
+        temperature = new TemperatureSensor(temperatureReadings);
+        temperaturePrecomputed = new TemperatureSensor(temperatureReadings);
+
+        co2Precomputed.precomputeLevels();
+        noisePrecomputed.precomputeLevels();
+        occupancyPrecomputed.precomputeLevels();
+        temperaturePrecomputed.precomputeLevels();
+    }
+
+    @Test
+    public void testIsPrecomputed() {
+        Assert.assertFalse(co2.isPrecomputed());
+        Assert.assertTrue(co2Precomputed.isPrecomputed());
+    }
+
+    @Test
+    public void testPrecomputedLevelsMatch() {
+        for (int i = 0; i < 60; i++) {
+            Assert.assertEquals(co2.getHazardLevel(),
+                    co2Precomputed.getHazardLevel());
+            Assert.assertEquals(co2.getComfortLevel(),
+                    co2Precomputed.getComfortLevel());
+            Assert.assertEquals(noise.getHazardLevel(),
+                    noisePrecomputed.getHazardLevel());
+            Assert.assertEquals(noise.getComfortLevel(),
+                    noisePrecomputed.getComfortLevel());
+            Assert.assertEquals(occupancy.getHazardLevel(),
+                    occupancyPrecomputed.getHazardLevel());
+            Assert.assertEquals(occupancy.getComfortLevel(),
+                    occupancyPrecomputed.getComfortLevel());
+            Assert.assertEquals(temperature.getHazardLevel(),
+                    temperaturePrecomputed.getHazardLevel());
+            Assert.assertEquals(temperature.getComfortLevel(),
+                    temperaturePrecomputed.getComfortLevel());
+
+            co2.elapseOneMinute();
+            co2Precomputed.elapseOneMinute();
+            noise.elapseOneMinute();
+            noisePrecomputed.elapseOneMinute();
+            occupancy.elapseOneMinute();
+            occupancyPrecomputed.elapseOneMinute();
+            temperature.elapseOneMinute();
+            temperaturePrecomputed.elapseOneMinute();
+        }
+    }
+
+    @Test
+    public void testPrecomputedLevelsAfterElapse() {
+        noisePrecomputed.elapseOneMinute();
+        noisePrecomputed.elapseOneMinute();
+        noisePrecomputed.elapseOneMinute();
+        Assert.assertEquals(62, noisePrecomputed.getCurrentReading());
+        Assert.assertEquals(57, noisePrecomputed.getHazardLevel());
+        Assert.assertEquals(42, noisePrecomputed.getComfortLevel());
+    }
+
+    @Test
+    public void testForecastReading() {
+        Assert.assertEquals(55, noise.forecastReading(0));
+        Assert.assertEquals(62, noise.forecastReading(3));
+        Assert.assertEquals(82, noise.forecastReading(17));
+        Assert.assertEquals(55, noise.forecastReading(18));
+
+        int[] forecast = new int[40];
+        for (int i = 0; i < forecast.length; i++) {
+            forecast[i] = occupancy.forecastReading(i + 1);
+        }
+        for (int reading : forecast) {
+            occupancy.elapseOneMinute();
+            Assert.assertEquals(reading, occupancy.getCurrentReading());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testForecastReadingInPast() {
+        noise.forecastReading(-1);
+    }
+
+    @Test
+    public void testPrecomputedWhenAddedToRoom() throws Exception {
+        Room room = new Room(101, RoomType.STUDY, 10);
+        room.addSensor(co2);
+        room.addSensor(noise);
+        Assert.assertTrue(co2.isPrecomputed());
+        Assert.assertTrue(noise.isPrecomputed());
+        Assert.assertFalse(occupancy.isPrecomputed());
+        for (int i = 0; i < 12; i++) {
+            co2.elapseOneMinute();
+            co2Precomputed.elapseOneMinute();
+            Assert.assertEquals(co2Precomputed.getHazardLevel(),
+                    co2.getHazardLevel());
+            Assert.assertEquals(co2Precomputed.getComfortLevel(),
+                    co2.getComfortLevel());
+        }
+    }
+
+    @Test
+    public void testFeedTakesLatestReading() {
+        SensorFeed feed = new SensorFeed(4);
+        temperaturePrecomputed.setFeed(feed);
+        Assert.assertTrue(feed.offer(1, 30));
+        Assert.assertTrue(feed.offer(2, 70));
+        temperaturePrecomputed.elapseOneMinute();
+        Assert.assertEquals(70, temperaturePrecomputed.getCurrentReading());
+        Assert.assertEquals(100, temperaturePrecomputed.getHazardLevel());
+        Assert.assertEquals(2, feed.getLatestTimestamp());
+
+        // nothing new on the feed, so the reading is kept
+        temperaturePrecomputed.elapseOneMinute();
+        Assert.assertEquals(70, temperaturePrecomputed.getCurrentReading());
+
+        // two minutes have elapsed, so the array reading at index 2
+        temperaturePrecomputed.setFeed(null);
+        Assert.assertEquals(20, temperaturePrecomputed.getCurrentReading());
+        Assert.assertEquals(100, temperaturePrecomputed.getComfortLevel());
+        Assert.assertEquals(0, temperaturePrecomputed.getHazardLevel());
+
+        // and the array cycle continues from there
+        temperaturePrecomputed.elapseOneMinute();
+        Assert.assertEquals(26, temperaturePrecomputed.getCurrentReading());
+    }
+
+    @Test
+    public void testFeedFull() {
+        SensorFeed feed = new SensorFeed(3);
+        Assert.assertEquals(4, feed.getCapacity());
+        for (int i = 0; i < 4; i++) {
+            Assert.assertTrue(feed.offer(i, i));
+        }
+        Assert.assertFalse(feed.offer(4, 4));
+        Assert.assertTrue(feed.pollLatest());
+        Assert.assertEquals(3, feed.getLatestReading());
+        Assert.assertEquals(0, feed.size());
+        Assert.assertFalse(feed.pollLatest());
+        Assert.assertTrue(feed.offer(5, 5));
+    }
+
+    @Test
+    public void testReadingsCopied() {
+        int[] readings = new int[]{20, 30};
+        TemperatureSensor sensor = new TemperatureSensor(readings);
+        sensor.precomputeLevels();
+        readings[0] = 85;
+        readings[1] = 85;
+
+        Assert.assertEquals(20, sensor.getCurrentReading());
+        Assert.assertEquals(0, sensor.getHazardLevel());
+        Assert.assertEquals("20,30", sensor.encode().split(":")[1]);
+        sensor.elapseOneMinute();
+        Assert.assertEquals(30, sensor.getCurrentReading());
+        Assert.assertEquals(new TemperatureSensor(new int[]{20, 30}), sensor);
+    }
+}
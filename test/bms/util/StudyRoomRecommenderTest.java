@@ -0,0 +1,304 @@
+package bms.util;
+
+import bms.building.Building;
+import bms.building.Campus;
+import bms.floor.Floor;
+import bms.room.Room;
+import bms.room.RoomState;
+import bms.room.RoomType;
+import bms.sensors.ComfortSensor;
+import bms.sensors.NoiseSensor;
+import bms.sensors.OccupancySensor;
+import bms.sensors.Sensor;
+import bms.sensors.TemperatureSensor;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/** Use JUnit Test 4 to test the StudyRoomRecommender class.*/
+public class StudyRoomRecommenderTest {
+
+    private Building building;
+    private Room room101, room102, room201;
+
+    @Before
+    public void setup() throws Exception {
+        building = new Building("General Purpose South");
+        building.addFloor(new Floor(1, 10, 10));
+        building.addFloor(new Floor(2, 10, 10));
+
+        room101 = new Room(101, RoomType.STUDY, 20);
+        room101.addSensor(new TemperatureSensor(new int[]{28, 22}));
+        room102 = new Room(102, RoomType.STUDY, 20);
+        room102.addSensor(new TemperatureSensor(new int[]{27, 27}));
+        room201 = new Room(201, RoomType.STUDY, 20);
+        room201.addSensor(new TemperatureSensor(new int[]{22, 22}));
+        building.getFloorByNumber(1).addRoom(room101);
+        building.getFloorByNumber(1).addRoom(room102);
+        building.getFloorByNumber(2).addRoom(room201);
+    }
+
+    @Test
+    public void testNoRooms() {
+        Assert.assertNull(StudyRoomRecommender.recommendStudyRoom(
+                new Building("Empty")));
+    }
+
+    @Test
+    public void testClimbsForMoreComfort() {
+        // 101 and 102 have comfort 60 and 80; 201 has comfort 100
+        Assert.assertSame(room201,
+                StudyRoomRecommender.recommendStudyRoom(building));
+    }
+
+    @Test
+    public void testRecommendationFollowsTick() {
+        StudyRoomRecommender.recommendStudyRoom(building);
+        // 101 is now as comfortable as 201, so there is no need to climb
+        TimedItemManager.getInstance().elapseOneMinute();
+        Assert.assertSame(room101,
+                StudyRoomRecommender.recommendStudyRoom(building));
+    }
+
+    @Test
+    public void testRecommendationMemoisedUntilChange() throws Exception {
+        Room room202 = new Room(202, RoomType.STUDY, 20);
+        room202.addSensor(new TemperatureSensor(new int[]{22}));
+        Assert.assertSame(room201,
+                StudyRoomRecommender.recommendStudyRoom(building));
+        Assert.assertSame(room201,
+                StudyRoomRecommender.recommendStudyRoom(building));
+
+        // Each change moves the building to a new version
+        room201.setMaintenance(true);
+        building.getFloorByNumber(2).addRoom(room202);
+        Assert.assertSame(room202,
+                StudyRoomRecommender.recommendStudyRoom(building));
+    }
+
+    @Test
+    public void testRecommendationFromEarlierListener() {
+        // A listener told of changes before the comfort index, as the
+        // building canvas is, must not memoise a stale recommendation
+        List<Room> seen = new ArrayList<>();
+        building.addFloorListener((floor, room, change) ->
+                seen.add(StudyRoomRecommender.recommendStudyRoom(building)));
+        Assert.assertSame(room201,
+                StudyRoomRecommender.recommendStudyRoom(building));
+
+        room201.setFireDrill(true);
+        Assert.assertEquals(1, seen.size());
+        Assert.assertEquals(RoomState.EVACUATE, room201.evaluateRoomState());
+        Assert.assertSame(room102,
+                StudyRoomRecommender.recommendStudyRoom(building));
+    }
+
+    @Test
+    public void testRecommendationFollowsRoomState() {
+        StudyRoomRecommender.recommendStudyRoom(building);
+        room201.setMaintenance(true);
+        Assert.assertSame(room102,
+                StudyRoomRecommender.recommendStudyRoom(building));
+
+        room101.setFireDrill(true);
+        room102.setFireDrill(true);
+        Assert.assertNull(StudyRoomRecommender.recommendStudyRoom(building));
+    }
+
+    @Test
+    public void testMatchesFullEvaluation() throws Exception {
+        Random random = new Random(41);
+        Building large = new Building("Large");
+        for (int f = 1; f <= 6; ++f) {
+            Floor floor = new Floor(f, 20, 20);
+            large.addFloor(floor);
+            for (int r = 0; r < 5; ++r) {
+                Room room = new Room(f * 100 + r, random.nextInt(3) == 0
+                        ? RoomType.OFFICE : RoomType.STUDY, 10);
+                room.addSensor(new TemperatureSensor(randomReadings(random,
+                        15, 32)));
+                if (random.nextBoolean()) {
+                    room.addSensor(new NoiseSensor(randomReadings(random,
+                            30, 80), 1 + random.nextInt(5)));
+                }
+                floor.addRoom(room);
+            }
+        }
+
+        for (int minute = 0; minute < 50; ++minute) {
+            Assert.assertSame(recommendByFullEvaluation(large),
+                    StudyRoomRecommender.recommendStudyRoom(large));
+            Room room = large.getFloorByNumber(1 + random.nextInt(6))
+                    .getRoomsView().get(random.nextInt(5));
+            room.setMaintenance(!room.maintenanceOngoing());
+            TimedItemManager.getInstance().elapseOneMinute();
+        }
+    }
+
+    @Test
+    public void testTopRooms() throws Exception {
+        Building other = new Building("Forgan Smith");
+        other.addFloor(new Floor(1, 10, 10));
+        Room room301 = new Room(301, RoomType.STUDY, 8);
+        room301.addSensor(new TemperatureSensor(new int[]{26}));
+        other.getFloorByNumber(1).addRoom(room301);
+
+        StudyRoomQuery query = new StudyRoomQuery(3);
+        Assert.assertEquals(List.of(room201, room301, room102),
+                StudyRoomRecommender.recommendStudyRooms(
+                        List.of(building, other), query));
+
+        query = new StudyRoomQuery(10);
+        query.setMinArea(10);
+        query.restrictToFloors(Set.of(1));
+        Assert.assertEquals(List.of(room102, room101),
+                StudyRoomRecommender.recommendStudyRooms(
+                        List.of(building, other), query));
+    }
+
+    @Test
+    public void testTopRoomsPreferredFloors() throws Exception {
+        // Preferred rooms come first even though 201 is more comfortable
+        StudyRoomQuery query = new StudyRoomQuery(2);
+        query.setPreferredFloors(Set.of(1));
+        Assert.assertEquals(List.of(room102, room101),
+                StudyRoomRecommender.recommendStudyRooms(
+                        List.of(building), query));
+
+        // Other floors fill the remaining places
+        query = new StudyRoomQuery(10);
+        query.setPreferredFloors(Set.of(1));
+        Assert.assertEquals(List.of(room102, room101, room201),
+                StudyRoomRecommender.recommendStudyRooms(
+                        List.of(building), query));
+
+        // A preferred floor which is not considered is never returned
+        query.restrictToFloors(Set.of(2));
+        Assert.assertEquals(List.of(room201),
+                StudyRoomRecommender.recommendStudyRooms(
+                        List.of(building), query));
+    }
+
+    @Test
+    public void testTopRoomsOccupancy() throws Exception {
+        Room room202 = new Room(202, RoomType.STUDY, 20);
+        room202.addSensor(new OccupancySensor(new int[]{8}, 1, 10));
+        Room room203 = new Room(203, RoomType.STUDY, 20);
+        room203.addSensor(new OccupancySensor(new int[]{3}, 1, 10));
+        building.getFloorByNumber(2).addRoom(room202);
+        building.getFloorByNumber(2).addRoom(room203);
+        room101.setMaintenance(true);
+
+        StudyRoomQuery query = new StudyRoomQuery(10);
+        query.setMaxOccupancyRatio(0.5);
+        Assert.assertEquals(List.of(room201, room102, room203),
+                StudyRoomRecommender.recommendStudyRooms(
+                        List.of(building), query));
+    }
+
+    @Test
+    public void testTopRoomsMatchesSort() throws Exception {
+        Random random = new Random(42);
+        List<Building> buildings = new ArrayList<>();
+        List<Room> expected = new ArrayList<>();
+        for (int b = 0; b < 3; ++b) {
+            Building large = new Building("Building " + b);
+            buildings.add(large);
+            for (int f = 1; f <= 4; ++f) {
+                large.addFloor(new Floor(f, 20, 20));
+                for (int r = 0; r < 8; ++r) {
+                    Room room = new Room(f * 100 + r, RoomType.STUDY, 10);
+                    room.addSensor(new TemperatureSensor(
+                            randomReadings(random, 15, 32)));
+                    large.getFloorByNumber(f).addRoom(room);
+                    expected.add(room);
+                }
+            }
+        }
+        // Stable sort keeps building, floor and room order between ties
+        expected.sort(Comparator.comparingInt(room -> -comfort(room)));
+
+        Assert.assertEquals(expected.subList(0, 7),
+                StudyRoomRecommender.recommendStudyRooms(buildings,
+                        new StudyRoomQuery(7)));
+    }
+
+    @Test
+    public void testCampusRecommendation() throws Exception {
+        Random random = new Random(43);
+        Campus campus = new Campus();
+        Room expected = null;
+        for (int b = 0; b < 40; ++b) {
+            Building large = new Building("Building " + b);
+            for (int f = 1; f <= 3; ++f) {
+                large.addFloor(new Floor(f, 20, 20));
+                for (int r = 0; r < 4; ++r) {
+                    Room room = new Room(f * 100 + r, RoomType.STUDY, 10);
+                    room.addSensor(new TemperatureSensor(
+                            randomReadings(random, 15, 32)));
+                    large.getFloorByNumber(f).addRoom(room);
+                }
+            }
+            campus.addBuilding(large);
+
+            Room room = recommendByFullEvaluation(large);
+            if (room != null && comfort(room) > comfort(expected)) {
+                expected = room;
+            }
+        }
+
+        Assert.assertSame(expected,
+                StudyRoomRecommender.recommendStudyRoom(campus));
+        Assert.assertNull(StudyRoomRecommender.recommendStudyRoom(
+                new Campus()));
+    }
+
+    private static int[] randomReadings(Random random, int min, int max) {
+        int[] readings = new int[1 + random.nextInt(6)];
+        for (int i = 0; i < readings.length; ++i) {
+            readings[i] = min + random.nextInt(max - min);
+        }
+        return readings;
+    }
+
+    /**
+     * Recommends a study room by evaluating every room's comfort from
+     * scratch, floor by floor.
+     */
+    private static Room recommendByFullEvaluation(Building building) {
+        Room candidate = null;
+        for (Floor floor : building.getFloorsView()) {
+            Room best = null;
+            for (Room room : floor.getRoomsView()) {
+                if (room.getType() == RoomType.STUDY
+                        && room.evaluateRoomState() == RoomState.OPEN
+                        && comfort(room) > comfort(best)) {
+                    best = room;
+                }
+            }
+            if (best == null || (candidate != null
+                    && comfort(candidate) >= comfort(best))) {
+                return candidate;
+            }
+            candidate = best;
+        }
+        return candidate;
+    }
+
+    private static int comfort(Room room) {
+        if (room == null || room.getSensorsView().isEmpty()) {
+            return 0;
+        }
+        int total = 0;
+        for (Sensor sensor : room.getSensorsView()) {
+            total += ((ComfortSensor) sensor).getComfortLevel();
+        }
+        return total / room.getSensorsView().size();
+    }
+}